@@ -0,0 +1,33 @@
+package com.recipevault.benchmarks;
+
+import org.openjdk.jmh.Main;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Entry point of benchmarks.jar: JMH's own Main, but results are written as JSON unless -rf/-rff are given
+ * One file per run under target/jmh-results, named after the start time, so runs can be compared later
+ */
+
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> options = new ArrayList<>(Arrays.asList(args));
+        if (!options.contains("-rf") && !options.contains("-rff")) {
+            Path results = Path.of("target", "jmh-results",
+                    LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+            Files.createDirectories(results.getParent());
+            options.addAll(List.of("-rf", "json", "-rff", results.toString()));
+        }
+        Main.main(options.toArray(String[]::new));
+    }
+}
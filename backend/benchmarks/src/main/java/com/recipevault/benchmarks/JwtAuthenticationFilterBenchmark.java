@@ -0,0 +1,67 @@
+package com.recipevault.benchmarks;
+
+import com.recipevault.backend.security.JwtAuthenticationFilter;
+import com.recipevault.backend.security.JwtTokenProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * JwtAuthenticationFilter end to end: header extraction, token validation, principal from claims, security context
+ * Tokens carry the principal claims, so no user lookup happens (the details service is never called)
+ * Includes the jwt.filter timer, recorded into an in-memory registry
+ * The context is cleared after every call like SecurityContextHolderFilter does at the end of a request
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+    private static final String SECRET = "myVerySecretKeyThatShouldBeChangedInProduction123456789";
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest authenticatedRequest;
+    private MockHttpServletRequest anonymousRequest;
+    private MockHttpServletResponse response;
+    private final FilterChain chain = (request, response) -> { };
+
+    @Setup
+    public void setUp() {
+        JwtTokenProvider tokenProvider = new JwtTokenProvider(SECRET, 86400000L);
+        filter = new JwtAuthenticationFilter(tokenProvider, null, new SimpleMeterRegistry());
+
+        authenticatedRequest = new MockHttpServletRequest("GET", "/api/recipes/my-recipes");
+        authenticatedRequest.addHeader("Authorization", "Bearer " + tokenProvider.generateToken(RecipeFixtures.user()));
+        anonymousRequest = new MockHttpServletRequest("GET", "/api/recipes");
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Authentication authenticatedRequest() throws Exception {
+        return filter(authenticatedRequest);
+    }
+
+    // Baseline: public endpoints pay only for the header check
+    @Benchmark
+    public Authentication anonymousRequest() throws Exception {
+        return filter(anonymousRequest);
+    }
+
+    private Authentication filter(MockHttpServletRequest request) throws Exception {
+        try {
+            filter.doFilter(request, response, chain);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.recipevault.benchmarks;
+
+import com.recipevault.backend.entities.UserEntity;
+import com.recipevault.backend.enums.Role;
+import com.recipevault.backend.security.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Per-request cost of JWT validation as seen by JwtAuthenticationFilter
+ * legacyValidateThenParse reproduces the old provider: validateToken + getUserIdFromToken,
+ * each deriving the HMAC key and building a new parser, so the token is verified twice
+ * parseAndValidate is the current single-parse path with the prebuilt parser
+ * generateToken is the signing cost paid once per login
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtValidationBenchmark {
+    private static final String SECRET = "myVerySecretKeyThatShouldBeChangedInProduction123456789";
+
+    private JwtTokenProvider tokenProvider;
+    private UserEntity user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenProvider = new JwtTokenProvider(SECRET, 86400000L);
+
+        user = new UserEntity("benchmark", "benchmark@example.com", "password");
+        user.setId(UUID.randomUUID());
+        user.setRole(Role.USER);
+        token = tokenProvider.generateToken(user);
+    }
+
+    @Benchmark
+    public String legacyValidateThenParse() {
+        // validateToken
+        Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token);
+        // getUserIdFromToken
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody()
+                .getSubject();
+    }
+
+    @Benchmark
+    public String parseAndValidate() {
+        return tokenProvider.parseAndValidate(token)
+                .map(Claims::getSubject)
+                .orElseThrow();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenProvider.generateToken(user);
+    }
+}
@@ -0,0 +1,61 @@
+package com.recipevault.benchmarks;
+
+import com.recipevault.backend.entities.IngredientEntity;
+import com.recipevault.backend.entities.RecipeEntity;
+import com.recipevault.backend.entities.UserEntity;
+import com.recipevault.backend.enums.Difficulty;
+import com.recipevault.backend.enums.Role;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/*
+ * Detached recipes shaped like production rows: owner, content-addressed image URL, instructions and ingredients
+ */
+
+final class RecipeFixtures {
+    static final int INGREDIENTS_PER_RECIPE = 10;
+
+    private RecipeFixtures() {
+    }
+
+    static UserEntity user() {
+        UserEntity user = new UserEntity("benchmark", "benchmark@example.com", "password");
+        user.setId(UUID.randomUUID());
+        user.setRole(Role.USER);
+        user.setFirstName("Bench");
+        user.setLastName("Mark");
+        return user;
+    }
+
+    static List<RecipeEntity> recipes(int count) {
+        UserEntity owner = user();
+        Difficulty[] difficulties = Difficulty.values();
+        LocalDateTime now = LocalDateTime.now();
+        List<RecipeEntity> recipes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            RecipeEntity recipe = new RecipeEntity();
+            recipe.setId((long) i + 1);
+            recipe.setTitle("Benchmark recipe " + i);
+            recipe.setDifficulty(difficulties[i % difficulties.length]);
+            recipe.setInstructions("Chop everything, then simmer for " + (10 + i % 50) + " minutes. ".repeat(10));
+            recipe.setCreatorName("Bench Mark");
+            recipe.setCreatedDate(now.minusMinutes(i));
+            recipe.setLastModifiedDate(now.minusMinutes(i));
+            recipe.setVersion(0L);
+            recipe.setImageUrl("https://recipevault.s3.amazonaws.com/recipe-images/"
+                    + "%064x".formatted(i) + "/original.jpg");
+            recipe.setUser(owner);
+            for (int j = 0; j < INGREDIENTS_PER_RECIPE; j++) {
+                IngredientEntity ingredient = new IngredientEntity();
+                ingredient.setId((long) i * INGREDIENTS_PER_RECIPE + j + 1);
+                ingredient.setIngredientName("Ingredient " + j);
+                recipe.addIngredient(ingredient);
+            }
+            recipes.add(recipe);
+        }
+        return recipes;
+    }
+}
@@ -0,0 +1,65 @@
+package com.recipevault.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.recipevault.backend.dto.recipes.RecipeDetailDTO;
+import com.recipevault.backend.dto.recipes.RecipeSummaryDTO;
+import com.recipevault.backend.mapper.IngredientMapperImpl;
+import com.recipevault.backend.mapper.RecipeMapper;
+import com.recipevault.backend.mapper.RecipeMapperImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * JSON response bodies as written by the message converter, from already mapped DTOs
+ * Jackson2ObjectMapperBuilder gives the ObjectMapper Spring Boot starts from (java.time module, ISO dates),
+ * the application adds no Jackson settings of its own
+ * Writers are resolved once per type like the converter's cached serializers
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecipeJsonBenchmark {
+
+    @Param({"20", "1000"})
+    private int size;
+
+    private ObjectWriter summaryListWriter;
+    private ObjectWriter detailWriter;
+    private List<RecipeSummaryDTO> summaries;
+    private RecipeDetailDTO detail;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        summaryListWriter = objectMapper.writerFor(
+                objectMapper.getTypeFactory().constructCollectionType(List.class, RecipeSummaryDTO.class));
+        detailWriter = objectMapper.writerFor(RecipeDetailDTO.class);
+
+        try (AnnotationConfigApplicationContext context =
+                     new AnnotationConfigApplicationContext(RecipeMapperImpl.class, IngredientMapperImpl.class)) {
+            RecipeMapper recipeMapper = context.getBean(RecipeMapper.class);
+            summaries = recipeMapper.toSummaryDTOList(RecipeFixtures.recipes(size));
+            detail = recipeMapper.toDetailDTO(RecipeFixtures.recipes(1).get(0));
+        }
+    }
+
+    @Benchmark
+    public byte[] summaryList() throws Exception {
+        return summaryListWriter.writeValueAsBytes(summaries);
+    }
+
+    // Independent of size, a detail response is always one recipe
+    @Benchmark
+    public byte[] detail() throws Exception {
+        return detailWriter.writeValueAsBytes(detail);
+    }
+}
@@ -0,0 +1,62 @@
+package com.recipevault.benchmarks;
+
+import com.recipevault.backend.dto.recipes.RecipeDetailDTO;
+import com.recipevault.backend.dto.recipes.RecipeSummaryDTO;
+import com.recipevault.backend.entities.RecipeEntity;
+import com.recipevault.backend.mapper.IngredientMapperImpl;
+import com.recipevault.backend.mapper.RecipeMapper;
+import com.recipevault.backend.mapper.RecipeMapperImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Entity to DTO mapping done by the MapStruct generated RecipeMapper on every list and detail response
+ * The mapper is wired by a minimal Spring context, exactly like the application (field injected IngredientMapper)
+ * size covers a feed page, a large listing and a full catalogue walk
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecipeMappingBenchmark {
+
+    @Param({"20", "1000", "10000"})
+    private int size;
+
+    private AnnotationConfigApplicationContext context;
+    private RecipeMapper recipeMapper;
+    private List<RecipeEntity> recipes;
+
+    @Setup
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(RecipeMapperImpl.class, IngredientMapperImpl.class);
+        recipeMapper = context.getBean(RecipeMapper.class);
+        recipes = RecipeFixtures.recipes(size);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<RecipeSummaryDTO> toSummaryDTOList() {
+        return recipeMapper.toSummaryDTOList(recipes);
+    }
+
+    // One detail per recipe, each with its ingredients
+    @Benchmark
+    public void toDetailDTO(Blackhole blackhole) {
+        for (RecipeEntity recipe : recipes) {
+            RecipeDetailDTO detail = recipeMapper.toDetailDTO(recipe);
+            blackhole.consume(detail);
+        }
+    }
+}
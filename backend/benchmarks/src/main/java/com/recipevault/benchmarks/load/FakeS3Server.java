@@ -0,0 +1,121 @@
+package com.recipevault.benchmarks.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+/*
+ * In-memory stand-in for S3 so load tests run offline: point the backend at it with AWS_S3_ENDPOINT
+ * Understands what the backend's clients send with path-style addressing: object PUT/GET/HEAD/DELETE and the
+ * initiate/part/complete calls of multipart uploads (parts are acknowledged, not stored)
+ * Signatures are not checked, an optional delay per request stands in for S3's own latency
+ * Usage: java -cp benchmarks.jar com.recipevault.benchmarks.load.FakeS3Server [port] [delay-ms]
+ */
+
+public class FakeS3Server {
+    private record StoredObject(byte[] body, String contentType) {
+    }
+
+    private final Map<String, StoredObject> objects = new ConcurrentHashMap<>();
+    private final HttpServer server;
+    private final long delayMillis;
+
+    public FakeS3Server(int port, long delayMillis) throws IOException {
+        this.delayMillis = delayMillis;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 9090;
+        long delayMillis = args.length > 1 ? Long.parseLong(args[1]) : 20;
+        new FakeS3Server(port, delayMillis).start();
+        System.out.println("Fake S3 listening on http://127.0.0.1:" + port + " (" + delayMillis + " ms per request)");
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            if (delayMillis > 0) {
+                Thread.sleep(delayMillis);
+            }
+            URI uri = exchange.getRequestURI();
+            String key = uri.getPath();
+            String query = uri.getQuery() == null ? "" : uri.getQuery();
+
+            switch (exchange.getRequestMethod()) {
+                case "PUT" -> {
+                    if (!query.contains("partNumber=")) {
+                        objects.put(key, new StoredObject(body,
+                                exchange.getRequestHeaders().getFirst("Content-Type")));
+                    }
+                    exchange.getResponseHeaders().add("ETag", "\"" + Integer.toHexString(body.length) + "\"");
+                    respond(exchange, 200, new byte[0]);
+                }
+                case "GET", "HEAD" -> {
+                    StoredObject object = objects.get(key);
+                    if (object == null) {
+                        respond(exchange, 404, new byte[0]);
+                    } else {
+                        if (object.contentType() != null) {
+                            exchange.getResponseHeaders().add("Content-Type", object.contentType());
+                        }
+                        respond(exchange, 200, object.body());
+                    }
+                }
+                case "DELETE" -> {
+                    objects.remove(key);
+                    respond(exchange, 204, null);
+                }
+                case "POST" -> {
+                    // ?uploads starts a multipart upload, ?uploadId=... completes it
+                    String xml = query.startsWith("uploads")
+                            ? "<InitiateMultipartUploadResult><Key>" + key + "</Key><UploadId>fake</UploadId>"
+                              + "</InitiateMultipartUploadResult>"
+                            : "<CompleteMultipartUploadResult><Key>" + key + "</Key><ETag>\"fake\"</ETag>"
+                              + "</CompleteMultipartUploadResult>";
+                    exchange.getResponseHeaders().add("Content-Type", "application/xml");
+                    respond(exchange, 200, xml.getBytes(StandardCharsets.UTF_8));
+                }
+                default -> respond(exchange, 405, new byte[0]);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // HEAD answers carry the object's length but no body
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        boolean head = "HEAD".equals(exchange.getRequestMethod());
+        if (head) {
+            exchange.getResponseHeaders().add("Content-Length", String.valueOf(body.length));
+        }
+        exchange.sendResponseHeaders(status, head || body.length == 0 ? -1 : body.length);
+        if (!head && body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
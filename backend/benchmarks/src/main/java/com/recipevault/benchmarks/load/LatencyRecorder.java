@@ -0,0 +1,67 @@
+package com.recipevault.benchmarks.load;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+ * Latencies of one operation, recorded by a single worker thread and merged once the run is over
+ * Keeps every sample (8 bytes each), exact percentiles matter more here than memory
+ */
+
+class LatencyRecorder {
+    private long[] nanos = new long[1024];
+    private int count;
+    private int errors;
+    private final Map<Integer, Integer> statuses = new TreeMap<>();
+
+    void record(long latencyNanos, int status) {
+        if (count == nanos.length) {
+            nanos = Arrays.copyOf(nanos, count * 2);
+        }
+        nanos[count++] = latencyNanos;
+        statuses.merge(status, 1, Integer::sum);
+        // Connection failures are recorded as status 0
+        if (status == 0 || status >= 400) {
+            errors++;
+        }
+    }
+
+    void merge(LatencyRecorder other) {
+        for (int i = 0; i < other.count; i++) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, Math.max(count * 2, count + other.count));
+            }
+            nanos[count++] = other.nanos[i];
+        }
+        errors += other.errors;
+        other.statuses.forEach((status, times) -> statuses.merge(status, times, Integer::sum));
+    }
+
+    Summary summarize(double seconds) {
+        long[] sorted = Arrays.copyOf(nanos, count);
+        Arrays.sort(sorted);
+        return new Summary(count, errors, count / seconds,
+                millis(count == 0 ? 0 : Arrays.stream(sorted).sum() / count),
+                millis(percentile(sorted, 50)), millis(percentile(sorted, 90)), millis(percentile(sorted, 99)),
+                millis(percentile(sorted, 99.9)), millis(count == 0 ? 0 : sorted[count - 1]),
+                new TreeMap<>(statuses));
+    }
+
+    // Nearest rank
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    record Summary(int requests, int errors, double throughput, double meanMs, double p50Ms, double p90Ms,
+                   double p99Ms, double p999Ms, double maxMs, Map<Integer, Integer> statuses) {
+    }
+}
@@ -0,0 +1,372 @@
+package com.recipevault.benchmarks.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+ * Closed-loop HTTP load against a running backend: every worker logs in as one of the generated dataset users and
+ * sends requests back to back, picking each operation from a weighted mix
+ * Covers RecipeController (feed, browse, detail, search, my recipes, create, update, delete), AuthController (login)
+ * and ImageUploadController (multipart upload, against FakeS3Server or local storage)
+ * Requests during the warmup are sent but not recorded; the report has throughput and latency percentiles per
+ * operation, printed and written as JSON (target/load-results/<start time>.json unless --results is given)
+ * Usage: java -cp benchmarks.jar com.recipevault.benchmarks.load.LoadHarness [--option=value ...]
+ *   --base-url=http://localhost:9000 --concurrency=16 --duration=60s --warmup=10s
+ *   --users=1000 --password=password --recipes=100000 (match the dataset profile)
+ *   --mix=feed=25,browse=15,detail=25,search=10,mine=5,login=5,create=6,update=4,delete=2,upload=3
+ */
+
+public class LoadHarness {
+    private static final String USERNAME_PREFIX = "dataset-user-";
+    private static final String[] SEARCH_TERMS = {
+            "garlic", "chicken curry", "saffron", "creamy pasta", "lemon", "tofu stir-fry", "chocolate cake",
+            "roasted", "spicy noodles", "salmon", "mushroom risotto", "coconut"
+    };
+    private static final String[] INGREDIENTS = {
+            "eggs", "flour", "milk", "butter", "sugar", "garlic", "onion", "tomatoes", "rice", "chicken breast",
+            "pasta", "parmesan", "lemon", "spinach", "potatoes"
+    };
+    private static final String[] DIFFICULTIES = {"EASY", "MEDIUM", "HARD"};
+
+    private final URI baseUrl;
+    private final int concurrency;
+    private final Duration duration;
+    private final Duration warmup;
+    private final int users;
+    private final String password;
+    private final int recipes;
+    private final Map<String, Integer> mix;
+    private final Path results;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final byte[] photo;
+
+    LoadHarness(Map<String, String> options) throws IOException {
+        baseUrl = URI.create(options.getOrDefault("base-url", "http://localhost:9000"));
+        concurrency = Integer.parseInt(options.getOrDefault("concurrency", "16"));
+        duration = duration(options.getOrDefault("duration", "60s"));
+        warmup = duration(options.getOrDefault("warmup", "10s"));
+        users = Integer.parseInt(options.getOrDefault("users", "1000"));
+        password = options.getOrDefault("password", "password");
+        recipes = Integer.parseInt(options.getOrDefault("recipes", "100000"));
+        mix = weights(options.getOrDefault("mix",
+                "feed=25,browse=15,detail=25,search=10,mine=5,login=5,create=6,update=4,delete=2,upload=3"));
+        results = Path.of(options.getOrDefault("results", Path.of("target", "load-results",
+                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json").toString()));
+        photo = photo();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --option=value, got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        new LoadHarness(options).run();
+    }
+
+    void run() throws Exception {
+        System.out.printf("%d workers against %s for %ss after a %ss warmup%n",
+                concurrency, baseUrl, duration.toSeconds(), warmup.toSeconds());
+        long start = System.nanoTime();
+        long recordFrom = start + warmup.toNanos();
+        long end = recordFrom + duration.toNanos();
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        List<Future<Map<String, LatencyRecorder>>> outcomes = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            Worker worker = new Worker(USERNAME_PREFIX + (i % users), new Random(i));
+            outcomes.add(workers.submit(() -> worker.run(recordFrom, end)));
+        }
+        Map<String, LatencyRecorder> merged = new TreeMap<>();
+        for (Future<Map<String, LatencyRecorder>> outcome : outcomes) {
+            outcome.get().forEach((operation, recorder) ->
+                    merged.computeIfAbsent(operation, key -> new LatencyRecorder()).merge(recorder));
+        }
+        workers.shutdown();
+        report(merged, (System.nanoTime() - recordFrom) / 1e9);
+    }
+
+    private void report(Map<String, LatencyRecorder> recorders, double seconds) throws IOException {
+        LatencyRecorder total = new LatencyRecorder();
+        Map<String, LatencyRecorder.Summary> summaries = new LinkedHashMap<>();
+        recorders.forEach((operation, recorder) -> {
+            summaries.put(operation, recorder.summarize(seconds));
+            total.merge(recorder);
+        });
+        summaries.put("total", total.summarize(seconds));
+
+        System.out.printf("%n%-16s %9s %7s %9s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "requests", "errors", "req/s", "mean ms", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        summaries.forEach((operation, summary) -> System.out.printf(
+                "%-16s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                operation, summary.requests(), summary.errors(), summary.throughput(), summary.meanMs(),
+                summary.p50Ms(), summary.p90Ms(), summary.p99Ms(), summary.p999Ms(), summary.maxMs()));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("baseUrl", baseUrl.toString());
+        report.put("concurrency", concurrency);
+        report.put("durationSeconds", seconds);
+        report.put("mix", mix);
+        report.put("operations", summaries);
+        if (results.getParent() != null) {
+            Files.createDirectories(results.getParent());
+        }
+        objectMapper.writeValue(results.toFile(), report);
+        System.out.println("\nResults written to " + results);
+    }
+
+    private class Worker {
+        private final String username;
+        private final Random random;
+        private final Map<String, LatencyRecorder> recorders = new TreeMap<>();
+        // Recipes this worker created and has not deleted yet, the only ones it may update or delete
+        private final Deque<Long> ownRecipes = new ArrayDeque<>();
+        private String token;
+        private boolean recording;
+
+        Worker(String username, Random random) {
+            this.username = username;
+            this.random = random;
+        }
+
+        Map<String, LatencyRecorder> run(long recordFrom, long end) {
+            login();
+            if (token == null) {
+                throw new IllegalStateException("Login failed for " + username
+                        + ", start the backend with the dataset profile and matching --users/--password");
+            }
+            for (long now = System.nanoTime(); now < end; now = System.nanoTime()) {
+                recording = now >= recordFrom;
+                String operation = pick();
+                switch (operation) {
+                    case "feed" -> feed();
+                    case "browse" -> send("browse", get("/api/recipes/browse?difficulty="
+                            + DIFFICULTIES[random.nextInt(DIFFICULTIES.length)]
+                            + "&minIngredients=" + (1 + random.nextInt(8)) + "&page=" + random.nextInt(5)));
+                    case "detail" -> send("detail", get("/api/recipes/" + (1 + random.nextInt(recipes))));
+                    case "search" -> send("search", get("/api/recipes/search?q="
+                            + URLEncoder.encode(SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)],
+                            StandardCharsets.UTF_8)));
+                    case "mine" -> send("mine", get("/api/recipes/my-recipes"));
+                    case "login" -> login();
+                    case "create" -> create();
+                    case "update" -> update();
+                    case "delete" -> delete();
+                    case "upload" -> upload();
+                    default -> throw new IllegalArgumentException("Unknown operation " + operation);
+                }
+            }
+            return recorders;
+        }
+
+        private String pick() {
+            int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+            int roll = random.nextInt(total);
+            for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+                roll -= entry.getValue();
+                if (roll < 0) {
+                    return entry.getKey();
+                }
+            }
+            throw new IllegalStateException("Empty mix");
+        }
+
+        private void login() {
+            JsonNode response = send("login", post("/api/auth/login", Map.of(
+                    "usernameOrEmail", username, "password", password)));
+            if (response != null && response.hasNonNull("token")) {
+                token = response.get("token").asText();
+            }
+        }
+
+        // First page, then the next one through its cursor like an infinite scroll
+        private void feed() {
+            JsonNode page = send("feed", get("/api/recipes/feed?size=20"));
+            if (page != null && page.hasNonNull("nextCursor")) {
+                send("feed", get("/api/recipes/feed?size=20&cursor="
+                        + URLEncoder.encode(page.get("nextCursor").asText(), StandardCharsets.UTF_8)));
+            }
+        }
+
+        private void create() {
+            JsonNode created = send("create", post("/api/recipes", recipeBody("Load test recipe")));
+            if (created != null && created.hasNonNull("id")) {
+                ownRecipes.addLast(created.get("id").asLong());
+            }
+        }
+
+        private void update() {
+            if (ownRecipes.isEmpty()) {
+                create();
+                return;
+            }
+            send("update", request("/api/recipes/" + ownRecipes.peekLast())
+                    .header("Content-Type", "application/json")
+                    .PUT(json(recipeBody("Updated load test recipe")))
+                    .build());
+        }
+
+        private void delete() {
+            if (ownRecipes.isEmpty()) {
+                create();
+                return;
+            }
+            send("delete", request("/api/recipes/" + ownRecipes.pollFirst()).DELETE().build());
+        }
+
+        // Trailing bytes after the JPEG end marker make every upload a new content hash, so none is deduplicated
+        private void upload() {
+            byte[] suffix = new byte[16];
+            random.nextBytes(suffix);
+            byte[] file = Arrays.copyOf(photo, photo.length + suffix.length);
+            System.arraycopy(suffix, 0, file, photo.length, suffix.length);
+
+            String boundary = "----load-" + Long.toHexString(random.nextLong());
+            ByteArrayOutputStream body = new ByteArrayOutputStream(file.length + 256);
+            body.writeBytes(("--" + boundary + "\r\n"
+                    + "Content-Disposition: form-data; name=\"file\"; filename=\"photo.jpg\"\r\n"
+                    + "Content-Type: image/jpeg\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+            body.writeBytes(file);
+            body.writeBytes(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+            send("upload", request("/api/images/upload")
+                    .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                    .build());
+        }
+
+        private Map<String, Object> recipeBody(String title) {
+            List<String> ingredients = new ArrayList<>();
+            for (int i = 0, count = 3 + random.nextInt(8); i < count; i++) {
+                ingredients.add(INGREDIENTS[random.nextInt(INGREDIENTS.length)]);
+            }
+            return Map.of(
+                    "title", title + " " + random.nextInt(1_000_000),
+                    "difficulty", DIFFICULTIES[random.nextInt(DIFFICULTIES.length)],
+                    "instructions", "Mix everything together and cook until done. ".repeat(1 + random.nextInt(20)),
+                    "ingredientNames", ingredients);
+        }
+
+        private HttpRequest get(String path) {
+            return request(path).GET().build();
+        }
+
+        private HttpRequest post(String path, Object body) {
+            return request(path).header("Content-Type", "application/json").POST(json(body)).build();
+        }
+
+        private HttpRequest.Builder request(String path) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(baseUrl.resolve(path)).timeout(Duration.ofSeconds(30));
+            if (token != null) {
+                builder.header("Authorization", "Bearer " + token);
+            }
+            return builder;
+        }
+
+        private HttpRequest.BodyPublisher json(Object body) {
+            try {
+                return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        // Parsed body of a successful JSON response, null otherwise
+        private JsonNode send(String operation, HttpRequest request) {
+            long start = System.nanoTime();
+            int status = 0;
+            byte[] body = null;
+            try {
+                HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                status = response.statusCode();
+                body = response.body();
+            } catch (IOException e) {
+                // Counted as an error with status 0
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (recording) {
+                recorders.computeIfAbsent(operation, key -> new LatencyRecorder())
+                        .record(System.nanoTime() - start, status);
+            }
+            if (status < 200 || status >= 300 || body == null || body.length == 0) {
+                return null;
+            }
+            try {
+                return objectMapper.readTree(body);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+    }
+
+    // A photo-sized JPEG with some detail, so resizing costs what it would for a real upload
+    private static byte[] photo() throws IOException {
+        BufferedImage image = new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        Random random = new Random(7);
+        for (int i = 0; i < 400; i++) {
+            graphics.setColor(new Color(random.nextInt(0xFFFFFF)));
+            graphics.fillOval(random.nextInt(1600), random.nextInt(1200), 20 + random.nextInt(200),
+                    20 + random.nextInt(200));
+        }
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+
+    private static Map<String, Integer> weights(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            weights.put(parts[0], Integer.parseInt(parts[1]));
+        }
+        return weights;
+    }
+
+    // 30s, 5m or plain seconds
+    private static Duration duration(String value) {
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value.endsWith("s") ? value.substring(0, value.length() - 1) : value));
+    }
+}
@@ -0,0 +1,127 @@
+package com.recipevault.backend.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * In-process Caffeine caches (W-TinyLFU eviction) for recipe read paths
+ * Every cache is bounded by size and TTL and records stats, which actuator exposes under cache.* metrics
+ * Wrapped in a transaction-aware proxy so evictions from write paths only happen after the transaction commits
+ * With read replicas every eviction is repeated after the read-your-writes window: a read racing the write may
+ * have refilled the entry from a replica that had not applied the write yet
+ */
+
+@Configuration
+// Outside the transaction advice, so a cache hit on a @Transactional(readOnly = true) method opens no transaction
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+    public static final String RECIPE_DETAILS = "recipeDetails";
+    public static final String RECIPE_SUMMARIES = "recipeSummaries";
+    public static final String USER_RECIPES = "userRecipes";
+    public static final String PRINCIPALS = "principals";
+
+    @Value("${app.cache.recipe-details.max-size:10000}")
+    private long recipeDetailsMaxSize;
+
+    @Value("${app.cache.recipe-details.ttl:10m}")
+    private Duration recipeDetailsTtl;
+
+    @Value("${app.cache.recipe-summaries.max-size:100}")
+    private long recipeSummariesMaxSize;
+
+    @Value("${app.cache.recipe-summaries.ttl:1m}")
+    private Duration recipeSummariesTtl;
+
+    @Value("${app.cache.user-recipes.max-size:1000}")
+    private long userRecipesMaxSize;
+
+    @Value("${app.cache.user-recipes.ttl:5m}")
+    private Duration userRecipesTtl;
+
+    @Value("${app.cache.principals.max-size:10000}")
+    private long principalsMaxSize;
+
+    @Value("${app.cache.principals.ttl:30s}")
+    private Duration principalsTtl;
+
+    @Value("${app.datasource.replicas.urls:}")
+    private String replicaUrls;
+
+    @Value("${app.datasource.replicas.read-your-writes-window:5s}")
+    private Duration replicaLagWindow;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = replicaUrls.isBlank() ? new CaffeineCacheManager() : new CaffeineCacheManager() {
+            private final Executor afterReplicaLag =
+                    CompletableFuture.delayedExecutor(replicaLagWindow.toMillis(), TimeUnit.MILLISECONDS);
+
+            @Override
+            protected org.springframework.cache.Cache adaptCaffeineCache(
+                    String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                return new ReplicaLagEvictingCache(name, cache, afterReplicaLag);
+            }
+        };
+        cacheManager.setAllowNullValues(false);
+        cacheManager.registerCustomCache(RECIPE_DETAILS, boundedCache(recipeDetailsMaxSize, recipeDetailsTtl));
+        cacheManager.registerCustomCache(RECIPE_SUMMARIES, boundedCache(recipeSummariesMaxSize, recipeSummariesTtl));
+        cacheManager.registerCustomCache(USER_RECIPES, boundedCache(userRecipesMaxSize, userRecipesTtl));
+        cacheManager.registerCustomCache(PRINCIPALS, boundedCache(principalsMaxSize, principalsTtl));
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> boundedCache(long maxSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    private static class ReplicaLagEvictingCache extends CaffeineCache {
+        private final Executor afterReplicaLag;
+
+        ReplicaLagEvictingCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+                                Executor afterReplicaLag) {
+            super(name, cache, false);
+            this.afterReplicaLag = afterReplicaLag;
+        }
+
+        @Override
+        public void evict(Object key) {
+            super.evict(key);
+            afterReplicaLag.execute(() -> super.evict(key));
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            afterReplicaLag.execute(() -> super.evictIfPresent(key));
+            return super.evictIfPresent(key);
+        }
+
+        @Override
+        public void clear() {
+            super.clear();
+            afterReplicaLag.execute(super::clear);
+        }
+
+        @Override
+        public boolean invalidate() {
+            afterReplicaLag.execute(super::invalidate);
+            return super.invalidate();
+        }
+    }
+}
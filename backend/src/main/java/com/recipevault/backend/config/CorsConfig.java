@@ -2,6 +2,7 @@ package com.recipevault.backend.config;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -20,6 +21,8 @@ public class CorsConfig implements WebMvcConfigurer {
                 .allowedOrigins(origins)
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS")
                 .allowedHeaders("*")
+                // Lets browser clients read the validators for conditional GETs and If-Match writes
+                .exposedHeaders(HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED)
                 .allowCredentials(true)
                 .maxAge(3600); // Cache preflight requests for 1 hour
     }
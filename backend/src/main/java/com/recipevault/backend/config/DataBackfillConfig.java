@@ -0,0 +1,93 @@
+package com.recipevault.backend.config;
+
+import com.recipevault.backend.entities.IngredientEntity;
+import com.recipevault.backend.entities.RecipeEntity;
+import com.recipevault.backend.repositories.RecipeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+/*
+ * One-off data fixes that run at startup for rows written before a schema change
+ * Each fix only touches data that still needs it, so restarts are cheap
+ */
+
+@Configuration
+public class DataBackfillConfig {
+    private static final Logger logger = LoggerFactory.getLogger(DataBackfillConfig.class);
+
+    @Bean
+    public ApplicationRunner ingredientCountBackfill(RecipeRepository recipeRepository,
+                                                     TransactionTemplate transactionTemplate) {
+        return args -> {
+            Integer updated = transactionTemplate.execute(status -> recipeRepository.backfillIngredientCounts());
+            if (updated != null && updated > 0) {
+                logger.info("Backfilled ingredient_count for {} recipes", updated);
+            }
+        };
+    }
+
+    @Bean
+    public ApplicationRunner lastModifiedDateBackfill(RecipeRepository recipeRepository,
+                                                      TransactionTemplate transactionTemplate) {
+        return args -> {
+            Integer updated = transactionTemplate.execute(status -> recipeRepository.backfillLastModifiedDates());
+            if (updated != null && updated > 0) {
+                logger.info("Backfilled last_modified_date for {} recipes", updated);
+            }
+        };
+    }
+
+    @Bean
+    public ApplicationRunner versionBackfill(RecipeRepository recipeRepository,
+                                             TransactionTemplate transactionTemplate) {
+        return args -> {
+            Integer updated = transactionTemplate.execute(status -> recipeRepository.backfillVersions());
+            if (updated != null && updated > 0) {
+                logger.info("Backfilled version for {} recipes", updated);
+            }
+        };
+    }
+
+    // Recipe and ingredient ids used to be IDENTITY, freshly created sequences would hand out ids that already exist
+    @Bean
+    public ApplicationRunner idSequenceAlignment(JdbcTemplate jdbcTemplate, DataSource dataSource) {
+        return args -> {
+            String database = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            alignSequence(jdbcTemplate, database, "recipes", "recipes_seq", RecipeEntity.ALLOCATION_SIZE);
+            alignSequence(jdbcTemplate, database, "ingredients", "ingredients_seq", IngredientEntity.ALLOCATION_SIZE);
+        };
+    }
+
+    // Moves the sequence past the highest id plus one allocation block (the pooled optimizer counts down from it)
+    private void alignSequence(JdbcTemplate jdbcTemplate, String database, String table, String sequence,
+                               int allocationSize) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        long nextValue = maxId + allocationSize + 1;
+
+        int aligned;
+        if ("H2".equals(database)) {
+            Long current = jdbcTemplate.queryForObject("SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES " +
+                    "WHERE SEQUENCE_NAME = ?", Long.class, sequence.toUpperCase());
+            aligned = current != null && current < nextValue ? 1 : 0;
+            if (aligned > 0) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + nextValue);
+            }
+        } else {
+            // MySQL has no sequences, Hibernate keeps the next value in a single-row table
+            aligned = jdbcTemplate.update("UPDATE " + sequence + " SET next_val = ? WHERE next_val < ?",
+                    nextValue, nextValue);
+        }
+        if (aligned > 0) {
+            logger.info("Moved {} to {} past existing {} ids", sequence, nextValue, table);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.recipevault.backend.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/*
+ * Hibernate second-level cache: entity, collection and query result regions held in Caffeine through JCache
+ * Every region is created here with its own size and TTL (app.hibernate-cache.*), Hibernate refuses to start on a
+ * region that is not listed instead of creating an unbounded one
+ * Regions record statistics, published like the Spring caches as cache.* metrics tagged with the region name
+ * Caches hold what was read, so with read replicas a value read during the lag can stay until its TTL:
+ * entity writes replace their entries, but keep the query result TTL short
+ */
+
+@Configuration
+public class HibernateCacheConfig {
+    public static final String RECIPES = "recipes";
+    public static final String RECIPE_INGREDIENTS = "recipes.ingredients";
+    public static final String INGREDIENTS = "ingredients";
+    public static final String USERS = "users";
+    // Hibernate's own regions, cached query results and the last write time of every table they read
+    public static final String QUERY_RESULTS = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+    public static final String UPDATE_TIMESTAMPS = RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+
+    @Value("${app.hibernate-cache.recipes.max-size:10000}")
+    private long recipesMaxSize;
+
+    @Value("${app.hibernate-cache.recipes.ttl:10m}")
+    private Duration recipesTtl;
+
+    @Value("${app.hibernate-cache.recipe-ingredients.max-size:10000}")
+    private long recipeIngredientsMaxSize;
+
+    @Value("${app.hibernate-cache.recipe-ingredients.ttl:10m}")
+    private Duration recipeIngredientsTtl;
+
+    @Value("${app.hibernate-cache.ingredients.max-size:100000}")
+    private long ingredientsMaxSize;
+
+    @Value("${app.hibernate-cache.ingredients.ttl:10m}")
+    private Duration ingredientsTtl;
+
+    @Value("${app.hibernate-cache.users.max-size:10000}")
+    private long usersMaxSize;
+
+    @Value("${app.hibernate-cache.users.ttl:10m}")
+    private Duration usersTtl;
+
+    @Value("${app.hibernate-cache.query-results.max-size:1000}")
+    private long queryResultsMaxSize;
+
+    @Value("${app.hibernate-cache.query-results.ttl:1m}")
+    private Duration queryResultsTtl;
+
+    // No TTL: a timestamp expiring before the results that depend on it would let stale results through
+    @Value("${app.hibernate-cache.update-timestamps.max-size:1000}")
+    private long updateTimestampsMaxSize;
+
+    // A manager of its own (fresh URI) per application context, closed with it
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("recipevault-hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+        cacheManager.createCache(RECIPES, region(recipesMaxSize, recipesTtl));
+        cacheManager.createCache(RECIPE_INGREDIENTS, region(recipeIngredientsMaxSize, recipeIngredientsTtl));
+        cacheManager.createCache(INGREDIENTS, region(ingredientsMaxSize, ingredientsTtl));
+        cacheManager.createCache(USERS, region(usersMaxSize, usersTtl));
+        cacheManager.createCache(QUERY_RESULTS, region(queryResultsMaxSize, queryResultsTtl));
+        cacheManager.createCache(UPDATE_TIMESTAMPS, region(updateTimestampsMaxSize, null));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCache(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, MissingCacheStrategy.FAIL.getExternalRepresentation());
+        };
+    }
+
+    @Bean
+    public MeterBinder hibernateCacheMetrics(CacheManager hibernateCacheManager) {
+        return registry -> {
+            for (String region : List.of(RECIPES, RECIPE_INGREDIENTS, INGREDIENTS, USERS,
+                    QUERY_RESULTS, UPDATE_TIMESTAMPS)) {
+                JCacheMetrics.monitor(registry, hibernateCacheManager.getCache(region), "cacheManager", "hibernate");
+            }
+        };
+    }
+
+    private CaffeineConfiguration<Object, Object> region(long maxSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        if (ttl != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
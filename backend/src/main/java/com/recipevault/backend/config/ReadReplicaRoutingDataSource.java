@@ -0,0 +1,104 @@
+package com.recipevault.backend.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.recipevault.backend.security.UserPrincipal;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Sends @Transactional(readOnly = true) work to the replica pools (round robin) and everything else to the primary
+ * Only correct behind a LazyConnectionDataSourceProxy: the connection is then taken at the first statement,
+ * after the transaction has published its read-only flag
+ * Read your writes: a user whose read-write transaction ran on the primary keeps reading from it for a short window,
+ * long enough for the replicas to apply what they just wrote
+ */
+
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    static final String PRIMARY = "primary";
+
+    private final List<String> replicaKeys = new ArrayList<>();
+    private final List<DataSource> replicas;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    // Users who wrote within the window, expiry does the forgetting
+    private final Cache<UUID, Boolean> recentWriters;
+
+    public ReadReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration readYourWritesWindow) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("At least one replica is needed");
+        }
+        this.replicas = List.copyOf(replicas);
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(readYourWritesWindow)
+                .build();
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica-" + i;
+            replicaKeys.add(key);
+            targets.put(key, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        UUID userId = currentUserId();
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (userId != null && recentWriters.getIfPresent(userId) != null) {
+                return PRIMARY;
+            }
+            return replicaKeys.get(Math.floorMod(nextReplica.getAndIncrement(), replicaKeys.size()));
+        }
+
+        // Statements outside a transaction also run on the primary, but only read-write transactions count as writes
+        if (userId != null && TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isSynchronizationActive()) {
+            recentWriters.put(userId, Boolean.TRUE);
+            // The window counts from the commit, long transactions must not use it up before their writes are visible
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    recentWriters.put(userId, Boolean.TRUE);
+                }
+            });
+        }
+        return PRIMARY;
+    }
+
+    // Writes and reads of one user are matched by the authenticated principal, anonymous requests never write
+    private static UUID currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.getId();
+        }
+        return null;
+    }
+
+    // Replica pools belong to this data source, the primary is a bean of its own
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -1,14 +1,26 @@
 package com.recipevault.backend.config;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClientBuilder;
+import software.amazon.awssdk.services.s3.S3BaseClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.multipart.MultipartConfiguration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
+import java.net.URI;
+
+// Only with S3 image storage (the default), local storage runs without any AWS settings
 @Configuration
+@ConditionalOnProperty(name = "app.images.storage", havingValue = "s3", matchIfMissing = true)
 public class S3Config {
 
     @Value("${aws.s3.region}")
@@ -20,13 +32,56 @@ public class S3Config {
     @Value("${aws.s3.secret-key}")
     private String secretKey;
 
+    // Optional S3-compatible endpoint (MinIO, a local fake), empty means AWS
+    @Value("${aws.s3.endpoint:}")
+    private String endpoint;
+
+    @Value("${aws.s3.multipart.threshold:8MB}")
+    private DataSize multipartThreshold;
+
+    @Value("${aws.s3.multipart.part-size:8MB}")
+    private DataSize multipartPartSize;
+
+    @Value("${aws.s3.max-connections:32}")
+    private int maxConnections;
+
+    // Non-blocking client for uploads, request threads are released while the bytes go to S3
+    // Objects above the threshold are split into parts that upload in parallel, all requests share one bounded pool
     @Bean
-    public S3Client s3Client() {
-        AwsBasicCredentials credentials = AwsBasicCredentials.create(accessKey, secretKey);
-        
-        return S3Client.builder()
+    public S3AsyncClient s3AsyncClient() {
+        S3AsyncClientBuilder builder = configure(S3AsyncClient.builder())
+                .multipartEnabled(true)
+                .multipartConfiguration(MultipartConfiguration.builder()
+                        .thresholdInBytes(multipartThreshold.toBytes())
+                        .minimumPartSizeInBytes(multipartPartSize.toBytes())
+                        .build())
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(maxConnections));
+        return builder.build();
+    }
+
+    // Signs upload URLs locally, browsers then PUT images straight to S3
+    @Bean(destroyMethod = "close")
+    public S3Presigner s3Presigner() {
+        S3Presigner.Builder builder = S3Presigner.builder()
                 .region(Region.of(region))
-                .credentialsProvider(StaticCredentialsProvider.create(credentials))
-                .build();
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey)));
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint))
+                    .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build());
+        }
+        return builder.build();
+    }
+
+    private <B extends S3BaseClientBuilder<B, ?>> B configure(B builder) {
+        AwsBasicCredentials credentials = AwsBasicCredentials.create(accessKey, secretKey);
+        builder.region(Region.of(region))
+                .credentialsProvider(StaticCredentialsProvider.create(credentials));
+        if (!endpoint.isBlank()) {
+            // S3-compatible servers address buckets by path rather than by subdomain
+            builder.endpointOverride(URI.create(endpoint))
+                    .forcePathStyle(true);
+        }
+        return builder;
     }
-}
\ No newline at end of file
+}
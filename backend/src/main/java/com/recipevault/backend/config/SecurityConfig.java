@@ -4,10 +4,16 @@ import com.recipevault.backend.security.CustomUserDetailsService;
 import com.recipevault.backend.security.JwtAuthenticationEntryPoint;
 import com.recipevault.backend.security.JwtAuthenticationFilter;
 import com.recipevault.backend.security.JwtTokenProvider;
+import com.recipevault.backend.security.TimedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -15,8 +21,10 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
@@ -27,16 +35,26 @@ public class SecurityConfig {
 
     private final CustomUserDetailsService userDetailsService;
     private final JwtAuthenticationEntryPoint unauthorizedHandler;
+    private final MeterRegistry meterRegistry;
+
+    // Prometheus scrape credentials, no password means nobody can scrape
+    @Value("${app.metrics.username:prometheus}")
+    private String metricsUsername;
+
+    @Value("${app.metrics.password:}")
+    private String metricsPassword;
 
     public SecurityConfig(CustomUserDetailsService userDetailsService,
-                          JwtAuthenticationEntryPoint unauthorizedHandler) {
+                          JwtAuthenticationEntryPoint unauthorizedHandler,
+                          MeterRegistry meterRegistry) {
         this.userDetailsService = userDetailsService;
         this.unauthorizedHandler = unauthorizedHandler;
+        this.meterRegistry = meterRegistry;
     }
 
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
-        return new JwtAuthenticationFilter(jwtTokenProvider(), userDetailsService);
+        return new JwtAuthenticationFilter(jwtTokenProvider(), userDetailsService, meterRegistry);
     }
 
     @Bean
@@ -46,7 +64,7 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry);
     }
 
     @Bean
@@ -62,6 +80,33 @@ public class SecurityConfig {
         return authProvider;
     }
 
+    // The scrape endpoint has its own HTTP Basic user and no JWT filter: API accounts and tokens cannot read
+    // metrics, and the scrape credentials open nothing else
+    @Bean
+    @Order(1)
+    public SecurityFilterChain metricsFilterChain(HttpSecurity http) throws Exception {
+        InMemoryUserDetailsManager scrapeUsers = new InMemoryUserDetailsManager();
+        // Untimed encoder, scrapes would otherwise show up in the login password.encoder timings
+        BCryptPasswordEncoder scrapeEncoder = new BCryptPasswordEncoder();
+        if (!metricsPassword.isBlank()) {
+            scrapeUsers.createUser(User.withUsername(metricsUsername)
+                    .password(scrapeEncoder.encode(metricsPassword))
+                    .roles("METRICS")
+                    .build());
+        }
+        DaoAuthenticationProvider scrapeProvider = new DaoAuthenticationProvider(scrapeEncoder);
+        scrapeProvider.setUserDetailsService(scrapeUsers);
+
+        http.securityMatcher("/actuator/prometheus")
+                .csrf(csrf -> csrf.disable())
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .httpBasic(Customizer.withDefaults())
+                .authenticationManager(new ProviderManager(scrapeProvider))
+                .authorizeHttpRequests(auth -> auth.anyRequest().hasRole("METRICS"));
+
+        return http.build();
+    }
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http.cors(Customizer.withDefaults())
@@ -72,12 +117,18 @@ public class SecurityConfig {
                         // Public endpoints
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/error").permitAll() // Error dispatches keep their status, e.g. 403 for non-admins
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll() // Results of async handlers, the original request was already authorized
+                        .requestMatchers(HttpMethod.GET, "/api/recipes/export").hasRole("ADMIN") // Catalogue export, before the public GET rules
                         .requestMatchers(HttpMethod.GET, "/api/recipes").permitAll() // Allow browsing recipes
                         .requestMatchers(HttpMethod.GET, "/api/recipes/*").permitAll() // Allow viewing recipe details
                         // Protected endpoints
+                        .requestMatchers(HttpMethod.POST, "/api/recipes/import").hasRole("ADMIN") // Bulk import
                         .requestMatchers(HttpMethod.POST, "/api/recipes").authenticated() // Create recipe
                         .requestMatchers(HttpMethod.PUT, "/api/recipes/*").authenticated() // Update recipe
                         .requestMatchers(HttpMethod.DELETE, "/api/recipes/*").authenticated() // Delete recipe
+                        .requestMatchers(HttpMethod.GET, "/api/images/files/**").permitAll() // Locally stored images, public like the S3 bucket
+                        .requestMatchers(HttpMethod.HEAD, "/api/images/files/**").permitAll()
                         .requestMatchers("/api/images/**").authenticated() // Image upload/delete
                         // All other requests require authentication
                         .anyRequest().authenticated()
@@ -1,14 +1,28 @@
 package com.recipevault.backend.controller;
 
 import com.recipevault.backend.dto.ErrorResponseDTO;
+import com.recipevault.backend.dto.recipes.ImageUploadJobDTO;
 import com.recipevault.backend.dto.recipes.ImageUploadResponseDTO;
+import com.recipevault.backend.dto.recipes.PresignedUploadDTO;
+import com.recipevault.backend.dto.recipes.PresignedUploadRequestDTO;
+import com.recipevault.backend.exceptions.ResourceNotFoundException;
+import com.recipevault.backend.security.UserPrincipal;
 import com.recipevault.backend.services.ImageUploadService;
+import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/images")
@@ -20,40 +34,135 @@ public class ImageUploadController {
         this.imageUploadService = imageUploadService;
     }
 
+    // Id straight from the JWT principal
+    private UUID getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal) {
+            return ((UserPrincipal) authentication.getPrincipal()).getId();
+        }
+        throw new RuntimeException("No authenticated user found");
+    }
+
+    // Same response as before, but the request thread is handed back while S3 receives the file
     @PostMapping("/upload")
-    public ResponseEntity<?> uploadImage(@RequestParam("file") MultipartFile file) {
+    public CompletableFuture<ResponseEntity<?>> uploadImage(@RequestParam("file") MultipartFile file) {
+        try {
+            return uploaded(imageUploadService.uploadImage(file));
+
+        } catch (IllegalArgumentException e) {
+            ErrorResponseDTO error = new ErrorResponseDTO(400, e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(error));
+
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(tooManyUploads(e));
+
+        } catch (IOException e) {
+            ErrorResponseDTO error = new ErrorResponseDTO(500, "Failed to process image file");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error));
+        }
+    }
+
+    // Direct-to-S3 upload, step 1: a presigned PUT URL for the declared file, no image bytes reach the backend
+    @PostMapping("/presigned-uploads")
+    public ResponseEntity<?> presignUpload(@Valid @RequestBody PresignedUploadRequestDTO request) {
         try {
-            String imageUrl = imageUploadService.uploadImage(file);
-            ImageUploadResponseDTO response = new ImageUploadResponseDTO(imageUrl, "Image uploaded successfully");
-            return ResponseEntity.ok(response);
-            
+            PresignedUploadDTO upload = imageUploadService.presignUpload(request, getCurrentUserId());
+            return ResponseEntity.ok(upload);
+
         } catch (IllegalArgumentException e) {
             ErrorResponseDTO error = new ErrorResponseDTO(400, e.getMessage());
             return ResponseEntity.badRequest().body(error);
-            
+
+        } catch (UnsupportedOperationException e) {
+            // Local image storage, uploads go through /upload instead
+            ErrorResponseDTO error = new ErrorResponseDTO(501, e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).body(error);
+        }
+    }
+
+    // Step 2, after the PUT succeeded: 202 as soon as the object checks out, its variants are made by the job
+    // Location points at the job's status, like /uploads, the URL is usable right away
+    @PostMapping("/presigned-uploads/{uploadId}/complete")
+    public CompletableFuture<ResponseEntity<?>> completePresignedUpload(@PathVariable UUID uploadId) {
+        try {
+            // Built on the request thread, the future completes off it
+            UriComponentsBuilder jobLocation = ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/api/images/uploads/{jobId}");
+            return imageUploadService.completePresignedUpload(uploadId, getCurrentUserId())
+                    .<ResponseEntity<?>>thenApply(job -> ResponseEntity.accepted()
+                            .location(jobLocation.buildAndExpand(job.getJobId()).toUri())
+                            .body(job))
+                    .exceptionally(this::uploadFailed);
+
+        } catch (ResourceNotFoundException e) {
+            ErrorResponseDTO error = new ErrorResponseDTO(404, e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_FOUND).body(error));
+
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(tooManyUploads(e));
+
         } catch (IOException e) {
             ErrorResponseDTO error = new ErrorResponseDTO(500, "Failed to process image file");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
-            
-        } catch (RuntimeException e) {
-            ErrorResponseDTO error = new ErrorResponseDTO(500, "Failed to upload image to storage");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error));
         }
     }
 
-    @DeleteMapping
-    public ResponseEntity<?> deleteImage(@RequestParam("imageUrl") String imageUrl) {
+    // Fire and poll: 202 with the job, Location points at its status
+    @PostMapping("/uploads")
+    public ResponseEntity<?> startUpload(@RequestParam("file") MultipartFile file) {
         try {
-            imageUploadService.deleteImage(imageUrl);
-            return ResponseEntity.ok().body("Image deleted successfully");
-            
+            ImageUploadJobDTO job = imageUploadService.startUpload(file, getCurrentUserId());
+            return ResponseEntity.accepted()
+                    .location(ServletUriComponentsBuilder.fromCurrentRequest()
+                            .path("/{jobId}")
+                            .buildAndExpand(job.getJobId())
+                            .toUri())
+                    .body(job);
+
         } catch (IllegalArgumentException e) {
             ErrorResponseDTO error = new ErrorResponseDTO(400, e.getMessage());
             return ResponseEntity.badRequest().body(error);
-            
-        } catch (RuntimeException e) {
-            ErrorResponseDTO error = new ErrorResponseDTO(500, "Failed to delete image from storage");
+
+        } catch (RejectedExecutionException e) {
+            return tooManyUploads(e);
+
+        } catch (IOException e) {
+            ErrorResponseDTO error = new ErrorResponseDTO(500, "Failed to process image file");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
         }
     }
-}
\ No newline at end of file
+
+    @GetMapping("/uploads/{jobId}")
+    public ResponseEntity<?> getUploadJob(@PathVariable UUID jobId) {
+        return imageUploadService.getUploadJob(jobId, getCurrentUserId())
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new ErrorResponseDTO(404, "Upload job not found: " + jobId)));
+    }
+
+    private CompletableFuture<ResponseEntity<?>> uploaded(CompletableFuture<String> upload) {
+        return upload
+                .<ResponseEntity<?>>thenApply(imageUrl ->
+                        ResponseEntity.ok(new ImageUploadResponseDTO(imageUrl, "Image uploaded successfully")))
+                .exceptionally(this::uploadFailed);
+    }
+
+    private ResponseEntity<?> uploadFailed(Throwable e) {
+        // Files that pass the content-type check but do not decode are still a client error
+        Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+        if (cause instanceof IllegalArgumentException) {
+            return ResponseEntity.badRequest().body(new ErrorResponseDTO(400, cause.getMessage()));
+        }
+        if (cause instanceof RejectedExecutionException rejected) {
+            return tooManyUploads(rejected);
+        }
+        ErrorResponseDTO error = new ErrorResponseDTO(500, "Failed to upload image to storage");
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+    }
+
+    private ResponseEntity<ErrorResponseDTO> tooManyUploads(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(new ErrorResponseDTO(503, e.getMessage()));
+    }
+}
@@ -1,24 +1,49 @@
 package com.recipevault.backend.controller;
 
+import com.recipevault.backend.dto.SliceResponseDTO;
 import com.recipevault.backend.dto.recipes.RecipeCreateDTO;
 import com.recipevault.backend.dto.recipes.RecipeDetailDTO;
+import com.recipevault.backend.dto.recipes.RecipeFeedDTO;
+import com.recipevault.backend.dto.recipes.RecipeFilterDTO;
+import com.recipevault.backend.dto.recipes.RecipeImportResultDTO;
+import com.recipevault.backend.dto.recipes.RecipeMatchDTO;
 import com.recipevault.backend.dto.recipes.RecipeSummaryDTO;
 import com.recipevault.backend.dto.recipes.RecipeUpdateDTO;
 import com.recipevault.backend.entities.UserEntity;
-import com.recipevault.backend.exceptions.ResourceNotFoundException;
+import com.recipevault.backend.exceptions.PreconditionFailedException;
+import com.recipevault.backend.repositories.RecipeListVersion;
 import com.recipevault.backend.repositories.UserRepository;
 import com.recipevault.backend.security.UserPrincipal;
+import com.recipevault.backend.services.RecipeExportService;
+import com.recipevault.backend.services.RecipeImportService;
 import com.recipevault.backend.services.RecipeService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 /*
  * Controller responsible for handling HTTP requests and returning responses
@@ -31,42 +56,138 @@ import java.util.List;
 @RequestMapping("/api/recipes")
 @Validated
 public class RecipeController {
+    // Upper bound for writing the full export, the container's default async timeout is 30s
+    private static final Duration EXPORT_TIMEOUT = Duration.ofHours(1);
+
     private final RecipeService recipeService;
     // Add this field injection
     private final UserRepository userRepository;
+    private final RecipeImportService recipeImportService;
+    private final RecipeExportService recipeExportService;
 
     @Autowired
-    public RecipeController(RecipeService recipeService, UserRepository userRepository) {
+    public RecipeController(RecipeService recipeService, UserRepository userRepository,
+                            RecipeImportService recipeImportService, RecipeExportService recipeExportService) {
         this.recipeService = recipeService;
         this.userRepository = userRepository;
+        this.recipeImportService = recipeImportService;
+        this.recipeExportService = recipeExportService;
     }
 
     private UserEntity getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal) {
             UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-            return userRepository.findById(userPrincipal.getId())
-                    .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+            // Reference only, the users row is loaded lazily if a caller reads more than the id
+            return userRepository.getReferenceById(userPrincipal.getId());
         }
         throw new RuntimeException("No authenticated user found");
     }
 
+    // Id straight from the JWT principal, for queries that only filter by owner
+    private UUID getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal) {
+            return ((UserPrincipal) authentication.getPrincipal()).getId();
+        }
+        throw new RuntimeException("No authenticated user found");
+    }
+
+    // Strong ETag of a single recipe: its optimistic lock version, which every write increments
+    private static String eTag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    // If-Match: absent or * makes the write unconditional, otherwise it must be the ETag of the version the client read
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // Falls through, not a recipe ETag
+            }
+        }
+        // Weak, foreign or multiple tags can never match a single recipe version
+        throw new PreconditionFailedException("If-Match must be a single recipe ETag such as \"3\"");
+    }
+
+    // last_modified_date is written in the server's zone (LocalDateTime.now()), -1 means no Last-Modified header
+    private static long epochMillis(LocalDateTime lastModified) {
+        return lastModified == null ? -1 : lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    // Conditional GET: If-None-Match / If-Modified-Since answered with 304 from the list validator alone
+    // The validator is read before the body, so a concurrent write can only make the ETag older than the body, never newer
     @GetMapping
-    public ResponseEntity<List<RecipeSummaryDTO>> getAllRecipes() {
-        return ResponseEntity.ok(recipeService.getAllRecipes());
+    public ResponseEntity<List<RecipeSummaryDTO>> getAllRecipes(WebRequest request) {
+        RecipeListVersion version = recipeService.getRecipeListVersion();
+        // Recipe count plus latest write, any create, update or delete changes one of them
+        long lastModified = epochMillis(version.lastModifiedDate());
+        if (request.checkNotModified("\"" + version.recipeCount() + "-" + Math.max(lastModified, 0) + "\"", lastModified)) {
+            return null;
+        }
+        // checkNotModified has already set ETag and Last-Modified on the response
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(recipeService.getAllRecipes());
     }
 
+    // Keyset-paginated alternative to the unbounded list above, pass nextCursor from the previous page to continue
+    @GetMapping("/feed")
+    public ResponseEntity<RecipeFeedDTO> getRecipeFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(recipeService.getRecipeFeed(cursor, size));
+    }
+
+    // Filtered, sorted listing, e.g. ?difficulty=EASY&minIngredients=3&sort=title,asc&page=0&size=20
+    // Supported sorts: createdDate (default, newest first), title, ingredientCount, difficulty
+    @GetMapping("/browse")
+    public ResponseEntity<SliceResponseDTO<RecipeSummaryDTO>> browseRecipes(
+            RecipeFilterDTO filter,
+            @PageableDefault(size = 20, sort = "createdDate", direction = Sort.Direction.DESC) Pageable pageable) {
+        return ResponseEntity.ok(recipeService.browseRecipes(filter, pageable));
+    }
+
+    // Full-text search over title, ingredients and instructions, best matches first
+    @GetMapping("/search")
+    public ResponseEntity<List<RecipeSummaryDTO>> searchRecipes(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(recipeService.searchRecipes(query, limit));
+    }
+
+    // "What can I cook": recipes ranked by how many of their ingredients the caller has
+    // ingredients can be repeated or comma separated, e.g. ?ingredients=eggs,flour,milk
+    @GetMapping("/what-can-i-cook")
+    public ResponseEntity<List<RecipeMatchDTO>> findRecipesByIngredients(
+            @RequestParam List<String> ingredients,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(recipeService.findRecipesByIngredients(ingredients, limit));
+    }
+
+    // Conditional GET like the list, the validators come with the cached detail so they always describe the body sent
     @GetMapping("/{id}")
-    public ResponseEntity<RecipeDetailDTO> getRecipeById(@PathVariable Long id) {
+    public ResponseEntity<RecipeDetailDTO> getRecipeById(@PathVariable Long id, WebRequest request) {
         RecipeDetailDTO recipe = recipeService.getRecipeById(id);
-        return ResponseEntity.ok(recipe);
+        if (request.checkNotModified(eTag(recipe.getVersion()), epochMillis(recipe.getLastModifiedDate()))) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(recipe);
         // ResourceNotFoundException is handled by GlobalExceptionHandler
     }
 
+    // Newest first by default, same paging and sort parameters as /browse
     @GetMapping("/my-recipes")
-    public ResponseEntity<List<RecipeSummaryDTO>> getMyRecipes() {
-        UserEntity currentUser = getCurrentUser();
-        List<RecipeSummaryDTO> userRecipes = recipeService.getUserRecipes(currentUser);
+    public ResponseEntity<SliceResponseDTO<RecipeSummaryDTO>> getMyRecipes(
+            @PageableDefault(size = RecipeService.USER_RECIPES_PAGE_SIZE, sort = "createdDate", direction = Sort.Direction.DESC) Pageable pageable) {
+        SliceResponseDTO<RecipeSummaryDTO> userRecipes = recipeService.getUserRecipes(getCurrentUserId(), pageable);
         return ResponseEntity.ok(userRecipes);
     }
 
@@ -75,23 +196,69 @@ public class RecipeController {
             @Valid @RequestBody RecipeCreateDTO recipeCreateDTO) {
         UserEntity currentUser = getCurrentUser();
         RecipeDetailDTO createdRecipe = recipeService.createRecipe(recipeCreateDTO, currentUser);
-        return new ResponseEntity<>(createdRecipe, HttpStatus.CREATED);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .eTag(eTag(createdRecipe.getVersion()))
+                .body(createdRecipe);
+    }
+
+    // Full catalogue as NDJSON (ADMIN only), written while it is read from the database
+    // gzip=true returns a compressed .ndjson.gz file instead
+    // Written on an async task with its own timeout, large catalogues take far longer than the default async timeout
+    @GetMapping("/export")
+    public WebAsyncTask<Void> exportRecipes(@RequestParam(defaultValue = "false") boolean gzip,
+                                            HttpServletResponse response) {
+        response.setContentType(gzip ? "application/gzip" : "application/x-ndjson");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(gzip ? "recipes.ndjson.gz" : "recipes.ndjson")
+                .build()
+                .toString());
+        return new WebAsyncTask<>(EXPORT_TIMEOUT.toMillis(), () -> {
+            OutputStream out = response.getOutputStream();
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024);
+                recipeExportService.exportNdjson(compressed);
+                compressed.finish();
+            } else {
+                recipeExportService.exportNdjson(out);
+            }
+            return null;
+        });
+    }
+
+    // Bulk import (ADMIN only), the body is streamed and never held in memory
+    // JSON array or newline-delimited JSON of RecipeCreateDTO objects
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    public ResponseEntity<RecipeImportResultDTO> importRecipesJson(InputStream body) {
+        return ResponseEntity.ok(recipeImportService.importJson(body, getCurrentUser()));
+    }
+
+    // CSV with a header row: title,difficulty,instructions[,imageUrl][,creatorName][,ingredients] (ingredients separated by |)
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<RecipeImportResultDTO> importRecipesCsv(InputStream body) {
+        return ResponseEntity.ok(recipeImportService.importCsv(body, getCurrentUser()));
     }
 
     // Patch mapping also possible here
+    // With If-Match the update only applies to that version (412 otherwise), a concurrent update is a 409 either way
     @PutMapping("/{id}")
     public ResponseEntity<RecipeDetailDTO> updateRecipe(
             @PathVariable Long id,
-            @Valid @RequestBody RecipeUpdateDTO recipeUpdateDTO) {
+            @Valid @RequestBody RecipeUpdateDTO recipeUpdateDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         UserEntity currentUser = getCurrentUser();
-        RecipeDetailDTO updatedRecipe = recipeService.updateRecipe(id, recipeUpdateDTO, currentUser);
-        return ResponseEntity.ok(updatedRecipe);
+        RecipeDetailDTO updatedRecipe = recipeService.updateRecipe(id, recipeUpdateDTO, currentUser,
+                expectedVersion(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(eTag(updatedRecipe.getVersion()))
+                .body(updatedRecipe);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteRecipe(@PathVariable Long id) {
+    public ResponseEntity<Void> deleteRecipe(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         UserEntity currentUser = getCurrentUser();
-        recipeService.deleteRecipe(id, currentUser);
+        recipeService.deleteRecipe(id, currentUser, expectedVersion(ifMatch));
         return ResponseEntity.noContent().build();
     }
 }
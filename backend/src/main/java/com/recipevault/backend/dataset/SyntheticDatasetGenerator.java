@@ -0,0 +1,282 @@
+package com.recipevault.backend.dataset;
+
+import com.recipevault.backend.entities.IngredientEntity;
+import com.recipevault.backend.entities.RecipeEntity;
+import com.recipevault.backend.entities.UserEntity;
+import com.recipevault.backend.enums.Difficulty;
+import com.recipevault.backend.enums.Role;
+import com.recipevault.backend.repositories.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/*
+ * Synthetic catalogue for load tests (dataset profile): users dataset-user-<n>, recipes spread over them and over
+ * the last two years, ingredient counts and instruction lengths drawn from configurable normal distributions
+ * Ingredient popularity is skewed like real recipes (a few staples everywhere, a long tail), titles and instructions
+ * are built from the ingredients so full-text search and "what can I cook" have realistic posting lists
+ * Rows go in through a stateless session (no persistence context, no second-level cache) in JDBC batches, one
+ * transaction per batch, so ids come from the entity sequences and the same code loads H2 and MySQL
+ * Runs before the other startup runners and before the search indexes rebuild, skipped once the users exist
+ */
+
+@Component
+@Profile("dataset")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SyntheticDatasetGenerator implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticDatasetGenerator.class);
+
+    public static final String USERNAME_PREFIX = "dataset-user-";
+
+    private static final String[] INGREDIENTS = {
+            "salt", "olive oil", "garlic", "onion", "butter", "black pepper", "eggs", "flour", "sugar", "milk",
+            "tomatoes", "lemon", "chicken breast", "parsley", "rice", "potatoes", "carrots", "cheddar", "cream",
+            "ginger", "soy sauce", "basil", "cumin", "paprika", "honey", "spinach", "mushrooms", "bell pepper",
+            "chili flakes", "coriander", "beef mince", "pasta", "parmesan", "thyme", "rosemary", "yogurt", "lime",
+            "coconut milk", "chickpeas", "lentils", "bacon", "zucchini", "feta", "oregano", "vinegar", "mustard",
+            "brown sugar", "baking powder", "vanilla", "cinnamon", "salmon", "shrimp", "tofu", "avocado", "cabbage",
+            "broccoli", "cauliflower", "sweet potato", "green beans", "peas", "corn", "black beans", "kidney beans",
+            "quinoa", "oats", "almonds", "walnuts", "sesame seeds", "peanut butter", "maple syrup", "dark chocolate",
+            "cocoa powder", "apples", "bananas", "blueberries", "strawberries", "pork shoulder", "lamb", "turkey",
+            "cod", "tuna", "anchovies", "capers", "olives", "pine nuts", "mozzarella", "ricotta", "gruyere",
+            "leeks", "celery", "fennel", "eggplant", "kale", "scallions", "shallots", "tahini", "miso", "fish sauce",
+            "lemongrass", "turmeric", "saffron", "cardamom", "star anise", "nutmeg", "cloves", "bay leaves"
+    };
+    private static final String[] STYLES = {
+            "Classic", "Smoky", "Spicy", "Creamy", "Crispy", "Roasted", "Grilled", "Slow-cooked", "Quick", "Rustic",
+            "Lemony", "Herby", "Garlicky", "Sticky", "Golden", "One-pan", "Weeknight", "Sunday", "Summer", "Winter"
+    };
+    private static final String[] DISHES = {
+            "stew", "curry", "salad", "soup", "pie", "bake", "stir-fry", "risotto", "tacos", "pasta", "traybake",
+            "frittata", "gratin", "skewers", "bowl", "flatbread", "casserole", "noodles", "cake", "tart"
+    };
+    private static final String[] STEPS = {
+            "Preheat the oven and line a tray with baking paper.",
+            "Chop the %s finely and set aside.",
+            "Heat a splash of oil in a large pan over medium heat.",
+            "Add the %s and cook until softened, stirring now and then.",
+            "Season well and stir through the %s.",
+            "Simmer gently for twenty minutes until thickened.",
+            "Whisk the %s together in a bowl until smooth.",
+            "Transfer to the oven and bake until golden on top.",
+            "Taste and adjust the seasoning with the %s.",
+            "Rest for five minutes before serving.",
+            "Toss everything together and scatter over the %s.",
+            "Bring a pot of salted water to the boil."
+    };
+    private static final String[] FIRST_NAMES = {
+            "Alex", "Sam", "Jordan", "Taylor", "Morgan", "Casey", "Riley", "Jamie", "Avery", "Quinn", "Robin", "Kai"
+    };
+    private static final String[] LAST_NAMES = {
+            "Smith", "Tan", "Garcia", "Nguyen", "Kim", "Okafor", "Rossi", "Schmidt", "Silva", "Cohen", "Patel", "Lee"
+    };
+
+    private final UserRepository userRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final PasswordEncoder passwordEncoder;
+
+    @Value("${app.dataset.users:1000}")
+    private int userCount;
+
+    @Value("${app.dataset.recipes:100000}")
+    private int recipeCount;
+
+    @Value("${app.dataset.password:password}")
+    private String password;
+
+    @Value("${app.dataset.ingredients.mean:9}")
+    private double ingredientsMean;
+
+    @Value("${app.dataset.ingredients.stddev:4}")
+    private double ingredientsStddev;
+
+    @Value("${app.dataset.ingredients.min:1}")
+    private int ingredientsMin;
+
+    @Value("${app.dataset.ingredients.max:30}")
+    private int ingredientsMax;
+
+    @Value("${app.dataset.instructions.mean-length:800}")
+    private double instructionsMean;
+
+    @Value("${app.dataset.instructions.stddev-length:500}")
+    private double instructionsStddev;
+
+    @Value("${app.dataset.instructions.min-length:60}")
+    private int instructionsMin;
+
+    @Value("${app.dataset.instructions.max-length:6000}")
+    private int instructionsMax;
+
+    // Share of recipes with an image, as a URL of the configured store (the objects themselves do not exist)
+    @Value("${app.dataset.image-ratio:0.6}")
+    private double imageRatio;
+
+    @Value("${app.dataset.image-base-url:http://localhost:9000/api/images/files/}")
+    private String imageBaseUrl;
+
+    @Value("${app.dataset.batch-size:1000}")
+    private int batchSize;
+
+    // Same seed, same catalogue
+    @Value("${app.dataset.seed:42}")
+    private long seed;
+
+    public SyntheticDatasetGenerator(UserRepository userRepository, EntityManagerFactory entityManagerFactory,
+                                     PasswordEncoder passwordEncoder) {
+        this.userRepository = userRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (userRepository.findByUsername(USERNAME_PREFIX + 0).isPresent()) {
+            logger.info("Synthetic dataset already present, skipping generation");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Random random = new Random(seed);
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            session.setJdbcBatchSize(batchSize);
+
+            List<UserEntity> users = insertUsers(session);
+            long ingredients = insertRecipes(session, users, random);
+            logger.info("Generated {} users, {} recipes and {} ingredients in {} ms",
+                    users.size(), recipeCount, ingredients, System.currentTimeMillis() - start);
+        }
+    }
+
+    // One password hash for everyone, BCrypt per user would dominate the run
+    private List<UserEntity> insertUsers(StatelessSession session) {
+        String passwordHash = passwordEncoder.encode(password);
+        LocalDateTime now = LocalDateTime.now();
+        List<UserEntity> users = new ArrayList<>(userCount);
+        session.getTransaction().begin();
+        for (int i = 0; i < userCount; i++) {
+            UserEntity user = new UserEntity(USERNAME_PREFIX + i, USERNAME_PREFIX + i + "@example.com", passwordHash);
+            user.setFirstName(FIRST_NAMES[i % FIRST_NAMES.length]);
+            user.setLastName(LAST_NAMES[(i / FIRST_NAMES.length) % LAST_NAMES.length]);
+            user.setCreatedDate(now.minusDays(800));
+            user.setIsActive(true);
+            user.setRole(Role.USER);
+            session.insert(user);
+            users.add(user);
+            if ((i + 1) % batchSize == 0) {
+                session.getTransaction().commit();
+                session.getTransaction().begin();
+            }
+        }
+        session.getTransaction().commit();
+        return users;
+    }
+
+    // Each batch inserts its recipes, then their ingredients: a stateless session sends statements in call order and
+    // JDBC batches only group consecutive executions of the same statement
+    private long insertRecipes(StatelessSession session, List<UserEntity> users, Random random) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        long ingredients = 0;
+        List<RecipeEntity> batch = new ArrayList<>(batchSize);
+
+        for (int i = 0; i < recipeCount; i++) {
+            batch.add(recipe(users.get(random.nextInt(users.size())), now, random));
+            if (batch.size() == batchSize || i == recipeCount - 1) {
+                session.getTransaction().begin();
+                batch.forEach(session::insert);
+                for (RecipeEntity recipe : batch) {
+                    recipe.getIngredients().forEach(session::insert);
+                    ingredients += recipe.getIngredients().size();
+                }
+                session.getTransaction().commit();
+                batch.clear();
+                if ((i + 1) % (batchSize * 100) == 0) {
+                    logger.info("Generated {} of {} recipes", i + 1, recipeCount);
+                }
+            }
+        }
+        return ingredients;
+    }
+
+    private RecipeEntity recipe(UserEntity owner, LocalDateTime now, Random random) {
+        List<String> names = ingredientNames(random);
+        Difficulty[] difficulties = Difficulty.values();
+
+        RecipeEntity recipe = new RecipeEntity();
+        recipe.setTitle(STYLES[random.nextInt(STYLES.length)] + " " + signatureIngredient(names) + " "
+                + DISHES[random.nextInt(DISHES.length)]);
+        recipe.setDifficulty(difficulties[random.nextInt(difficulties.length)]);
+        recipe.setInstructions(instructions(names, random));
+        recipe.setCreatorName(owner.getFirstName() + " " + owner.getLastName());
+        LocalDateTime created = now.minusMinutes(random.nextInt((int) ChronoUnit.MINUTES.between(now.minusYears(2), now)));
+        recipe.setCreatedDate(created);
+        recipe.setLastModifiedDate(created);
+        recipe.setVersion(0L);
+        if (random.nextDouble() < imageRatio) {
+            recipe.setImageUrl(imageBaseUrl + "recipe-images/%016x%016x/original.jpg"
+                    .formatted(random.nextLong(), random.nextLong()));
+        }
+        recipe.setUser(owner);
+        // Also keeps ingredient_count in step
+        for (String name : names) {
+            IngredientEntity ingredient = new IngredientEntity();
+            ingredient.setIngredientName(name);
+            recipe.addIngredient(ingredient);
+        }
+        return recipe;
+    }
+
+    // The product of two uniform draws favours the start of the list: salt and oil everywhere, saffron rarely
+    private List<String> ingredientNames(Random random) {
+        int count = sample(random, ingredientsMean, ingredientsStddev, ingredientsMin,
+                Math.min(ingredientsMax, INGREDIENTS.length));
+        Set<String> names = new LinkedHashSet<>();
+        while (names.size() < count) {
+            double skewed = random.nextDouble() * random.nextDouble();
+            names.add(INGREDIENTS[(int) (skewed * INGREDIENTS.length)]);
+        }
+        return new ArrayList<>(names);
+    }
+
+    // Named after its least common ingredient, "Spicy saffron risotto" rather than "Spicy salt risotto"
+    private static String signatureIngredient(List<String> names) {
+        List<String> vocabulary = List.of(INGREDIENTS);
+        return names.stream().max(Comparator.comparingInt(vocabulary::indexOf)).orElseThrow();
+    }
+
+    private String instructions(List<String> names, Random random) {
+        int length = sample(random, instructionsMean, instructionsStddev, instructionsMin, instructionsMax);
+        StringBuilder instructions = new StringBuilder(length + 100);
+        for (int step = 1; instructions.length() < length; step++) {
+            String template = STEPS[random.nextInt(STEPS.length)];
+            instructions.append(step).append(". ")
+                    .append(template.formatted(names.get(random.nextInt(names.size()))))
+                    .append('\n');
+        }
+        return instructions.toString();
+    }
+
+    private static int sample(Random random, double mean, double stddev, int min, int max) {
+        long value = Math.round(mean + random.nextGaussian() * stddev);
+        return (int) Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,62 @@
+package com.recipevault.backend.dto;
+
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+// Page of results without a total count, clients keep requesting the next page while hasNext is true
+public class SliceResponseDTO<T> {
+    private List<T> content;
+    private int page;
+    private int size;
+    private boolean hasNext;
+
+    // Default Constructor
+    public SliceResponseDTO() {
+    }
+
+    public SliceResponseDTO(List<T> content, int page, int size, boolean hasNext) {
+        this.content = content;
+        this.page = page;
+        this.size = size;
+        this.hasNext = hasNext;
+    }
+
+    public static <S, T> SliceResponseDTO<T> of(Slice<S> slice, Function<List<S>, List<T>> mapper) {
+        return new SliceResponseDTO<>(mapper.apply(slice.getContent()), slice.getNumber(), slice.getSize(),
+                slice.hasNext());
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+}
@@ -0,0 +1,57 @@
+package com.recipevault.backend.dto.recipes;
+
+import java.util.UUID;
+
+// State of an upload accepted with 202, polled until it is COMPLETED (imageUrl set) or FAILED (message set)
+public class ImageUploadJobDTO {
+    public static final String PENDING = "PENDING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    private UUID jobId;
+    private String status;
+    private String imageUrl;
+    private String message;
+
+    public ImageUploadJobDTO() {
+    }
+
+    public ImageUploadJobDTO(UUID jobId, String status, String imageUrl, String message) {
+        this.jobId = jobId;
+        this.status = status;
+        this.imageUrl = imageUrl;
+        this.message = message;
+    }
+
+    public UUID getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(UUID jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,66 @@
+package com.recipevault.backend.dto.recipes;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+// Direct-to-S3 upload: PUT the file to uploadUrl with these headers before expiresAt, then complete by uploadId
+// imageUrl is where the image will be served once the upload is completed
+public class PresignedUploadDTO {
+    private UUID uploadId;
+    private String uploadUrl;
+    private Map<String, String> headers;
+    private String imageUrl;
+    private Instant expiresAt;
+
+    public PresignedUploadDTO() {
+    }
+
+    public PresignedUploadDTO(UUID uploadId, String uploadUrl, Map<String, String> headers, String imageUrl, Instant expiresAt) {
+        this.uploadId = uploadId;
+        this.uploadUrl = uploadUrl;
+        this.headers = headers;
+        this.imageUrl = imageUrl;
+        this.expiresAt = expiresAt;
+    }
+
+    public UUID getUploadId() {
+        return uploadId;
+    }
+
+    public void setUploadId(UUID uploadId) {
+        this.uploadId = uploadId;
+    }
+
+    public String getUploadUrl() {
+        return uploadUrl;
+    }
+
+    public void setUploadUrl(String uploadUrl) {
+        this.uploadUrl = uploadUrl;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public void setHeaders(Map<String, String> headers) {
+        this.headers = headers;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
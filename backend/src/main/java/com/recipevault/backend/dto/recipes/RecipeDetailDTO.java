@@ -16,6 +16,11 @@ public class RecipeDetailDTO {
 
     private UUID userId; // For ownership checking
 
+    // Same value as the ETag header, send it back in If-Match to update or delete only this version
+    private Long version;
+    // Same instant as the Last-Modified header
+    private LocalDateTime lastModifiedDate;
+
     // Default Constructor
     public RecipeDetailDTO() {
     }
@@ -91,4 +96,20 @@ public class RecipeDetailDTO {
     public void setUserId(UUID userId) {
         this.userId = userId;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    public void setLastModifiedDate(LocalDateTime lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+    }
 }
@@ -0,0 +1,45 @@
+package com.recipevault.backend.dto.recipes;
+
+import java.util.List;
+
+public class RecipeFeedDTO {
+    private List<RecipeSummaryDTO> recipes;
+
+    // Opaque cursor to pass back for the next page, null when there are no more recipes
+    private String nextCursor;
+    private boolean hasMore;
+
+    // Default Constructor
+    public RecipeFeedDTO() {
+    }
+
+    public RecipeFeedDTO(List<RecipeSummaryDTO> recipes, String nextCursor, boolean hasMore) {
+        this.recipes = recipes;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<RecipeSummaryDTO> getRecipes() {
+        return recipes;
+    }
+
+    public void setRecipes(List<RecipeSummaryDTO> recipes) {
+        this.recipes = recipes;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -0,0 +1,73 @@
+package com.recipevault.backend.dto.recipes;
+
+import com.recipevault.backend.enums.Difficulty;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Optional filters for recipe listings, bound from query parameters, unset fields do not filter
+public class RecipeFilterDTO {
+    private Difficulty difficulty;
+    private UUID creatorId;
+    private Integer minIngredients;
+    private Integer maxIngredients;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdTo;
+
+    // Default Constructor
+    public RecipeFilterDTO() {
+    }
+
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(Difficulty difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    public UUID getCreatorId() {
+        return creatorId;
+    }
+
+    public void setCreatorId(UUID creatorId) {
+        this.creatorId = creatorId;
+    }
+
+    public Integer getMinIngredients() {
+        return minIngredients;
+    }
+
+    public void setMinIngredients(Integer minIngredients) {
+        this.minIngredients = minIngredients;
+    }
+
+    public Integer getMaxIngredients() {
+        return maxIngredients;
+    }
+
+    public void setMaxIngredients(Integer maxIngredients) {
+        this.maxIngredients = maxIngredients;
+    }
+
+    public LocalDateTime getCreatedFrom() {
+        return createdFrom;
+    }
+
+    public void setCreatedFrom(LocalDateTime createdFrom) {
+        this.createdFrom = createdFrom;
+    }
+
+    public LocalDateTime getCreatedTo() {
+        return createdTo;
+    }
+
+    public void setCreatedTo(LocalDateTime createdTo) {
+        this.createdTo = createdTo;
+    }
+}
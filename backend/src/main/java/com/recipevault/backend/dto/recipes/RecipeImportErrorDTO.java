@@ -0,0 +1,32 @@
+package com.recipevault.backend.dto.recipes;
+
+public class RecipeImportErrorDTO {
+    // 1-based position of the recipe in the uploaded file (data rows only for CSV)
+    private long row;
+    private String message;
+
+    // Default Constructor
+    public RecipeImportErrorDTO() {
+    }
+
+    public RecipeImportErrorDTO(long row, String message) {
+        this.row = row;
+        this.message = message;
+    }
+
+    public long getRow() {
+        return row;
+    }
+
+    public void setRow(long row) {
+        this.row = row;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,49 @@
+package com.recipevault.backend.dto.recipes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RecipeImportResultDTO {
+    private long imported;
+    private long failed;
+
+    // First failures only, failed holds the full count
+    private List<RecipeImportErrorDTO> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+
+    // Default Constructor
+    public RecipeImportResultDTO() {
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public List<RecipeImportErrorDTO> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<RecipeImportErrorDTO> errors) {
+        this.errors = errors;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+}
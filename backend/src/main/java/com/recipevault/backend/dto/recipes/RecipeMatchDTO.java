@@ -0,0 +1,53 @@
+package com.recipevault.backend.dto.recipes;
+
+public class RecipeMatchDTO {
+    private RecipeSummaryDTO recipe;
+    private int matchedIngredients;
+    private int totalIngredients;
+
+    // matchedIngredients / totalIngredients, 1.0 means every ingredient is on hand
+    private double coverage;
+
+    // Default Constructor
+    public RecipeMatchDTO() {
+    }
+
+    public RecipeMatchDTO(RecipeSummaryDTO recipe, int matchedIngredients, int totalIngredients, double coverage) {
+        this.recipe = recipe;
+        this.matchedIngredients = matchedIngredients;
+        this.totalIngredients = totalIngredients;
+        this.coverage = coverage;
+    }
+
+    public RecipeSummaryDTO getRecipe() {
+        return recipe;
+    }
+
+    public void setRecipe(RecipeSummaryDTO recipe) {
+        this.recipe = recipe;
+    }
+
+    public int getMatchedIngredients() {
+        return matchedIngredients;
+    }
+
+    public void setMatchedIngredients(int matchedIngredients) {
+        this.matchedIngredients = matchedIngredients;
+    }
+
+    public int getTotalIngredients() {
+        return totalIngredients;
+    }
+
+    public void setTotalIngredients(int totalIngredients) {
+        this.totalIngredients = totalIngredients;
+    }
+
+    public double getCoverage() {
+        return coverage;
+    }
+
+    public void setCoverage(double coverage) {
+        this.coverage = coverage;
+    }
+}
@@ -8,6 +8,9 @@ public class RecipeSummaryDTO {
     private String title;
     private String difficulty;
     private String imageUrl;
+    // Resized copies for list cards, the original URL for images without variants
+    private String thumbnailUrl;
+    private String cardImageUrl;
     private String creatorName;
     private LocalDateTime createdDate;
     private int ingredientCount;
@@ -51,6 +54,22 @@ public class RecipeSummaryDTO {
         this.imageUrl = imageUrl;
     }
 
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    public void setThumbnailUrl(String thumbnailUrl) {
+        this.thumbnailUrl = thumbnailUrl;
+    }
+
+    public String getCardImageUrl() {
+        return cardImageUrl;
+    }
+
+    public void setCardImageUrl(String cardImageUrl) {
+        this.cardImageUrl = cardImageUrl;
+    }
+
     public String getCreatorName() {
         return creatorName;
     }
@@ -0,0 +1,44 @@
+package com.recipevault.backend.entities;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// One row per stored upload: how many recipes currently show it, the row and the image go with the last one
+// Images from before reference counting have no row and are never deleted
+@Entity
+@Table(name = "image_references")
+public class ImageReferenceEntity {
+
+    // Key of the original, e.g. recipe-images/<sha-256>/original.jpg
+    @Id
+    @Column(name = "image_key", nullable = false)
+    private String imageKey;
+
+    @Column(name = "reference_count", nullable = false)
+    private int referenceCount;
+
+    @Column(name = "created_date")
+    private LocalDateTime createdDate;
+
+    @PrePersist
+    protected void onCreate() {
+        createdDate = LocalDateTime.now();
+    }
+
+    public ImageReferenceEntity() {}
+
+    public ImageReferenceEntity(String imageKey, int referenceCount) {
+        this.imageKey = imageKey;
+        this.referenceCount = referenceCount;
+    }
+
+    public String getImageKey() { return imageKey; }
+    public void setImageKey(String imageKey) { this.imageKey = imageKey; }
+
+    public int getReferenceCount() { return referenceCount; }
+    public void setReferenceCount(int referenceCount) { this.referenceCount = referenceCount; }
+
+    public LocalDateTime getCreatedDate() { return createdDate; }
+    public void setCreatedDate(LocalDateTime createdDate) { this.createdDate = createdDate; }
+}
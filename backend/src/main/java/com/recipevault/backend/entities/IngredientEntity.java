@@ -1,13 +1,22 @@
 package com.recipevault.backend.entities;
 
+import com.recipevault.backend.config.HibernateCacheConfig;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.INGREDIENTS)
 @Table(name = "ingredients")
 public class IngredientEntity {
+    public static final int ALLOCATION_SIZE = 50;
 
+    // Pooled sequence instead of IDENTITY so Hibernate can batch ingredient inserts
+    // One sequence round trip hands out ALLOCATION_SIZE ids (a next_val table on MySQL)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ingredients_seq")
+    @SequenceGenerator(name = "ingredients_seq", sequenceName = "ingredients_seq", allocationSize = IngredientEntity.ALLOCATION_SIZE)
     private Long id;
 
     // Many ingredients to 1 recipe
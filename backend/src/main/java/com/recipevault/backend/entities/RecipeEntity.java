@@ -1,18 +1,41 @@
 package com.recipevault.backend.entities;
 
+import com.recipevault.backend.config.HibernateCacheConfig;
 import com.recipevault.backend.enums.Difficulty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 @Entity
-@Table(name = "Recipes")
+// Second-level cached, the optimistic lock version keeps a stale load from overwriting a newer entry
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.RECIPES)
+// Fetch plan for the recipe detail view: recipe row and its ingredients in one query
+// Owner id needs no join, it is read from the user_id foreign key of the lazy user proxy
+@NamedEntityGraph(name = "RecipeEntity.detail", attributeNodes = @NamedAttributeNode("ingredients"))
+@Table(name = "Recipes", indexes = {
+        // Backs the keyset-paginated feed: ORDER BY created_date DESC, id DESC with a (created_date, id) cursor
+        @Index(name = "idx_recipes_created_date_id", columnList = "created_date, id"),
+        // Filtered listings (RecipeSpecifications): equality or range filter first, default created_date sort second
+        @Index(name = "idx_recipes_difficulty_created_date", columnList = "difficulty, created_date"),
+        @Index(name = "idx_recipes_user_created_date", columnList = "user_id, created_date"),
+        @Index(name = "idx_recipes_ingredient_count_created_date", columnList = "ingredient_count, created_date"),
+        // MAX(last_modified_date) for the recipe list validator is a single index lookup
+        @Index(name = "idx_recipes_last_modified_date", columnList = "last_modified_date")
+})
 public class RecipeEntity {
+    public static final int ALLOCATION_SIZE = 50;
 
+    // Pooled sequence like IngredientEntity, so bulk imports can batch recipe inserts too
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recipes_seq")
+    @SequenceGenerator(name = "recipes_seq", sequenceName = "recipes_seq", allocationSize = RecipeEntity.ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
@@ -34,12 +57,32 @@ public class RecipeEntity {
     @Column(name = "image_url")
      private String imageUrl;
 
+    // Optimistic lock: Hibernate increments it with every recipe update and rejects the write if another one got in first
+    // Also the recipe's ETag, so If-Match on PUT and DELETE compares against it (nullable for existing data)
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    // Moves forward on every write and backs the recipe's Last-Modified header (nullable for existing data)
+    // Millisecond precision so the value held in memory is exactly what the database stores
+    @Column(name = "last_modified_date")
+    private LocalDateTime lastModifiedDate;
+
     // One recipe to many ingredients
     // All operations performed on recipe entity cascades to related ingredients
     // Ingredients removed from recipes ingredient list will be deleted from db
+    // Ordered by id so the list keeps the order ingredients were added in, syncIngredients relies on it
+    // Cached as the list of ingredient ids, the ingredients themselves come from their own region
     @OneToMany(mappedBy = "recipe", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("id")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.RECIPE_INGREDIENTS)
     private List<IngredientEntity> ingredients = new ArrayList<>();
 
+    // Denormalized size of ingredients so list views never have to initialize the collection
+    // Kept in sync by addIngredient, removeIngredient, clearIngredients and syncIngredients (nullable for existing data)
+    @Column(name = "ingredient_count")
+    private Integer ingredientCount = 0;
+
     // Link recipe to user (nullable for existing data)
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
@@ -101,6 +144,41 @@ public class RecipeEntity {
         this.imageUrl = imageUrl;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    public void setLastModifiedDate(LocalDateTime lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
+    // Called by every write path, ingredient-only edits never dirty the recipe row so @PreUpdate would miss them
+    // Dirtying the row is also what makes ingredient-only edits increment the version
+    // Strictly increasing, two writes in the same millisecond (or a clock step back) still get distinct validators
+    public void markModified() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        if (lastModifiedDate != null && !now.isAfter(lastModifiedDate)) {
+            now = lastModifiedDate.plus(1, ChronoUnit.MILLIS);
+        }
+        lastModifiedDate = now;
+    }
+
+    // JPA lifecycle callback, new recipes (including bulk imports) start with a validator
+    @PrePersist
+    protected void onCreate() {
+        if (lastModifiedDate == null) {
+            markModified();
+        }
+    }
+
     public List<IngredientEntity> getIngredients() {
         return ingredients;
     }
@@ -112,11 +190,83 @@ public class RecipeEntity {
     public void addIngredient(IngredientEntity ingredient) {
         ingredients.add(ingredient);
         ingredient.setRecipe(this);
+        ingredientCount = ingredients.size();
     }
 
     public void removeIngredient(IngredientEntity ingredient) {
         ingredients.remove(ingredient);
         ingredient.setRecipe(null);
+        ingredientCount = ingredients.size();
+    }
+
+    public void clearIngredients() {
+        ingredients.clear();
+        ingredientCount = 0;
+    }
+
+    // Brings the ingredients in line with the given names with as few row writes as it can
+    // Rows stay in id order, so a removal can be deleted in place while an insertion is only possible at the end:
+    // past the common prefix, either the rows missing from the names are deleted and the rest of the names appended,
+    // or the tail is rewritten position by position (changed names become UPDATEs), whichever writes fewer rows
+    public void syncIngredients(List<String> ingredientNames) {
+        int prefix = 0;
+        while (prefix < Math.min(ingredients.size(), ingredientNames.size())
+                && Objects.equals(ingredients.get(prefix).getIngredientName(), ingredientNames.get(prefix))) {
+            prefix++;
+        }
+
+        // Remaining rows that still line up with the names in order are kept, the others deleted
+        List<IngredientEntity> removed = new ArrayList<>();
+        int kept = prefix;
+        for (int i = prefix; i < ingredients.size(); i++) {
+            IngredientEntity ingredient = ingredients.get(i);
+            if (kept < ingredientNames.size() && Objects.equals(ingredient.getIngredientName(), ingredientNames.get(kept))) {
+                kept++;
+            } else {
+                removed.add(ingredient);
+            }
+        }
+        int inPlaceWrites = removed.size() + ingredientNames.size() - kept;
+
+        int common = Math.min(ingredients.size(), ingredientNames.size());
+        int positionalWrites = Math.abs(ingredients.size() - ingredientNames.size());
+        for (int i = prefix; i < common; i++) {
+            if (!Objects.equals(ingredients.get(i).getIngredientName(), ingredientNames.get(i))) {
+                positionalWrites++;
+            }
+        }
+
+        if (inPlaceWrites <= positionalWrites) {
+            removed.forEach(this::removeIngredient);
+            appendIngredients(ingredientNames.subList(kept, ingredientNames.size()));
+            return;
+        }
+        for (int i = prefix; i < common; i++) {
+            IngredientEntity ingredient = ingredients.get(i);
+            if (!Objects.equals(ingredient.getIngredientName(), ingredientNames.get(i))) {
+                ingredient.setIngredientName(ingredientNames.get(i));
+            }
+        }
+        while (ingredients.size() > ingredientNames.size()) {
+            removeIngredient(ingredients.get(ingredients.size() - 1));
+        }
+        appendIngredients(ingredientNames.subList(common, ingredientNames.size()));
+    }
+
+    private void appendIngredients(List<String> ingredientNames) {
+        for (String name : ingredientNames) {
+            IngredientEntity ingredient = new IngredientEntity();
+            ingredient.setIngredientName(name);
+            addIngredient(ingredient);
+        }
+    }
+
+    public Integer getIngredientCount() {
+        return ingredientCount;
+    }
+
+    public void setIngredientCount(Integer ingredientCount) {
+        this.ingredientCount = ingredientCount;
     }
 
     public UserEntity getUser() {
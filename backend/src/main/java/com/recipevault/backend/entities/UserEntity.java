@@ -1,7 +1,10 @@
 package com.recipevault.backend.entities;
 
+import com.recipevault.backend.config.HibernateCacheConfig;
 import com.recipevault.backend.enums.Role;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -9,6 +12,9 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
+// Loaded by id on every authenticated write (owner of the recipe), served from the second-level cache
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.USERS)
 @Table(name = "users")
 public class UserEntity {
 
@@ -0,0 +1,58 @@
+package com.recipevault.backend.enums;
+
+import java.util.Locale;
+
+/*
+ * Resized copies generated for every uploaded recipe image, stored as JPEG next to the original
+ * Uploads live at <folder>/<name>/original.<ext>, each variant at <folder>/<name>/<variant>.jpg
+ */
+
+public enum ImageVariant {
+    // Largest first, each smaller variant is resized from the one before it
+    DETAIL(1200, 1200, false),
+    CARD(400, 250, true),
+    THUMBNAIL(200, 125, true);
+
+    public static final String ORIGINAL_NAME = "original";
+
+    private final int width;
+    private final int height;
+    // Cropped variants fill the exact box, the others fit inside it keeping the aspect ratio
+    private final boolean cropped;
+
+    ImageVariant(int width, int height, boolean cropped) {
+        this.width = width;
+        this.height = height;
+        this.cropped = cropped;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public boolean isCropped() {
+        return cropped;
+    }
+
+    public String fileName() {
+        return name().toLowerCase(Locale.ROOT) + ".jpg";
+    }
+
+    // Storage key or URL of this variant, given the key or URL of the original
+    public String keyFor(String original) {
+        return original.substring(0, original.lastIndexOf('/') + 1) + fileName();
+    }
+
+    // Images uploaded before variants existed (or linked from elsewhere) fall back to the original
+    public String urlFor(String imageUrl) {
+        return hasVariants(imageUrl) ? keyFor(imageUrl) : imageUrl;
+    }
+
+    public static boolean hasVariants(String imageUrl) {
+        return imageUrl != null && imageUrl.substring(imageUrl.lastIndexOf('/') + 1).startsWith(ORIGINAL_NAME + ".");
+    }
+}
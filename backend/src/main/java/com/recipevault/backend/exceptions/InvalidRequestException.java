@@ -0,0 +1,12 @@
+package com.recipevault.backend.exceptions;
+
+// Request parameter the client got wrong, e.g. a tampered feed cursor or an unsupported sort (400)
+public class InvalidRequestException extends RuntimeException {
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,8 @@
+package com.recipevault.backend.exceptions;
+
+// If-Match did not match the current version of the resource
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -2,10 +2,13 @@ package com.recipevault.backend.mapper;
 
 import com.recipevault.backend.dto.recipes.RecipeCreateDTO;
 import com.recipevault.backend.dto.recipes.RecipeDetailDTO;
+import com.recipevault.backend.dto.recipes.RecipeExportDTO;
 import com.recipevault.backend.dto.recipes.RecipeSummaryDTO;
 import com.recipevault.backend.dto.recipes.RecipeUpdateDTO;
 import com.recipevault.backend.entities.IngredientEntity;
 import com.recipevault.backend.entities.RecipeEntity;
+import com.recipevault.backend.enums.ImageVariant;
+import com.recipevault.backend.repositories.RecipeSummaryView;
 import org.mapstruct.AfterMapping;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -22,30 +25,54 @@ import java.util.List;
  */
 
 // Uses IngredientMapper when mapping Ingredient objects within a Recipe
-@Mapper(componentModel = "spring", uses = {IngredientMapper.class})
+@Mapper(componentModel = "spring", uses = {IngredientMapper.class}, imports = {ImageVariant.class})
 public interface RecipeMapper {
 
-    // Calculates ingredientCount on the fly for lightweight DTO with summary info
-    @Mapping(target = "ingredientCount", expression = "java(recipe.getIngredients().size())")
+    // ingredientCount comes from the denormalized column, so summaries never load the ingredients collection
+    // Variant URLs are derived from the original's key, nothing extra is stored per recipe
     @Mapping(target = "userId", source = "user.id")
+    @Mapping(target = "thumbnailUrl", expression = "java(ImageVariant.THUMBNAIL.urlFor(recipe.getImageUrl()))")
+    @Mapping(target = "cardImageUrl", expression = "java(ImageVariant.CARD.urlFor(recipe.getImageUrl()))")
     RecipeSummaryDTO toSummaryDTO(RecipeEntity recipe);
 
     List<RecipeSummaryDTO> toSummaryDTOList(List<RecipeEntity> recipes);
 
+    // Same summary built from the column projection used by filtered listings
+    @Mapping(target = "thumbnailUrl", expression = "java(ImageVariant.THUMBNAIL.urlFor(view.imageUrl()))")
+    @Mapping(target = "cardImageUrl", expression = "java(ImageVariant.CARD.urlFor(view.imageUrl()))")
+    RecipeSummaryDTO toSummaryDTO(RecipeSummaryView view);
+
+    List<RecipeSummaryDTO> toSummaryDTOListFromViews(List<RecipeSummaryView> views);
+
     // DTO with all recipe details, Mapstruct automatically uses IngredientMapper to convert Ingredients list
+    // Validators fall back to the values the startup backfills write, so they do not change once backfilled
     @Mapping(target = "userId", source = "user.id")
+    @Mapping(target = "version", source = "version", defaultValue = "0L")
+    @Mapping(target = "lastModifiedDate", expression =
+            "java(recipe.getLastModifiedDate() != null ? recipe.getLastModifiedDate() : recipe.getCreatedDate())")
     RecipeDetailDTO toDetailDTO(RecipeEntity recipe);
 
+    // Export rows carry ingredient names looked up in batches, never the lazily loaded collection
+    @Mapping(target = "userId", source = "user.id")
+    @Mapping(target = "ingredientNames", ignore = true)
+    RecipeExportDTO toExportDTO(RecipeEntity recipe);
+
     // Ingredients filed handled separately and id is generated by database
     @Mapping(target = "ingredients", ignore = true)
+    @Mapping(target = "ingredientCount", ignore = true)
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "createdDate", expression = "java(java.time.LocalDateTime.now())")
+    @Mapping(target = "lastModifiedDate", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "imageUrl", source = "imageUrl")
     RecipeEntity toEntity(RecipeCreateDTO dto);
 
     // Maps data from RecipeUpdateDTO to existing recipe entity, only updating fields present in DTO
     @Mapping(target = "ingredients", ignore = true)
+    @Mapping(target = "ingredientCount", ignore = true)
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "lastModifiedDate", ignore = true)
+    @Mapping(target = "version", ignore = true)
     void updateRecipeFromDTO(RecipeUpdateDTO dto, @MappingTarget RecipeEntity recipe);
 
     // Executes after automatic mapping
@@ -0,0 +1,33 @@
+package com.recipevault.backend.repositories;
+
+import com.recipevault.backend.entities.ImageReferenceEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+// Reference counts change in single UPDATE statements, never read-modify-write
+// Uploads run outside any service transaction, so each statement commits on its own, while recipe writes
+// take and release references within their own transaction
+public interface ImageReferenceRepository extends JpaRepository<ImageReferenceEntity, String> {
+
+    // 0 when the image has no row yet, i.e. it still has to be stored
+    @Transactional
+    @Modifying
+    @Query("UPDATE ImageReferenceEntity i SET i.referenceCount = i.referenceCount + 1 WHERE i.imageKey = :key")
+    int addReference(@Param("key") String key);
+
+    // 0 when the image has no row (stored before reference counting)
+    @Transactional
+    @Modifying
+    @Query("UPDATE ImageReferenceEntity i SET i.referenceCount = i.referenceCount - 1 " +
+            "WHERE i.imageKey = :key AND i.referenceCount > 0")
+    int removeReference(@Param("key") String key);
+
+    // 1 when the last reference was just removed and the stored image can go
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ImageReferenceEntity i WHERE i.imageKey = :key AND i.referenceCount <= 0")
+    int deleteUnreferenced(@Param("key") String key);
+}
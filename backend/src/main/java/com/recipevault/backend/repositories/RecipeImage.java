@@ -0,0 +1,8 @@
+package com.recipevault.backend.repositories;
+
+/*
+ * Image a recipe shows and the version it was read at, so a delete releases the image of exactly the row it removes
+ */
+
+public record RecipeImage(String imageUrl, Long version) {
+}
@@ -0,0 +1,9 @@
+package com.recipevault.backend.repositories;
+
+/*
+ * Projection of a single ingredient row, used when ingredients for many recipes are read in bulk
+ * A record built by a constructor expression, interface projections would create a proxy per row
+ */
+
+public record RecipeIngredientName(Long recipeId, String ingredientName) {
+}
@@ -0,0 +1,11 @@
+package com.recipevault.backend.repositories;
+
+import java.time.LocalDateTime;
+
+/*
+ * Validator for the full recipe list: how many recipes exist and when the newest write happened
+ * lastModifiedDate is null when there are no recipes
+ */
+
+public record RecipeListVersion(long recipeCount, LocalDateTime lastModifiedDate) {
+}
@@ -2,12 +2,22 @@ package com.recipevault.backend.repositories;
 
 import com.recipevault.backend.entities.RecipeEntity;
 import com.recipevault.backend.entities.UserEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /*
  * Repository is an abstraction over data access logic, typically interacting with database
@@ -15,11 +25,81 @@ import java.util.List;
  * Separation of concerns -> isolates persistence logic from business logic
  */
 
-public interface RecipeRepository extends JpaRepository<RecipeEntity, Long> {
+public interface RecipeRepository extends JpaRepository<RecipeEntity, Long>,
+        JpaSpecificationExecutor<RecipeEntity>, RecipeRepositoryCustom {
     // Spring Data JPA provides basic CRUD operations automatically
 
     // New methods for user-specific recipes
     List<RecipeEntity> findByUser(UserEntity user);
     List<RecipeEntity> findByUserOrderByCreatedDateDesc(UserEntity user);
     Page<RecipeEntity> findByUser(UserEntity user, Pageable pageable);
+
+    // Detail load: recipe and ingredients in a single round trip (see RecipeEntity.detail)
+    @EntityGraph(value = "RecipeEntity.detail")
+    @Query("SELECT r FROM RecipeEntity r WHERE r.id = :id")
+    Optional<RecipeEntity> findDetailById(@Param("id") Long id);
+
+    // Validator for the list's conditional requests, a 304 never loads the recipes
+    // Any create, update or delete changes the count or the latest modification time
+    // Query cached: any write to the recipes table invalidates it through its update timestamp
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.recipevault.backend.repositories.RecipeListVersion(COUNT(r), MAX(r.lastModifiedDate)) " +
+            "FROM RecipeEntity r")
+    RecipeListVersion findListVersion();
+
+    // Keyset pagination for the recipe feed, only the page size from Pageable is used (never an OFFSET)
+    // First page of the feed, newest first
+    List<RecipeEntity> findAllByOrderByCreatedDateDescIdDesc(Pageable pageable);
+
+    // Subsequent pages: rows strictly after the (createdDate, id) cursor in feed order
+    // Leading createdDate <= bound lets the (created_date, id) index serve this as a range scan
+    @Query("SELECT r FROM RecipeEntity r " +
+            "WHERE r.createdDate <= :createdDate " +
+            "AND (r.createdDate < :createdDate OR r.id < :id) " +
+            "ORDER BY r.createdDate DESC, r.id DESC")
+    List<RecipeEntity> findFeedPageAfter(@Param("createdDate") LocalDateTime createdDate,
+                                         @Param("id") Long id,
+                                         Pageable pageable);
+
+    // Primary key ordered batches for bulk processing (index rebuilds), again without OFFSET
+    List<RecipeEntity> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    // Primary key ordered batches for exports, read-only so nothing is snapshotted for dirty checking
+    // Bypasses the second-level cache, a full scan would only push the hot recipes out of it
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("SELECT r FROM RecipeEntity r WHERE r.id > :afterId ORDER BY r.id")
+    List<RecipeEntity> findExportBatchAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT r.id FROM RecipeEntity r WHERE r.id > :afterId ORDER BY r.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Ingredient names for a batch of recipes in one query, avoids initializing each ingredients collection
+    @Query("SELECT new com.recipevault.backend.repositories.RecipeIngredientName(i.recipe.id, i.ingredientName) " +
+            "FROM IngredientEntity i WHERE i.recipe.id IN :recipeIds ORDER BY i.id")
+    List<RecipeIngredientName> findIngredientNamesByRecipeIds(@Param("recipeIds") Collection<Long> recipeIds);
+
+    @Query("SELECT new com.recipevault.backend.repositories.RecipeImage(r.imageUrl, r.version) " +
+            "FROM RecipeEntity r WHERE r.id = :id")
+    Optional<RecipeImage> findImageById(@Param("id") Long id);
+
+    // Fills ingredient_count for recipes created before the column existed
+    @Modifying
+    @Query("UPDATE RecipeEntity r SET r.ingredientCount = " +
+            "(SELECT COUNT(i) FROM IngredientEntity i WHERE i.recipe = r) " +
+            "WHERE r.ingredientCount IS NULL")
+    int backfillIngredientCounts();
+
+    // Gives recipes created before last_modified_date existed their creation time as a validator
+    @Modifying
+    @Query("UPDATE RecipeEntity r SET r.lastModifiedDate = COALESCE(r.createdDate, CURRENT_TIMESTAMP) " +
+            "WHERE r.lastModifiedDate IS NULL")
+    int backfillLastModifiedDates();
+
+    // Recipes created before the version column existed start at version 0
+    @Modifying
+    @Query("UPDATE RecipeEntity r SET r.version = 0 WHERE r.version IS NULL")
+    int backfillVersions();
 }
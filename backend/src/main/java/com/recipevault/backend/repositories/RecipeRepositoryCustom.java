@@ -0,0 +1,21 @@
+package com.recipevault.backend.repositories;
+
+import com.recipevault.backend.entities.RecipeEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.UUID;
+
+/*
+ * Queries that Spring Data cannot derive, implemented in RecipeRepositoryImpl
+ */
+
+public interface RecipeRepositoryCustom {
+    // Filtered, sorted page of summary projections, a Slice so no COUNT query is issued
+    Slice<RecipeSummaryView> findSummaries(Specification<RecipeEntity> specification, Pageable pageable);
+
+    // Deletes the recipe and its ingredients if the user owns it and, unless version is null, it is at that version
+    // Returns the deleted recipe rows, 0 means not found, not owned or changed
+    int deleteOwnedRecipe(Long id, UUID userId, Long version);
+}
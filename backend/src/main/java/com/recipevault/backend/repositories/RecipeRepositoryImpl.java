@@ -0,0 +1,133 @@
+package com.recipevault.backend.repositories;
+
+import com.recipevault.backend.entities.IngredientEntity;
+import com.recipevault.backend.entities.RecipeEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class RecipeRepositoryImpl implements RecipeRepositoryCustom {
+    // Tables the recipe delete writes, as Hibernate names them in query spaces
+    private static final String[] RECIPE_TABLES = {"recipes", "ingredients"};
+    // Space the delete statements are synchronized on, no entity reads it
+    // Hibernate clears the whole cache region of every entity behind a bulk statement's spaces, or of every entity
+    // when there are none, so naming the real tables would drop all cached recipes and ingredients
+    private static final String RECIPE_DELETE_SPACE = "recipe_delete";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<RecipeSummaryView> findSummaries(Specification<RecipeEntity> specification, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<RecipeSummaryView> query = cb.createQuery(RecipeSummaryView.class);
+        Root<RecipeEntity> root = query.from(RecipeEntity.class);
+
+        query.select(cb.construct(RecipeSummaryView.class,
+                root.get("id"),
+                root.get("title"),
+                root.get("difficulty"),
+                root.get("imageUrl"),
+                root.get("creatorName"),
+                root.get("createdDate"),
+                root.get("ingredientCount"),
+                root.get("user").get("id")));
+
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+
+        // id as final tie-breaker keeps page boundaries stable between requests
+        List<Order> orders = new ArrayList<>(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        Sort.Order idOrder = pageable.getSort().getOrderFor("id");
+        if (idOrder == null) {
+            Sort.Direction direction = pageable.getSort().stream()
+                    .findFirst()
+                    .map(Sort.Order::getDirection)
+                    .orElse(Sort.Direction.DESC);
+            orders.add(direction.isAscending() ? cb.asc(root.get("id")) : cb.desc(root.get("id")));
+        }
+        query.orderBy(orders);
+
+        // One extra row tells whether a next page exists
+        List<RecipeSummaryView> content = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content = content.subList(0, pageable.getPageSize());
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    @Override
+    public int deleteOwnedRecipe(Long id, UUID userId, Long version) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        CacheImplementor cache = session.getFactory().getCache();
+        List<Long> ingredientIds = entityManager.createQuery(
+                        "SELECT i.id FROM IngredientEntity i WHERE i.recipe.id = :id", Long.class)
+                .setParameter("id", id)
+                .getResultList();
+
+        // What Hibernate does for the tables it is not told about: cached query results reading them (the list
+        // version) go stale now and stay stale until the transaction ends, only this recipe's entries are evicted
+        TimestampsCache timestamps = cache.getTimestampsCache();
+        if (timestamps != null) {
+            timestamps.preInvalidate(RECIPE_TABLES, session);
+        }
+        evictRecipe(cache, id, ingredientIds);
+        session.getActionQueue().registerProcess((success, completedSession) -> {
+            if (timestamps != null) {
+                timestamps.invalidate(RECIPE_TABLES, completedSession);
+            }
+            // Again once committed, a concurrent load may have cached the rows in between
+            evictRecipe(cache, id, ingredientIds);
+        });
+
+        // Ingredients go first, Hibernate generated foreign keys do not cascade deletes
+        String owned = "id = :id AND user_id = :userId" + (version == null ? "" : " AND version = :version");
+        deleteStatement("DELETE FROM ingredients WHERE recipe_id IN (SELECT id FROM recipes WHERE " + owned + ")",
+                id, userId, version).executeUpdate();
+        return deleteStatement("DELETE FROM recipes WHERE " + owned, id, userId, version).executeUpdate();
+    }
+
+    private NativeQuery<?> deleteStatement(String sql, Long id, UUID userId, Long version) {
+        NativeQuery<?> statement = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(RECIPE_DELETE_SPACE)
+                .setParameter("id", id)
+                .setParameter("userId", userId);
+        if (version != null) {
+            statement.setParameter("version", version);
+        }
+        return statement;
+    }
+
+    private static void evictRecipe(CacheImplementor cache, Long id, List<Long> ingredientIds) {
+        cache.evictEntityData(RecipeEntity.class, id);
+        cache.evictCollectionData(RecipeEntity.class.getName() + ".ingredients", id);
+        ingredientIds.forEach(ingredientId -> cache.evictEntityData(IngredientEntity.class, ingredientId));
+    }
+}
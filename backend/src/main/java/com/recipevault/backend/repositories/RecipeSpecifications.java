@@ -0,0 +1,65 @@
+package com.recipevault.backend.repositories;
+
+import com.recipevault.backend.entities.RecipeEntity;
+import com.recipevault.backend.enums.Difficulty;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/*
+ * Reusable filter predicates for recipe listings
+ * Each factory returns null for a missing argument, which Specification.allOf skips
+ * Common combinations are backed by the composite indexes declared on RecipeEntity
+ */
+
+public final class RecipeSpecifications {
+
+    private RecipeSpecifications() {
+    }
+
+    public static Specification<RecipeEntity> hasDifficulty(Difficulty difficulty) {
+        if (difficulty == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("difficulty"), difficulty);
+    }
+
+    public static Specification<RecipeEntity> createdBy(UUID userId) {
+        if (userId == null) {
+            return null;
+        }
+        // Compares the user_id foreign key, no join to users
+        return (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+    }
+
+    public static Specification<RecipeEntity> ingredientCountBetween(Integer min, Integer max) {
+        if (min == null && max == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            if (min == null) {
+                return cb.le(root.get("ingredientCount"), max);
+            }
+            if (max == null) {
+                return cb.ge(root.get("ingredientCount"), min);
+            }
+            return cb.between(root.get("ingredientCount"), min, max);
+        };
+    }
+
+    public static Specification<RecipeEntity> createdBetween(LocalDateTime from, LocalDateTime to) {
+        if (from == null && to == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            if (from == null) {
+                return cb.lessThanOrEqualTo(root.get("createdDate"), to);
+            }
+            if (to == null) {
+                return cb.greaterThanOrEqualTo(root.get("createdDate"), from);
+            }
+            return cb.between(root.get("createdDate"), from, to);
+        };
+    }
+}
@@ -0,0 +1,23 @@
+package com.recipevault.backend.repositories;
+
+import com.recipevault.backend.enums.Difficulty;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/*
+ * Column projection of a recipe for list views, selected directly by the filter query
+ * Reads only the recipes row (user id comes from the foreign key), never ingredients or users
+ */
+
+public record RecipeSummaryView(
+        Long id,
+        String title,
+        Difficulty difficulty,
+        String imageUrl,
+        String creatorName,
+        LocalDateTime createdDate,
+        Integer ingredientCount,
+        UUID userId
+) {
+}
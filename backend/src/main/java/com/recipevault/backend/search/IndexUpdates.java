@@ -0,0 +1,28 @@
+package com.recipevault.backend.search;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/*
+ * Shared by the recipe indexes (full-text search and ingredient matching) so rolled back writes never reach them
+ */
+
+final class IndexUpdates {
+
+    private IndexUpdates() {
+    }
+
+    // Runs the update once the surrounding transaction commits, or immediately when there is none
+    static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+}
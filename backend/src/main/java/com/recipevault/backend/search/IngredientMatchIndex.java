@@ -0,0 +1,351 @@
+package com.recipevault.backend.search;
+
+import com.recipevault.backend.entities.IngredientEntity;
+import com.recipevault.backend.entities.RecipeEntity;
+import com.recipevault.backend.repositories.RecipeIngredientName;
+import com.recipevault.backend.repositories.RecipeRepository;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ * In-memory "what can I cook" index: normalized ingredient name -> roaring bitmap of recipe ids
+ * Matching ORs the posting lists of the supplied ingredients to get candidates, then scores each candidate by
+ * coverage (matched distinct ingredients / recipe's distinct ingredients) without touching the database
+ * Rebuilt at startup and kept current by RecipeServiceImpl, recipe ids must fit in an int
+ * Recipes changed by live updates while a rebuild runs are skipped by it, what it read for them may already be stale
+ */
+
+@Component
+public class IngredientMatchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(IngredientMatchIndex.class);
+
+    private static final int REBUILD_BATCH_SIZE = 5000;
+
+    // Score packing for sorting candidates as primitive longs:
+    // coverage in parts per million (20 bits) | matched ingredient count (11 bits) | recipe id (31 bits)
+    private static final long COVERAGE_SCALE = 1_000_000L;
+    private static final int MAX_PACKED_MATCHES = (1 << 11) - 1;
+
+    private final RecipeRepository recipeRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Ingredient term dictionary and posting lists, indexed by term id
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<RoaringBitmap> postings = new ArrayList<>();
+    // Distinct term ids per recipe, needed for coverage and to unindex a recipe
+    private final Map<Integer, int[]> recipeTerms = new HashMap<>();
+    // Recipes put or removed by live updates since the running rebuild started, null when none is running
+    // Guarded by the write lock
+    private Set<Long> touchedDuringRebuild;
+
+    public IngredientMatchIndex(RecipeRepository recipeRepository) {
+        this.recipeRepository = recipeRepository;
+    }
+
+    public record Match(long recipeId, int matchedIngredients, int totalIngredients, double coverage) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        Thread rebuild = new Thread(this::rebuild, "ingredient-index-rebuild");
+        rebuild.setDaemon(true);
+        rebuild.start();
+    }
+
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        long indexed = 0;
+        long lastId = 0;
+        List<Long> batch;
+        lock.writeLock().lock();
+        try {
+            touchedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            do {
+                batch = recipeRepository.findIdsAfter(lastId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                if (batch.isEmpty()) {
+                    break;
+                }
+
+                Map<Long, List<String>> namesByRecipe = new HashMap<>();
+                for (RecipeIngredientName row : recipeRepository.findIngredientNamesByRecipeIds(batch)) {
+                    namesByRecipe.computeIfAbsent(row.recipeId(), id -> new ArrayList<>()).add(row.ingredientName());
+                }
+                lock.writeLock().lock();
+                try {
+                    for (Long recipeId : batch) {
+                        if (!touchedDuringRebuild.contains(recipeId)) {
+                            put(recipeId, namesByRecipe.getOrDefault(recipeId, List.of()));
+                            indexed++;
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+
+                lastId = batch.get(batch.size() - 1);
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                touchedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        logger.info("Rebuilt ingredient match index with {} recipes and {} ingredients in {} ms",
+                indexed, termCount(), System.currentTimeMillis() - start);
+    }
+
+    // Adds or replaces the recipe, applied after the surrounding transaction commits
+    public void index(RecipeEntity recipe) {
+        Long recipeId = recipe.getId();
+        List<String> names = recipe.getIngredients().stream()
+                .map(IngredientEntity::getIngredientName)
+                .toList();
+        IndexUpdates.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                touched(recipeId);
+                put(recipeId, names);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Bulk variant for imports, takes the write lock once for the whole batch
+    public void indexAll(Collection<RecipeEntity> recipes) {
+        Map<Long, List<String>> namesByRecipe = new LinkedHashMap<>();
+        for (RecipeEntity recipe : recipes) {
+            namesByRecipe.put(recipe.getId(), recipe.getIngredients().stream()
+                    .map(IngredientEntity::getIngredientName)
+                    .toList());
+        }
+        IndexUpdates.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                namesByRecipe.forEach((recipeId, names) -> {
+                    touched(recipeId);
+                    put(recipeId, names);
+                });
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void remove(Long recipeId) {
+        IndexUpdates.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                touched(recipeId);
+                unindex(toIndexId(recipeId));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Recipes containing at least one of the given ingredients, best coverage first
+    public List<Match> match(Collection<String> ingredientNames, int limit) {
+        lock.readLock().lock();
+        try {
+            List<RoaringBitmap> matchedPostings = new ArrayList<>();
+            Set<Integer> seenTerms = new HashSet<>();
+            for (String name : ingredientNames) {
+                Integer termId = termIds.get(normalize(name));
+                if (termId != null && seenTerms.add(termId)) {
+                    matchedPostings.add(postings.get(termId));
+                }
+            }
+            if (matchedPostings.isEmpty()) {
+                return List.of();
+            }
+
+            RoaringBitmap candidates = FastAggregation.or(matchedPostings.iterator());
+            // Min-heap of the best packed scores so far, common ingredients match most of the catalogue
+            // and only limit results are returned, so the work is O(n log limit) and the memory O(limit)
+            long[] heap = new long[Math.min(Math.max(limit, 0), candidates.getCardinality())];
+            if (heap.length == 0) {
+                return List.of();
+            }
+            int heapSize = 0;
+            IntIterator candidateIds = candidates.getIntIterator();
+            while (candidateIds.hasNext()) {
+                int recipeId = candidateIds.next();
+                int matched = 0;
+                for (RoaringBitmap posting : matchedPostings) {
+                    if (posting.contains(recipeId)) {
+                        matched++;
+                    }
+                }
+                int total = recipeTerms.get(recipeId).length;
+                long coverage = matched * COVERAGE_SCALE / total;
+                long score = (coverage << 42) | ((long) Math.min(matched, MAX_PACKED_MATCHES) << 31) | recipeId;
+                if (heapSize < heap.length) {
+                    heap[heapSize] = score;
+                    siftUp(heap, heapSize++);
+                } else if (score > heap[0]) {
+                    heap[0] = score;
+                    siftDown(heap, heapSize);
+                }
+            }
+
+            // Popping the minimum fills the results from the back, best match first
+            Match[] matches = new Match[heapSize];
+            for (int i = heapSize - 1; i >= 0; i--) {
+                long score = heap[0];
+                heap[0] = heap[i];
+                siftDown(heap, i);
+                int recipeId = (int) (score & Integer.MAX_VALUE);
+                int matched = (int) ((score >>> 31) & MAX_PACKED_MATCHES);
+                int total = recipeTerms.get(recipeId).length;
+                matches[i] = new Match(recipeId, matched, total, (double) matched / total);
+            }
+            return Arrays.asList(matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Binary min-heap on a primitive array, the packed scores order exactly like the ranking
+    private static void siftUp(long[] heap, int index) {
+        long value = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] <= value) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = value;
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        if (size == 0) {
+            return;
+        }
+        long value = heap[0];
+        int index = 0;
+        int child;
+        while ((child = 2 * index + 1) < size) {
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (value <= heap[child]) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+
+    // Lower case, punctuation stripped, whitespace collapsed and a trailing plural removed ("Eggs" -> "egg")
+    static String normalize(String ingredientName) {
+        if (ingredientName == null) {
+            return "";
+        }
+        String normalized = ingredientName.toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{Nd}]+", " ")
+                .trim();
+        if (normalized.endsWith("ies") && normalized.length() > 4) {
+            return normalized.substring(0, normalized.length() - 3) + "y";
+        }
+        if (normalized.endsWith("oes") && normalized.length() > 4) {
+            return normalized.substring(0, normalized.length() - 2);
+        }
+        if (normalized.endsWith("s") && !normalized.endsWith("ss") && normalized.length() > 3) {
+            return normalized.substring(0, normalized.length() - 1);
+        }
+        return normalized;
+    }
+
+    private void put(Long recipeId, List<String> ingredientNames) {
+        int indexId = toIndexId(recipeId);
+        if (indexId < 0) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            unindex(indexId);
+
+            int[] terms = ingredientNames.stream()
+                    .map(IngredientMatchIndex::normalize)
+                    .filter(name -> !name.isEmpty())
+                    .distinct()
+                    .mapToInt(this::termId)
+                    .toArray();
+            if (terms.length == 0) {
+                return;
+            }
+
+            for (int term : terms) {
+                postings.get(term).add(indexId);
+            }
+            recipeTerms.put(indexId, terms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private void touched(Long recipeId) {
+        if (touchedDuringRebuild != null) {
+            touchedDuringRebuild.add(recipeId);
+        }
+    }
+
+    // Caller holds the write lock
+    private void unindex(int indexId) {
+        int[] terms = recipeTerms.remove(indexId);
+        if (terms != null) {
+            for (int term : terms) {
+                postings.get(term).remove(indexId);
+            }
+        }
+    }
+
+    // Caller holds the write lock, term ids are never reused so posting lists can stay empty
+    private int termId(String normalizedName) {
+        return termIds.computeIfAbsent(normalizedName, name -> {
+            postings.add(new RoaringBitmap());
+            return postings.size() - 1;
+        });
+    }
+
+    private int termCount() {
+        lock.readLock().lock();
+        try {
+            return termIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int toIndexId(Long recipeId) {
+        if (recipeId == null || recipeId <= 0 || recipeId > Integer.MAX_VALUE) {
+            logger.warn("Recipe id {} cannot be stored in the ingredient match index", recipeId);
+            return -1;
+        }
+        return recipeId.intValue();
+    }
+}
@@ -0,0 +1,307 @@
+package com.recipevault.backend.search;
+
+import com.recipevault.backend.entities.IngredientEntity;
+import com.recipevault.backend.entities.RecipeEntity;
+import com.recipevault.backend.repositories.RecipeIngredientName;
+import com.recipevault.backend.repositories.RecipeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.*;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/*
+ * Embedded Lucene inverted index over recipe title, ingredient names and instructions
+ * Lives on local disk (memory-mapped by Lucene), rebuilt in bulk at startup and kept current
+ * by RecipeServiceImpl on create, update and delete
+ * Only recipe ids are stored, results are hydrated from the database by the service
+ * The rebuild rewrites documents in place while the app serves searches from the previous index: every document
+ * carries the generation of the rebuild it was written in, and documents the rebuild did not rewrite (recipes deleted
+ * while the app was down) are dropped at its end
+ * Recipes changed by live updates during a rebuild are skipped by it, what it read for them may already be stale
+ */
+
+@Component
+public class RecipeSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(RecipeSearchIndex.class);
+
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_TITLE = "title";
+    private static final String FIELD_INGREDIENTS = "ingredients";
+    private static final String FIELD_INSTRUCTIONS = "instructions";
+    private static final String FIELD_GENERATION = "generation";
+
+    // Title matches rank above ingredient matches, which rank above instruction matches
+    private static final Map<String, Float> FIELD_BOOSTS = Map.of(
+            FIELD_TITLE, 4f,
+            FIELD_INGREDIENTS, 2f,
+            FIELD_INSTRUCTIONS, 1f
+    );
+    // Prefix (type-ahead) matches score below exact term matches
+    private static final float PREFIX_BOOST_FACTOR = 0.5f;
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final RecipeRepository recipeRepository;
+    private final Analyzer analyzer = new StandardAnalyzer();
+
+    @Value("${app.search.index-dir:${java.io.tmpdir}/recipevault/search-index}")
+    private String indexDir;
+
+    private FSDirectory directory;
+    private IndexWriter indexWriter;
+    private SearcherManager searcherManager;
+
+    // Document writes from live updates and from the rebuild are serialized on this lock
+    private final Object writeLock = new Object();
+    private String generation = UUID.randomUUID().toString();
+    // Recipes written or removed by live updates since the running rebuild started, null when none is running
+    private Set<Long> touchedDuringRebuild;
+
+    public RecipeSearchIndex(RecipeRepository recipeRepository) {
+        this.recipeRepository = recipeRepository;
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        Path path = Path.of(indexDir);
+        Files.createDirectories(path);
+        directory = FSDirectory.open(path);
+        // Refreshes never wait for merges (Lucene waits up to 500 ms by default), merges finish in the background
+        IndexWriterConfig config = new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND)
+                .setMaxFullFlushMergeWaitMillis(0);
+        indexWriter = new IndexWriter(directory, config);
+        searcherManager = new SearcherManager(indexWriter, null);
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        searcherManager.close();
+        indexWriter.close();
+        directory.close();
+    }
+
+    // Rebuild off the main thread so startup is not blocked by a large catalogue
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        Thread rebuild = new Thread(this::rebuild, "recipe-search-rebuild");
+        rebuild.setDaemon(true);
+        rebuild.start();
+    }
+
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        long indexed = 0;
+        try {
+            synchronized (writeLock) {
+                generation = UUID.randomUUID().toString();
+                touchedDuringRebuild = new HashSet<>();
+            }
+
+            long lastId = 0;
+            List<RecipeEntity> batch;
+            do {
+                batch = recipeRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                if (batch.isEmpty()) {
+                    break;
+                }
+
+                Map<Long, List<String>> ingredientNames = recipeRepository
+                        .findIngredientNamesByRecipeIds(batch.stream().map(RecipeEntity::getId).toList())
+                        .stream()
+                        .collect(Collectors.groupingBy(RecipeIngredientName::recipeId,
+                                Collectors.mapping(RecipeIngredientName::ingredientName, Collectors.toList())));
+
+                synchronized (writeLock) {
+                    for (RecipeEntity recipe : batch) {
+                        if (!touchedDuringRebuild.contains(recipe.getId())) {
+                            write(recipe.getId(), toDocument(recipe, ingredientNames.getOrDefault(recipe.getId(), List.of())));
+                            indexed++;
+                        }
+                    }
+                }
+                lastId = batch.get(batch.size() - 1).getId();
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+
+            synchronized (writeLock) {
+                BooleanQuery.Builder stale = new BooleanQuery.Builder()
+                        .add(new MatchAllDocsQuery(), BooleanClause.Occur.FILTER)
+                        .add(new TermQuery(new Term(FIELD_GENERATION, generation)), BooleanClause.Occur.MUST_NOT);
+                indexWriter.deleteDocuments(stale.build());
+            }
+            indexWriter.commit();
+            searcherManager.maybeRefresh();
+            logger.info("Rebuilt recipe search index with {} recipes in {} ms",
+                    indexed, System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            logger.error("Failed to rebuild recipe search index: {}", e.getMessage(), e);
+        } finally {
+            synchronized (writeLock) {
+                touchedDuringRebuild = null;
+            }
+        }
+    }
+
+    // Adds or replaces the recipe, applied after the surrounding transaction commits
+    public void index(RecipeEntity recipe) {
+        List<String> ingredientNames = recipe.getIngredients().stream()
+                .map(IngredientEntity::getIngredientName)
+                .toList();
+        Long recipeId = recipe.getId();
+        Document document = toDocument(recipe, ingredientNames);
+        afterCommit(() -> {
+            synchronized (writeLock) {
+                touched(recipeId);
+                write(recipeId, document);
+            }
+        });
+    }
+
+    // Bulk variant for imports, the searcher is refreshed once for the whole batch instead of once per recipe
+    public void indexAll(Collection<RecipeEntity> recipes) {
+        List<Long> ids = new ArrayList<>(recipes.size());
+        List<Document> documents = new ArrayList<>(recipes.size());
+        for (RecipeEntity recipe : recipes) {
+            List<String> ingredientNames = recipe.getIngredients().stream()
+                    .map(IngredientEntity::getIngredientName)
+                    .toList();
+            ids.add(recipe.getId());
+            documents.add(toDocument(recipe, ingredientNames));
+        }
+        afterCommit(() -> {
+            synchronized (writeLock) {
+                for (int i = 0; i < documents.size(); i++) {
+                    touched(ids.get(i));
+                    write(ids.get(i), documents.get(i));
+                }
+            }
+        });
+    }
+
+    public void remove(Long recipeId) {
+        afterCommit(() -> {
+            synchronized (writeLock) {
+                touched(recipeId);
+                indexWriter.deleteDocuments(idTerm(recipeId));
+            }
+        });
+    }
+
+    // Ranked recipe ids for a free-text query, every query term must match a term or a term prefix in some field
+    public List<Long> search(String queryText, int limit) {
+        List<String> terms = analyze(queryText);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String term : terms) {
+            BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+            FIELD_BOOSTS.forEach((field, boost) -> {
+                anyField.add(new BoostQuery(new TermQuery(new Term(field, term)), boost), BooleanClause.Occur.SHOULD);
+                anyField.add(new BoostQuery(new PrefixQuery(new Term(field, term)), boost * PREFIX_BOOST_FACTOR),
+                        BooleanClause.Occur.SHOULD);
+            });
+            query.add(anyField.build(), BooleanClause.Occur.MUST);
+        }
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs topDocs = searcher.search(query.build(), limit);
+                List<Long> ids = new ArrayList<>(topDocs.scoreDocs.length);
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    ids.add(Long.parseLong(searcher.storedFields().document(scoreDoc.doc).get(FIELD_ID)));
+                }
+                return ids;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to search recipes", e);
+        }
+    }
+
+    private Document toDocument(RecipeEntity recipe, List<String> ingredientNames) {
+        Document document = new Document();
+        document.add(new StringField(FIELD_ID, recipe.getId().toString(), Field.Store.YES));
+        document.add(new TextField(FIELD_TITLE, Objects.toString(recipe.getTitle(), ""), Field.Store.NO));
+        document.add(new TextField(FIELD_INGREDIENTS, String.join("\n", ingredientNames), Field.Store.NO));
+        document.add(new TextField(FIELD_INSTRUCTIONS, Objects.toString(recipe.getInstructions(), ""), Field.Store.NO));
+        return document;
+    }
+
+    // Caller holds writeLock
+    private void write(Long recipeId, Document document) throws IOException {
+        document.add(new StringField(FIELD_GENERATION, generation, Field.Store.NO));
+        indexWriter.updateDocument(idTerm(recipeId), document);
+    }
+
+    // Caller holds writeLock
+    private void touched(Long recipeId) {
+        if (touchedDuringRebuild != null) {
+            touchedDuringRebuild.add(recipeId);
+        }
+    }
+
+    private Term idTerm(Long recipeId) {
+        return new Term(FIELD_ID, recipeId.toString());
+    }
+
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        try (TokenStream tokens = analyzer.tokenStream(FIELD_TITLE, text)) {
+            CharTermAttribute termAttribute = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken()) {
+                terms.add(termAttribute.toString());
+            }
+            tokens.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to analyze search query", e);
+        }
+        return terms;
+    }
+
+    private interface IndexUpdate {
+        void apply() throws IOException;
+    }
+
+    private void afterCommit(IndexUpdate update) {
+        IndexUpdates.afterCommit(() -> applyAndRefresh(update));
+    }
+
+    private void applyAndRefresh(IndexUpdate update) {
+        try {
+            update.apply();
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            logger.error("Failed to update recipe search index: {}", e.getMessage(), e);
+        }
+    }
+}
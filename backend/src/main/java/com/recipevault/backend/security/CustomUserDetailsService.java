@@ -1,7 +1,9 @@
 package com.recipevault.backend.security;
 
+import com.recipevault.backend.config.CacheConfig;
 import com.recipevault.backend.entities.UserEntity;
 import com.recipevault.backend.repositories.UserRepository;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -24,8 +26,9 @@ public class CustomUserDetailsService implements UserDetailsService {
         this.userRepository = userRepository;
     }
 
+    // Login reads the primary, so a user can sign in right after registering, before the replicas have the row
     @Override
-    @Transactional(readOnly = true)
+    @Transactional
     public UserDetails loadUserByUsername(String usernameOrEmail) throws UsernameNotFoundException {
         UserEntity user = userRepository.findByUsername(usernameOrEmail)
                 .or(() -> userRepository.findByEmail(usernameOrEmail))
@@ -34,6 +37,8 @@ public class CustomUserDetailsService implements UserDetailsService {
         return UserPrincipal.create(user);
     }
 
+    // Short-lived cache so repeated lookups for the same user skip the users table (read from a replica if configured)
+    @Cacheable(cacheNames = CacheConfig.PRINCIPALS, key = "#id")
     @Transactional(readOnly = true)
     public UserDetails loadUserById(UUID id) {
         UserEntity user = userRepository.findById(id)
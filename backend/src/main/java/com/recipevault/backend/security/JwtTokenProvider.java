@@ -3,6 +3,8 @@ package com.recipevault.backend.security;
 import com.recipevault.backend.entities.UserEntity;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,6 +12,7 @@ import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.Optional;
 
 /*
  * Creates and validates JWT tokens
@@ -25,8 +28,26 @@ public class JwtTokenProvider {
     @Value("${app.jwt.expiration:86400000}") // 24 hours in milliseconds
     private long jwtExpirationMs;
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    // Derived once from jwtSecret, JwtParser is immutable and safe to share across request threads
+    private Key signingKey;
+    private JwtParser jwtParser;
+
+    public JwtTokenProvider() {
+    }
+
+    // For use outside the Spring context (e.g. benchmarks)
+    public JwtTokenProvider(String jwtSecret, long jwtExpirationMs) {
+        this.jwtSecret = jwtSecret;
+        this.jwtExpirationMs = jwtExpirationMs;
+        init();
+    }
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
     }
 
     public String generateToken(UserEntity user) {
@@ -38,27 +59,15 @@ public class JwtTokenProvider {
                 .setExpiration(expiryDate)
                 .claim("username", user.getUsername())
                 .claim("role", user.getRole().toString())
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public String getUserIdFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.getSubject();
-    }
-
-    public boolean validateToken(String token) {
+    // Verifies signature and expiry and returns the claims in a single parse
+    // Empty if the token is invalid for any reason, the reason is logged
+    public Optional<Claims> parseAndValidate(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
+            return Optional.of(jwtParser.parseClaimsJws(token).getBody());
         } catch (SecurityException | MalformedJwtException e) {
             logger.error("Invalid JWT signature: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
@@ -68,6 +77,18 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
-        return false;
+        return Optional.empty();
+    }
+
+    public String getUserIdFromToken(String token) {
+        return getClaimsFromToken(token).getSubject();
+    }
+
+    public Claims getClaimsFromToken(String token) {
+        return jwtParser.parseClaimsJws(token).getBody();
+    }
+
+    public boolean validateToken(String token) {
+        return parseAndValidate(token).isPresent();
     }
 }
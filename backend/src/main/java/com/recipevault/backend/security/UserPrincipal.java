@@ -1,6 +1,7 @@
 package com.recipevault.backend.security;
 
 import com.recipevault.backend.entities.UserEntity;
+import io.jsonwebtoken.Claims;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -46,6 +47,27 @@ public class UserPrincipal implements UserDetails {
         );
     }
 
+    // Builds the principal from signed JWT claims (see JwtTokenProvider.generateToken) without a database lookup
+    // Email and password are not part of the token, so they are null on principals created this way
+    public static UserPrincipal fromClaims(Claims claims) {
+        List<GrantedAuthority> authorities = List.of(
+                new SimpleGrantedAuthority("ROLE_" + claims.get("role", String.class))
+        );
+
+        return new UserPrincipal(
+                UUID.fromString(claims.getSubject()),
+                claims.get("username", String.class),
+                null,
+                null,
+                authorities
+        );
+    }
+
+    // Tokens issued before username and role were added as claims need a database lookup instead
+    public static boolean hasPrincipalClaims(Claims claims) {
+        return claims.get("username") != null && claims.get("role") != null;
+    }
+
     // UserDetails interface methods
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
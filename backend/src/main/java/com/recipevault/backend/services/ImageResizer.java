@@ -0,0 +1,169 @@
+package com.recipevault.backend.services;
+
+import com.recipevault.backend.enums.ImageVariant;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Decodes an uploaded image once and encodes every ImageVariant from it as JPEG
+ * Runs on its own small pool so decoding and scaling never occupy request threads
+ */
+
+@Component
+public class ImageResizer {
+    // A 5MB PNG can declare enormous dimensions, refuse anything that would not fit comfortably in memory
+    static final long MAX_PIXELS = 40_000_000L;
+    private static final float JPEG_QUALITY = 0.82f;
+
+    private final ThreadPoolExecutor executor;
+
+    public ImageResizer(@Value("${app.images.resize-threads:2}") int threads,
+                        @Value("${app.images.resize-queue:32}") int queueCapacity) {
+        // Encoded bytes are small, skip ImageIO's temp file cache for in-memory streams
+        ImageIO.setUseCache(false);
+        // Full queue throws RejectedExecutionException, which callers already report as 503
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("image-resize-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Completes with one JPEG per variant, or exceptionally with IllegalArgumentException if the file is not a readable image
+    public CompletableFuture<Map<ImageVariant, byte[]>> createVariants(Path image) {
+        return CompletableFuture.supplyAsync(() -> resize(image), executor);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private Map<ImageVariant, byte[]> resize(Path image) {
+        BufferedImage source = decode(image);
+        Map<ImageVariant, byte[]> variants = new EnumMap<>(ImageVariant.class);
+        for (ImageVariant variant : ImageVariant.values()) {
+            source = scale(source, variant);
+            variants.put(variant, encode(source));
+        }
+        return variants;
+    }
+
+    private BufferedImage decode(Path image) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(image.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("File is not a readable image");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_PIXELS) {
+                    throw new IllegalArgumentException("Image dimensions exceed the 40 megapixel limit");
+                }
+                // Very large photos are read at every n-th pixel, still at least twice the largest variant
+                ImageVariant largest = ImageVariant.DETAIL;
+                int subsampling = Math.max(1, Math.min(width / (2 * largest.getWidth()), height / (2 * largest.getHeight())));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("File is not a readable image", e);
+        }
+    }
+
+    // Never upscales: an image smaller than the box keeps its size (cropped to the box's aspect ratio if needed)
+    private BufferedImage scale(BufferedImage source, ImageVariant variant) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        int cropX = 0, cropY = 0, cropWidth = width, cropHeight = height;
+        double scale;
+        if (variant.isCropped()) {
+            // Centre crop to the variant's aspect ratio
+            if ((long) width * variant.getHeight() > (long) height * variant.getWidth()) {
+                cropWidth = Math.max(1, (int) ((long) height * variant.getWidth() / variant.getHeight()));
+                cropX = (width - cropWidth) / 2;
+            } else {
+                cropHeight = Math.max(1, (int) ((long) width * variant.getHeight() / variant.getWidth()));
+                cropY = (height - cropHeight) / 2;
+            }
+            scale = Math.min(1.0, (double) variant.getWidth() / cropWidth);
+        } else {
+            scale = Math.min(1.0, Math.min((double) variant.getWidth() / width, (double) variant.getHeight() / height));
+        }
+        int targetWidth = Math.max(1, (int) Math.round(cropWidth * scale));
+        int targetHeight = Math.max(1, (int) Math.round(cropHeight * scale));
+
+        BufferedImage current = source;
+        // Halve in steps first, a single bilinear pass from far above the target size drops detail and aliases
+        while (cropWidth / 2 >= targetWidth && cropHeight / 2 >= targetHeight) {
+            current = draw(current, cropX, cropY, cropWidth, cropHeight, cropWidth / 2, cropHeight / 2);
+            cropX = 0;
+            cropY = 0;
+            cropWidth /= 2;
+            cropHeight /= 2;
+        }
+        return draw(current, cropX, cropY, cropWidth, cropHeight, targetWidth, targetHeight);
+    }
+
+    private BufferedImage draw(BufferedImage source, int x, int y, int width, int height, int targetWidth, int targetHeight) {
+        BufferedImage target = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // JPEG has no alpha channel, transparent areas become white
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, targetWidth, targetHeight);
+            graphics.drawImage(source, 0, 0, targetWidth, targetHeight, x, y, x + width, y + height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encode(BufferedImage image) {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode image variant", e);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,36 @@
+package com.recipevault.backend.services;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/*
+ * Where uploaded images and their variants are kept, addressed by key, e.g. recipe-images/<name>/original.jpg
+ * S3ImageStorage for AWS and S3-compatible servers, LocalImageStorage for installs without S3 (app.images.storage)
+ */
+
+public interface ImageStorage {
+
+    CompletableFuture<Void> put(String key, Path file, String contentType);
+
+    CompletableFuture<Void> put(String key, byte[] bytes, String contentType);
+
+    // Size and type of a stored image, empty if there is none
+    CompletableFuture<Optional<StoredImage>> head(String key);
+
+    CompletableFuture<Void> download(String key, Path target);
+
+    // Missing keys are ignored
+    CompletableFuture<Void> delete(List<String> keys);
+
+    // Public URL the image is served from
+    String url(String key);
+
+    // Key behind a URL returned by url(), IllegalArgumentException for any other URL
+    String keyOf(String imageUrl);
+
+    // Upload URL the browser can PUT to directly, UnsupportedOperationException where the store has none
+    PresignedPut presignPut(String key, String contentType, long contentLength, Duration ttl);
+}
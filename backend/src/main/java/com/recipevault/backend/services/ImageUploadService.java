@@ -1,29 +1,73 @@
 package com.recipevault.backend.services;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.recipevault.backend.dto.recipes.ImageUploadJobDTO;
+import com.recipevault.backend.dto.recipes.PresignedUploadDTO;
+import com.recipevault.backend.dto.recipes.PresignedUploadRequestDTO;
+import com.recipevault.backend.entities.ImageReferenceEntity;
+import com.recipevault.backend.enums.ImageVariant;
+import com.recipevault.backend.exceptions.ResourceNotFoundException;
+import com.recipevault.backend.repositories.ImageReferenceRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
-import software.amazon.awssdk.services.s3.model.S3Exception;
-
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
 
 @Service
 public class ImageUploadService {
+    private static final Logger logger = LoggerFactory.getLogger(ImageUploadService.class);
 
-    private final S3Client s3Client;
-    
-    @Value("${aws.s3.bucket-name}")
-    private String bucketName;
+    private final ImageStorage imageStorage;
+    private final ImageResizer imageResizer;
+    private final ImageReferenceRepository imageReferenceRepository;
+    private final MeterRegistry meterRegistry;
+    // Uploads in flight, each holds a spooled temp file until the image is stored
+    private final Semaphore uploadPermits;
+    // Uploads accepted with 202, kept for status polling for an hour after their last change
+    private final Cache<UUID, UploadJob> uploadJobs = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+    // Presigned uploads waiting for their completion call
+    private final Cache<UUID, PresignedUpload> presignedUploads = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+    // Last queued operation per image key: uploads and deletes of the same content run one after another, so a
+    // delete never removes objects an identical upload has just counted on (in-process, like the caches above)
+    private final ConcurrentHashMap<String, CompletableFuture<?>> keyQueues = new ConcurrentHashMap<>();
     
-    @Value("${aws.s3.region}")
-    private String region;
+    @Value("${app.images.presigned-url-ttl:5m}")
+    private Duration presignedUrlTtl;
 
     private static final List<String> ALLOWED_CONTENT_TYPES = Arrays.asList(
             "image/jpeg", "image/jpg", "image/png", "image/gif"
@@ -31,83 +75,393 @@ public class ImageUploadService {
     
     private static final long MAX_FILE_SIZE = 5 * 1024 * 1024; // 5MB
 
-    public ImageUploadService(S3Client s3Client) {
-        this.s3Client = s3Client;
+    private static final String IMAGE_FOLDER = "recipe-images";
+
+    public ImageUploadService(ImageStorage imageStorage, ImageResizer imageResizer,
+                              ImageReferenceRepository imageReferenceRepository, MeterRegistry meterRegistry,
+                              @Value("${app.images.max-concurrent-uploads:16}") int maxConcurrentUploads) {
+        this.imageStorage = imageStorage;
+        this.imageResizer = imageResizer;
+        this.imageReferenceRepository = imageReferenceRepository;
+        this.meterRegistry = meterRegistry;
+        this.uploadPermits = new Semaphore(maxConcurrentUploads);
     }
 
-    public String uploadImage(MultipartFile file) throws IOException {
+    // Validates and spools the file on the calling thread, the returned future completes with the image URL off it
+    // The original and its resized variants are stored together, the future fails with IllegalArgumentException
+    // if the file cannot be decoded as an image
+    // Throws RejectedExecutionException when max-concurrent-uploads uploads are already in flight
+    // Images are stored under the SHA-256 of their bytes, so an identical re-upload returns the existing URL
+    // without resizing or storing anything, references are only taken by the recipes showing the image
+    public CompletableFuture<String> uploadImage(MultipartFile file) throws IOException {
         validateFile(file);
-        
-        String fileName = generateFileName(file.getOriginalFilename());
-        String folder = "recipe-images";
-        String key = folder + "/" + fileName;
-        
+        if (!uploadPermits.tryAcquire()) {
+            throw new RejectedExecutionException("Too many image uploads in progress, try again shortly");
+        }
+
+        Path spooled = null;
+        try {
+            // The multipart temp file goes away with the request, which may end before the upload does
+            spooled = Files.createTempFile("recipe-image-", null);
+            String key = IMAGE_FOLDER + "/" + contentFileName(spool(file, spooled), file.getContentType());
+
+            Path uploaded = spooled;
+            String contentType = file.getContentType();
+            return serialized(key, () -> {
+                        if (imageReferenceRepository.existsById(key)) {
+                            return CompletableFuture.completedFuture(null);
+                        }
+                        // Resizing first doubles as validation, nothing is stored for a file that does not decode
+                        return imageResizer.createVariants(uploaded)
+                                .thenCompose(variants -> {
+                                    List<CompletableFuture<?>> puts = new ArrayList<>();
+                                    puts.add(timed("put", () -> imageStorage.put(key, uploaded, contentType)));
+                                    puts.addAll(putVariants(key, variants));
+                                    return CompletableFuture.allOf(puts.toArray(CompletableFuture[]::new));
+                                })
+                                // Tracked only once stored, no recipe shows it yet
+                                .thenRun(() -> imageReferenceRepository.save(new ImageReferenceEntity(key, 0)));
+                    })
+                    .handle((done, error) -> {
+                        release(uploaded);
+                        if (error != null) {
+                            throw uploadFailure(error);
+                        }
+                        return imageStorage.url(key);
+                    });
+        } catch (IOException | RuntimeException e) {
+            release(spooled);
+            throw e;
+        }
+    }
+
+    // Direct-to-S3 upload: the browser PUTs the file to a short-lived URL signed for exactly the declared
+    // content type and length, so S3 rejects anything validateFile would have rejected
+    // UnsupportedOperationException when the configured storage cannot take direct uploads
+    public PresignedUploadDTO presignUpload(PresignedUploadRequestDTO request, UUID userId) {
+        validateImage(request.getContentType(), request.getContentLength());
+        String key = IMAGE_FOLDER + "/" + generateFileName(request.getFileName(), request.getContentType());
+
+        PresignedPut presigned = imageStorage.presignPut(key, request.getContentType(), request.getContentLength(), presignedUrlTtl);
+
+        UUID uploadId = UUID.randomUUID();
+        presignedUploads.put(uploadId, new PresignedUpload(userId, key, request.getContentType(), request.getContentLength()));
+        return new PresignedUploadDTO(uploadId, presigned.url(), presigned.headers(), imageStorage.url(key), presigned.expiresAt());
+    }
+
+    // Checks what storage received against what was signed and answers with a 202 job as soon as it matches
+    // Only the HEAD runs before the returned future completes: the original is served from its URL right away (the
+    // job carries it while PENDING) and the variants are made by the job, which reads the image back
+    // Fails with IllegalArgumentException while the object is missing (completion can be retried) or when it does
+    // not match (the object is deleted), ResourceNotFoundException for unknown or foreign upload ids
+    // The job fails when the image does not decode (the object is deleted) or storing a variant fails (completion
+    // can be retried)
+    public CompletableFuture<ImageUploadJobDTO> completePresignedUpload(UUID uploadId, UUID userId) throws IOException {
+        PresignedUpload upload = presignedUploads.getIfPresent(uploadId);
+        if (upload == null || !upload.ownerId().equals(userId)) {
+            throw new ResourceNotFoundException("Upload not found: " + uploadId);
+        }
+        if (!uploadPermits.tryAcquire()) {
+            throw new RejectedExecutionException("Too many image uploads in progress, try again shortly");
+        }
+        // One completion at a time per upload
+        if (!presignedUploads.asMap().remove(uploadId, upload)) {
+            uploadPermits.release();
+            throw new ResourceNotFoundException("Upload not found: " + uploadId);
+        }
+
+        String key = upload.key();
+        Path spooled = null;
         try {
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(key)
-                    .contentType(file.getContentType())
-                    .build();
+            spooled = Files.createTempFile("recipe-image-", null);
+            Path downloaded = spooled;
+            return timed("head", () -> imageStorage.head(key))
+                    .thenApply(stored -> {
+                        if (stored.isEmpty()) {
+                            presignedUploads.put(uploadId, upload);
+                            throw new IllegalArgumentException("Image has not been uploaded yet");
+                        }
+                        if (stored.get().contentLength() != upload.contentLength()
+                                || !upload.contentType().equalsIgnoreCase(stored.get().contentType())) {
+                            deleteUploadedObject(key);
+                            throw new IllegalArgumentException("Uploaded image does not match the requested upload");
+                        }
+                        // Tracked from the moment its URL is handed out, recipes may show it before the job is done
+                        imageReferenceRepository.save(new ImageReferenceEntity(key, 0));
+                        return startJob(userId, imageStorage.url(key), storeVariants(uploadId, upload, downloaded));
+                    })
+                    .handle((job, error) -> {
+                        if (error != null) {
+                            // Storage hiccups leave the upload open for another completion attempt
+                            if (!(unwrap(error) instanceof IllegalArgumentException)) {
+                                presignedUploads.put(uploadId, upload);
+                            }
+                            release(downloaded);
+                            throw uploadFailure(error);
+                        }
+                        return job;
+                    });
+        } catch (IOException | RuntimeException e) {
+            presignedUploads.put(uploadId, upload);
+            release(spooled);
+            throw e;
+        }
+    }
+
+    // 202 variant of uploadImage: the job is registered before the transfer can finish, then polled by id
+    public ImageUploadJobDTO startUpload(MultipartFile file, UUID userId) throws IOException {
+        return startJob(userId, null, uploadImage(file));
+    }
 
-            s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(
-                    file.getInputStream(), file.getSize()));
+    // Jobs are only visible to the user who started them
+    public Optional<ImageUploadJobDTO> getUploadJob(UUID jobId, UUID userId) {
+        UploadJob job = uploadJobs.getIfPresent(jobId);
+        if (job == null || !job.ownerId().equals(userId)) {
+            return Optional.empty();
+        }
+        return Optional.of(job.state());
+    }
+
+    // Registers a job for the upload, PENDING (with imageUrl when the image is already served) until it completes
+    private ImageUploadJobDTO startJob(UUID userId, String imageUrl, CompletableFuture<String> upload) {
+        UUID jobId = UUID.randomUUID();
+        ImageUploadJobDTO pending = new ImageUploadJobDTO(jobId, ImageUploadJobDTO.PENDING, imageUrl, null);
+        uploadJobs.put(jobId, new UploadJob(userId, pending));
+
+        upload.whenComplete((storedUrl, error) -> {
+            ImageUploadJobDTO done;
+            if (error == null) {
+                done = new ImageUploadJobDTO(jobId, ImageUploadJobDTO.COMPLETED, storedUrl, "Image uploaded successfully");
+            } else {
+                Throwable cause = unwrap(error);
+                if (cause instanceof IllegalArgumentException) {
+                    done = new ImageUploadJobDTO(jobId, ImageUploadJobDTO.FAILED, null, cause.getMessage());
+                } else {
+                    logger.warn("Image upload job {} failed", jobId, error);
+                    done = new ImageUploadJobDTO(jobId, ImageUploadJobDTO.FAILED, null, "Failed to upload image to storage");
+                }
+            }
+            uploadJobs.put(jobId, new UploadJob(userId, done));
+        });
+        return pending;
+    }
+
+    // Reads a verified presigned upload back and stores its variants, then releases its spool file and permit
+    private CompletableFuture<String> storeVariants(UUID uploadId, PresignedUpload upload, Path downloaded) {
+        String key = upload.key();
+        return timed("download", () -> imageStorage.download(key, downloaded))
+                .thenCompose(object -> imageResizer.createVariants(downloaded)
+                        .whenComplete((variants, error) -> {
+                            if (error != null && unwrap(error) instanceof IllegalArgumentException) {
+                                imageReferenceRepository.deleteById(key);
+                                deleteUploadedObject(key);
+                            }
+                        }))
+                .thenCompose(variants -> CompletableFuture.allOf(putVariants(key, variants).toArray(CompletableFuture[]::new)))
+                .handle((done, error) -> {
+                    release(downloaded);
+                    if (error != null) {
+                        if (!(unwrap(error) instanceof IllegalArgumentException)) {
+                            presignedUploads.put(uploadId, upload);
+                        }
+                        throw uploadFailure(error);
+                    }
+                    return imageStorage.url(key);
+                });
+    }
+
+    // A recipe now shows the image, it stays in storage while any recipe does
+    // Runs in the recipe's transaction, URLs this storage did not hand out and images stored before reference
+    // counting have no row, they are never counted and never deleted
+    public void acquireImage(String imageUrl) {
+        String key = storedKey(imageUrl);
+        if (key != null) {
+            imageReferenceRepository.addReference(key);
+        }
+    }
+
+    // A recipe no longer shows the image (changed, dropped or deleted), the image leaves storage with the last
+    // recipe showing it, once the recipe change has committed
+    public void releaseImage(String imageUrl) {
+        String key = storedKey(imageUrl);
+        if (key == null || imageReferenceRepository.removeReference(key) == 0
+                || imageReferenceRepository.deleteUnreferenced(key) == 0) {
+            return;
+        }
+        afterCommit(() -> serialized(key, () -> deleteStored(key))
+                .whenComplete((done, error) -> {
+                    if (error != null) {
+                        logger.warn("Could not delete unreferenced image {}", key, unwrap(error));
+                    }
+                }));
+    }
 
-            return String.format("https://%s.s3.%s.amazonaws.com/%s", bucketName, region, key);
-            
-        } catch (S3Exception e) {
-            throw new RuntimeException("Failed to upload image to S3: " + e.getMessage(), e);
+    // Original and variants go together, unless an identical upload has stored the image again since
+    private CompletableFuture<Void> deleteStored(String key) {
+        if (imageReferenceRepository.existsById(key)) {
+            return CompletableFuture.completedFuture(null);
         }
+        List<String> keys = new ArrayList<>();
+        keys.add(key);
+        if (ImageVariant.hasVariants(key)) {
+            for (ImageVariant variant : ImageVariant.values()) {
+                keys.add(variant.keyFor(key));
+            }
+        }
+        return timed("delete", () -> imageStorage.delete(keys));
     }
 
-    public void deleteImage(String imageUrl) {
+    // Key of an image this storage holds, null for no image or someone else's URL
+    private String storedKey(String imageUrl) {
+        if (imageUrl == null || imageUrl.isBlank()) {
+            return null;
+        }
         try {
-            String key = extractKeyFromUrl(imageUrl);
-            
-            DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(key)
-                    .build();
+            return imageStorage.keyOf(imageUrl);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Runs the action once the surrounding transaction commits, or immediately when there is none
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // Runs the operation once every operation queued before it on the same key has finished, successfully or not
+    private <T> CompletableFuture<T> serialized(String key, Supplier<CompletableFuture<T>> operation) {
+        CompletableFuture<Void> turn = new CompletableFuture<>();
+        CompletableFuture<T> result = turn.thenCompose(ignored -> operation.get());
+        CompletableFuture<?> finished = result.handle((value, error) -> null);
+
+        CompletableFuture<?> previous = keyQueues.put(key, finished);
+        finished.whenComplete((value, error) -> keyQueues.remove(key, finished));
+        if (previous == null) {
+            turn.complete(null);
+        } else {
+            previous.whenComplete((value, error) -> turn.complete(null));
+        }
+        return result;
+    }
+
+    // Storage round trips as image.storage, tagged with the operation and whether it failed
+    // The timer covers the whole transfer, stopped when the returned future completes
+    private <T> CompletableFuture<T> timed(String operation, Supplier<CompletableFuture<T>> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return call.get().whenComplete((result, error) -> sample.stop(Timer.builder("image.storage")
+                .description("Image storage (S3 or local disk) operations")
+                .tag("operation", operation)
+                .tag("outcome", error == null ? "success" : "error")
+                .register(meterRegistry)));
+    }
+
+    private List<CompletableFuture<?>> putVariants(String key, Map<ImageVariant, byte[]> variants) {
+        List<CompletableFuture<?>> puts = new ArrayList<>();
+        variants.forEach((variant, bytes) -> puts.add(timed("put", () -> imageStorage.put(variant.keyFor(key), bytes, "image/jpeg"))));
+        return puts;
+    }
+
+    // Rejected direct uploads are removed right away rather than left unreferenced in the bucket
+    private void deleteUploadedObject(String key) {
+        timed("delete", () -> imageStorage.delete(List.of(key)))
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        logger.warn("Could not delete rejected upload {}", key, error);
+                    }
+                });
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
 
-            s3Client.deleteObject(deleteObjectRequest);
-            
-        } catch (S3Exception e) {
-            throw new RuntimeException("Failed to delete image from S3: " + e.getMessage(), e);
+    // Bad images and back-pressure keep their type so callers can answer 400 and 503, the rest is a storage failure
+    private static CompletionException uploadFailure(Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof IllegalArgumentException || cause instanceof RejectedExecutionException) {
+            return new CompletionException(cause);
+        }
+        return new CompletionException("Failed to store image: " + cause.getMessage(), cause);
+    }
+
+    private void release(Path spooled) {
+        uploadPermits.release();
+        if (spooled != null) {
+            try {
+                Files.deleteIfExists(spooled);
+            } catch (IOException e) {
+                logger.warn("Could not delete spooled upload {}", spooled, e);
+            }
         }
     }
 
     private void validateFile(MultipartFile file) {
-        if (file.isEmpty()) {
+        validateImage(file.getContentType(), file.getSize());
+    }
+
+    // Same rules for multipart uploads and for what a presigned URL is signed for
+    private void validateImage(String contentType, long size) {
+        if (size <= 0) {
             throw new IllegalArgumentException("File cannot be empty");
         }
         
-        if (file.getSize() > MAX_FILE_SIZE) {
+        if (size > MAX_FILE_SIZE) {
             throw new IllegalArgumentException("File size exceeds maximum limit of 5MB");
         }
         
-        String contentType = file.getContentType();
         if (contentType == null || !ALLOWED_CONTENT_TYPES.contains(contentType.toLowerCase())) {
             throw new IllegalArgumentException("Only JPG, PNG, and GIF images are allowed");
         }
     }
 
-    private String generateFileName(String originalFilename) {
-        String extension = "";
-        if (originalFilename != null && originalFilename.contains(".")) {
-            extension = originalFilename.substring(originalFilename.lastIndexOf("."));
+    // Copies the upload to the spool file and returns the SHA-256 of its bytes, hashed as they stream past
+    private static byte[] spool(MultipartFile file, Path target) throws IOException {
+        MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        try (InputStream in = new DigestInputStream(file.getInputStream(), sha256)) {
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
         }
-        return UUID.randomUUID().toString() + "-" + System.currentTimeMillis() + extension;
+        return sha256.digest();
     }
 
-    private String extractKeyFromUrl(String imageUrl) {
-        try {
-            // Extract key from URL format: https://bucket.s3.region.amazonaws.com/key
-            String baseUrl = String.format("https://%s.s3.%s.amazonaws.com/", bucketName, region);
-            if (imageUrl.startsWith(baseUrl)) {
-                return imageUrl.substring(baseUrl.length());
-            }
-            throw new IllegalArgumentException("Invalid image URL format");
-        } catch (Exception e) {
-            throw new IllegalArgumentException("Failed to extract key from image URL", e);
+    // <sha-256>/original.<ext>: the same bytes get the same key whatever the file was called
+    private static String contentFileName(byte[] sha256, String contentType) {
+        String subtype = contentType.substring(contentType.indexOf('/') + 1).toLowerCase(Locale.ROOT);
+        // image/jpg and image/jpeg are the same file
+        String extension = subtype.equals("jpeg") ? "jpg" : subtype;
+        return HexFormat.of().formatHex(sha256) + "/" + ImageVariant.ORIGINAL_NAME + "." + extension;
+    }
+
+    // <unique name>/original.<ext> for presigned uploads, whose bytes are not known when the key is handed out
+    // The variants are stored beside it in the same folder
+    private String generateFileName(String originalFilename, String contentType) {
+        String extension;
+        // Client-supplied names only contribute a plain extension, never path characters
+        if (originalFilename != null && originalFilename.matches(".*\\.[A-Za-z0-9]{1,5}")) {
+            extension = originalFilename.substring(originalFilename.lastIndexOf("."));
+        } else {
+            extension = "." + contentType.substring(contentType.indexOf('/') + 1).toLowerCase(Locale.ROOT);
         }
+        return UUID.randomUUID().toString() + "-" + System.currentTimeMillis() + "/"
+                + ImageVariant.ORIGINAL_NAME + extension;
+    }
+
+    private record UploadJob(UUID ownerId, ImageUploadJobDTO state) {
+    }
+
+    private record PresignedUpload(UUID ownerId, String key, String contentType, long contentLength) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,8 @@
+package com.recipevault.backend.services;
+
+import java.time.Instant;
+import java.util.Map;
+
+// Signed upload URL, the PUT must carry the headers as given
+public record PresignedPut(String url, Map<String, String> headers, Instant expiresAt) {
+}
@@ -0,0 +1,14 @@
+package com.recipevault.backend.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/*
+ * Full catalogue export for analytics
+ * Recipes are read in batches and written as they are read, so memory use does not grow with the catalogue
+ */
+
+public interface RecipeExportService {
+    // One JSON object per line (RecipeExportDTO), ordered by recipe id
+    long exportNdjson(OutputStream out) throws IOException;
+}
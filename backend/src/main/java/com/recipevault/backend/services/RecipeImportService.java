@@ -0,0 +1,20 @@
+package com.recipevault.backend.services;
+
+import com.recipevault.backend.dto.recipes.RecipeImportResultDTO;
+import com.recipevault.backend.entities.UserEntity;
+
+import java.io.InputStream;
+
+/*
+ * Bulk recipe ingestion for partner catalogues
+ * Input is streamed and persisted in batches, invalid rows are reported and skipped rather than failing the import
+ */
+
+public interface RecipeImportService {
+    // JSON array of RecipeCreateDTO objects, or newline-delimited JSON with one object per line
+    RecipeImportResultDTO importJson(InputStream body, UserEntity user);
+
+    // Header row required: title, difficulty, instructions, plus optional imageUrl, creatorName and
+    // ingredients (names separated by |)
+    RecipeImportResultDTO importCsv(InputStream body, UserEntity user);
+}
@@ -1,12 +1,19 @@
 package com.recipevault.backend.services;
 
+import com.recipevault.backend.dto.SliceResponseDTO;
 import com.recipevault.backend.dto.recipes.RecipeCreateDTO;
 import com.recipevault.backend.dto.recipes.RecipeDetailDTO;
+import com.recipevault.backend.dto.recipes.RecipeFeedDTO;
+import com.recipevault.backend.dto.recipes.RecipeFilterDTO;
+import com.recipevault.backend.dto.recipes.RecipeMatchDTO;
 import com.recipevault.backend.dto.recipes.RecipeSummaryDTO;
 import com.recipevault.backend.dto.recipes.RecipeUpdateDTO;
 import com.recipevault.backend.entities.UserEntity;
+import com.recipevault.backend.repositories.RecipeListVersion;
+import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.UUID;
 
 /*
  * Service layer contains business logic and orchestrates operations between repositories and controllers
@@ -16,12 +23,21 @@ import java.util.List;
  */
 
 public interface RecipeService {
+    // Page size of the my-recipes listing, shared by the controller default and the cached first page
+    int USER_RECIPES_PAGE_SIZE = 20;
+
     List<RecipeSummaryDTO> getAllRecipes();
+    RecipeFeedDTO getRecipeFeed(String cursor, int size);
+    SliceResponseDTO<RecipeSummaryDTO> browseRecipes(RecipeFilterDTO filter, Pageable pageable);
+    List<RecipeSummaryDTO> searchRecipes(String query, int limit);
+    List<RecipeMatchDTO> findRecipesByIngredients(List<String> ingredientNames, int limit);
     RecipeDetailDTO getRecipeById(Long id);
+    RecipeListVersion getRecipeListVersion();
     RecipeDetailDTO createRecipe(RecipeCreateDTO recipeCreateDTO, UserEntity user);
-    RecipeDetailDTO updateRecipe(Long id, RecipeUpdateDTO recipeUpdateDTO, UserEntity user);
-    void deleteRecipe(Long id, UserEntity user);
+    // expectedVersion comes from If-Match, null means the write is unconditional
+    RecipeDetailDTO updateRecipe(Long id, RecipeUpdateDTO recipeUpdateDTO, UserEntity user, Long expectedVersion);
+    void deleteRecipe(Long id, UserEntity user, Long expectedVersion);
 
-    List<RecipeSummaryDTO> getUserRecipes(UserEntity user);
+    SliceResponseDTO<RecipeSummaryDTO> getUserRecipes(UUID userId, Pageable pageable);
     boolean isRecipeOwner(Long recipeId, UserEntity user);
 }
@@ -0,0 +1,5 @@
+package com.recipevault.backend.services;
+
+// What an ImageStorage reports about a stored image
+public record StoredImage(long contentLength, String contentType) {
+}
@@ -0,0 +1,171 @@
+package com.recipevault.backend.services.impl;
+
+import com.recipevault.backend.services.ImageStorage;
+import com.recipevault.backend.services.PresignedPut;
+import com.recipevault.backend.services.StoredImage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/*
+ * Images as files under app.images.local.dir for installs without S3, served by ImageFileController
+ * Writes happen on the caller's thread, which is the resize pool for uploads, and are atomic renames
+ * so a file is never served half written
+ */
+
+@Service
+@ConditionalOnProperty(name = "app.images.storage", havingValue = "local")
+public class LocalImageStorage implements ImageStorage {
+
+    private final Path root;
+    private final String baseUrl;
+
+    public LocalImageStorage(@Value("${app.images.local.dir}") Path root,
+                             @Value("${app.images.local.base-url}") String baseUrl) throws IOException {
+        this.root = Files.createDirectories(root).toRealPath();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+    }
+
+    @Override
+    public CompletableFuture<Void> put(String key, Path file, String contentType) {
+        return write(key, target -> Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING));
+    }
+
+    @Override
+    public CompletableFuture<Void> put(String key, byte[] bytes, String contentType) {
+        return write(key, target -> Files.write(target, bytes));
+    }
+
+    @Override
+    public CompletableFuture<Optional<StoredImage>> head(String key) {
+        return CompletableFuture.completedFuture(file(key).map(path -> {
+            try {
+                return new StoredImage(Files.size(path), contentType(path));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+    }
+
+    @Override
+    public CompletableFuture<Void> download(String key, Path target) {
+        try {
+            Files.copy(resolve(key), target, StandardCopyOption.REPLACE_EXISTING);
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(List<String> keys) {
+        try {
+            for (String key : keys) {
+                Path path = resolve(key);
+                Files.deleteIfExists(path);
+                deleteEmptyFolder(path.getParent());
+            }
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public String url(String key) {
+        return baseUrl + key;
+    }
+
+    @Override
+    public String keyOf(String imageUrl) {
+        if (imageUrl == null || !imageUrl.startsWith(baseUrl)) {
+            throw new IllegalArgumentException("Invalid image URL format");
+        }
+        String key = imageUrl.substring(baseUrl.length());
+        resolve(key);
+        return key;
+    }
+
+    @Override
+    public PresignedPut presignPut(String key, String contentType, long contentLength, Duration ttl) {
+        throw new UnsupportedOperationException("Direct uploads need S3 image storage, use /api/images/upload");
+    }
+
+    // Regular file stored under the key, if any
+    public Optional<Path> file(String key) {
+        Path path = resolve(key);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    public String contentType(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".png")) {
+            return "image/png";
+        }
+        if (name.endsWith(".gif")) {
+            return "image/gif";
+        }
+        if (name.endsWith(".jpg") || name.endsWith(".jpeg")) {
+            return "image/jpeg";
+        }
+        return "application/octet-stream";
+    }
+
+    // Keys come from URLs, never let one point outside the image directory
+    private Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (key.isEmpty() || !path.startsWith(root) || path.equals(root)) {
+            throw new IllegalArgumentException("Invalid image key");
+        }
+        return path;
+    }
+
+    private CompletableFuture<Void> write(String key, FileWriter writer) {
+        Path target = resolve(key);
+        Path partial = null;
+        try {
+            Files.createDirectories(target.getParent());
+            partial = Files.createTempFile(target.getParent(), ".upload-", null);
+            writer.write(partial);
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException e) {
+            try {
+                if (partial != null) {
+                    Files.deleteIfExists(partial);
+                }
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void deleteEmptyFolder(Path folder) throws IOException {
+        if (folder.equals(root)) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(folder);
+        } catch (DirectoryNotEmptyException e) {
+            // Other variants are still there
+        }
+    }
+
+    @FunctionalInterface
+    private interface FileWriter {
+        void write(Path target) throws IOException;
+    }
+}
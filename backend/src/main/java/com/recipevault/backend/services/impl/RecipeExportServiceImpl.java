@@ -0,0 +1,89 @@
+package com.recipevault.backend.services.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.recipevault.backend.dto.recipes.RecipeExportDTO;
+import com.recipevault.backend.entities.RecipeEntity;
+import com.recipevault.backend.mapper.RecipeMapper;
+import com.recipevault.backend.repositories.RecipeIngredientName;
+import com.recipevault.backend.repositories.RecipeRepository;
+import com.recipevault.backend.services.RecipeExportService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+public class RecipeExportServiceImpl implements RecipeExportService {
+    private static final Logger logger = LoggerFactory.getLogger(RecipeExportServiceImpl.class);
+
+    // Recipes read, written and dropped together, with one ingredient lookup each
+    static final int BATCH_SIZE = 500;
+
+    private final RecipeRepository recipeRepository;
+    private final RecipeMapper recipeMapper;
+    private final ObjectWriter exportWriter;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public RecipeExportServiceImpl(RecipeRepository recipeRepository, RecipeMapper recipeMapper,
+                                   ObjectMapper objectMapper) {
+        this.recipeRepository = recipeRepository;
+        this.recipeMapper = recipeMapper;
+        this.exportWriter = objectMapper.writerFor(RecipeExportDTO.class);
+    }
+
+    // Reads the catalogue in primary key ordered batches rather than through one open cursor, so the connection
+    // needs no driver-level streaming setting and stays free for the per-batch ingredient lookup
+    @Override
+    @Transactional(readOnly = true)
+    public long exportNdjson(OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        long exported = 0;
+        long lastId = 0;
+        List<RecipeEntity> recipes;
+        do {
+            recipes = recipeRepository.findExportBatchAfter(lastId, PageRequest.of(0, BATCH_SIZE));
+            if (recipes.isEmpty()) {
+                break;
+            }
+            lastId = recipes.get(recipes.size() - 1).getId();
+            exported += writeBatch(recipes.stream().map(recipeMapper::toExportDTO).toList(), out);
+        } while (recipes.size() == BATCH_SIZE);
+        out.flush();
+
+        logger.info("Exported {} recipes in {} ms", exported, System.currentTimeMillis() - start);
+        return exported;
+    }
+
+    // Fills in ingredient names with one query for the batch, writes it, then drops the batch's entities
+    private int writeBatch(List<RecipeExportDTO> batch, OutputStream out) throws IOException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Map<Long, List<String>> ingredientNames = recipeRepository.findIngredientNamesByRecipeIds(
+                        batch.stream().map(RecipeExportDTO::getId).toList()).stream()
+                .collect(Collectors.groupingBy(RecipeIngredientName::recipeId,
+                        Collectors.mapping(RecipeIngredientName::ingredientName, Collectors.toList())));
+
+        for (RecipeExportDTO recipe : batch) {
+            recipe.setIngredientNames(ingredientNames.getOrDefault(recipe.getId(), List.of()));
+            out.write(exportWriter.writeValueAsBytes(recipe));
+            out.write('\n');
+        }
+        entityManager.clear();
+        return batch.size();
+    }
+}
@@ -0,0 +1,323 @@
+package com.recipevault.backend.services.impl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.recipevault.backend.config.CacheConfig;
+import com.recipevault.backend.dto.recipes.RecipeCreateDTO;
+import com.recipevault.backend.dto.recipes.RecipeImportErrorDTO;
+import com.recipevault.backend.dto.recipes.RecipeImportResultDTO;
+import com.recipevault.backend.entities.RecipeEntity;
+import com.recipevault.backend.entities.UserEntity;
+import com.recipevault.backend.mapper.RecipeMapper;
+import com.recipevault.backend.search.IngredientMatchIndex;
+import com.recipevault.backend.search.RecipeSearchIndex;
+import com.recipevault.backend.services.ImageUploadService;
+import com.recipevault.backend.services.RecipeImportService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+public class RecipeImportServiceImpl implements RecipeImportService {
+    private static final Logger logger = LoggerFactory.getLogger(RecipeImportServiceImpl.class);
+
+    // Recipes per transaction, the persistence context is flushed and cleared after each one
+    static final int BATCH_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final List<String> REQUIRED_CSV_COLUMNS = List.of("title", "difficulty", "instructions");
+
+    private final RecipeMapper recipeMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final RecipeSearchIndex recipeSearchIndex;
+    private final IngredientMatchIndex ingredientMatchIndex;
+    private final ImageUploadService imageUploadService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public RecipeImportServiceImpl(RecipeMapper recipeMapper, TransactionTemplate transactionTemplate,
+                                   Validator validator, ObjectMapper objectMapper,
+                                   RecipeSearchIndex recipeSearchIndex, IngredientMatchIndex ingredientMatchIndex,
+                                   ImageUploadService imageUploadService) {
+        this.recipeMapper = recipeMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.recipeSearchIndex = recipeSearchIndex;
+        this.ingredientMatchIndex = ingredientMatchIndex;
+        this.imageUploadService = imageUploadService;
+    }
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.RECIPE_SUMMARIES, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.USER_RECIPES, key = "#user.id")
+    })
+    public RecipeImportResultDTO importJson(InputStream body, UserEntity user) {
+        return importRows(() -> new JsonRowSource(objectMapper, body), user);
+    }
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.RECIPE_SUMMARIES, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.USER_RECIPES, key = "#user.id")
+    })
+    public RecipeImportResultDTO importCsv(InputStream body, UserEntity user) {
+        return importRows(() -> new CsvRowSource(body), user);
+    }
+
+    private RecipeImportResultDTO importRows(RowSourceFactory sourceFactory, UserEntity user) {
+        RecipeImportResultDTO result = new RecipeImportResultDTO();
+        UUID userId = user.getId();
+        String creatorName = ((user.getFirstName() != null ? user.getFirstName() : "") + " " +
+                (user.getLastName() != null ? user.getLastName() : "")).trim();
+
+        List<ImportRow> batch = new ArrayList<>(BATCH_SIZE);
+        long rowNumber = 0;
+        try {
+            RowSource source = sourceFactory.open();
+            while (true) {
+                RecipeCreateDTO recipe;
+                try {
+                    recipe = source.next();
+                } catch (RowFormatException e) {
+                    addError(result, ++rowNumber, e.getMessage());
+                    continue;
+                }
+                if (recipe == null) {
+                    break;
+                }
+                rowNumber++;
+
+                String violations = validate(recipe);
+                if (violations != null) {
+                    addError(result, rowNumber, violations);
+                    continue;
+                }
+                batch.add(new ImportRow(rowNumber, recipe));
+                if (batch.size() == BATCH_SIZE) {
+                    persistBatch(batch, userId, creatorName, result);
+                }
+            }
+        } catch (IOException e) {
+            // Malformed input cannot be resynchronized, keep what was read so far and report where it stopped
+            addError(result, rowNumber + 1, "Import stopped, unreadable input: " + e.getMessage());
+        }
+        persistBatch(batch, userId, creatorName, result);
+
+        logger.info("Recipe import by user {}: {} imported, {} failed", userId, result.getImported(), result.getFailed());
+        return result;
+    }
+
+    private void persistBatch(List<ImportRow> batch, UUID userId, String creatorName, RecipeImportResultDTO result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> persistRows(batch, userId, creatorName));
+            result.setImported(result.getImported() + batch.size());
+        } catch (PersistenceException | DataAccessException | TransactionException batchFailure) {
+            // One bad row rolls back the whole batch, retry row by row so only that row is reported
+            for (ImportRow row : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> persistRows(List.of(row), userId, creatorName));
+                    result.setImported(result.getImported() + 1);
+                } catch (PersistenceException | DataAccessException | TransactionException rowFailure) {
+                    addError(result, row.number(), NestedExceptionUtils.getMostSpecificCause(rowFailure).getMessage());
+                }
+            }
+        }
+        batch.clear();
+    }
+
+    private void persistRows(List<ImportRow> rows, UUID userId, String creatorName) {
+        // Imported recipes are not put into the second-level cache, they are loaded into it once someone reads them
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+        UserEntity owner = entityManager.getReference(UserEntity.class, userId);
+        List<RecipeEntity> recipes = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            RecipeEntity recipe = recipeMapper.toEntity(row.recipe());
+            recipe.setUser(owner);
+            // Partner catalogues may credit their own authors, otherwise the importing user is the creator
+            if (recipe.getCreatorName() == null || recipe.getCreatorName().isBlank()) {
+                recipe.setCreatorName(creatorName);
+            }
+            entityManager.persist(recipe);
+            // Catalogue images hosted elsewhere are not counted, ones uploaded here are
+            imageUploadService.acquireImage(recipe.getImageUrl());
+            recipes.add(recipe);
+        }
+        // Both indexes snapshot the recipes now and apply them after commit
+        recipeSearchIndex.indexAll(recipes);
+        ingredientMatchIndex.indexAll(recipes);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    // Same constraints as POST /api/recipes, null when the recipe is valid
+    private String validate(RecipeCreateDTO recipe) {
+        Set<ConstraintViolation<RecipeCreateDTO>> violations = validator.validate(recipe);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void addError(RecipeImportResultDTO result, long rowNumber, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new RecipeImportErrorDTO(rowNumber, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    private record ImportRow(long number, RecipeCreateDTO recipe) {
+    }
+
+    // Pulls one recipe at a time from the request body, null once the input is exhausted
+    private interface RowSource {
+        RecipeCreateDTO next() throws IOException;
+    }
+
+    private interface RowSourceFactory {
+        RowSource open() throws IOException;
+    }
+
+    // The row could not be turned into a recipe but the rest of the input is still readable
+    private static class RowFormatException extends RuntimeException {
+        RowFormatException(String message) {
+            super(message);
+        }
+    }
+
+    // Each element is read into a small tree first, so a bad element is skipped without losing the parser position
+    private static class JsonRowSource implements RowSource {
+        private final ObjectMapper objectMapper;
+        private final JsonParser parser;
+        private final boolean array;
+        private boolean started;
+
+        JsonRowSource(ObjectMapper objectMapper, InputStream body) throws IOException {
+            this.objectMapper = objectMapper;
+            this.parser = objectMapper.getFactory().createParser(body);
+            JsonToken first = parser.nextToken();
+            if (first != null && first != JsonToken.START_ARRAY && first != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON array or newline-delimited JSON objects");
+            }
+            this.array = first == JsonToken.START_ARRAY;
+        }
+
+        @Override
+        public RecipeCreateDTO next() throws IOException {
+            JsonToken token = array || started ? parser.nextToken() : parser.currentToken();
+            started = true;
+            if (token == null || token == JsonToken.END_ARRAY) {
+                return null;
+            }
+            JsonNode node = parser.readValueAsTree();
+            try {
+                return objectMapper.treeToValue(node, RecipeCreateDTO.class);
+            } catch (JsonProcessingException e) {
+                throw new RowFormatException(e.getOriginalMessage());
+            }
+        }
+    }
+
+    private static class CsvRowSource implements RowSource {
+        private final CsvRecordReader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+
+        CsvRowSource(InputStream body) throws IOException {
+            this.reader = new CsvRecordReader(new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)));
+            List<String> header = reader.readRecord();
+            if (header != null) {
+                for (int i = 0; i < header.size(); i++) {
+                    columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+                }
+            }
+            for (String required : REQUIRED_CSV_COLUMNS) {
+                if (!columns.containsKey(required)) {
+                    throw new IOException("CSV header must include " + String.join(", ", REQUIRED_CSV_COLUMNS));
+                }
+            }
+        }
+
+        @Override
+        public RecipeCreateDTO next() throws IOException {
+            List<String> fields = reader.readRecord();
+            // Blank lines are not rows
+            while (fields != null && fields.size() == 1 && fields.get(0).isBlank()) {
+                fields = reader.readRecord();
+            }
+            if (fields == null) {
+                return null;
+            }
+            if (fields.size() > columns.size()) {
+                throw new RowFormatException("Expected at most " + columns.size() + " fields but found " + fields.size());
+            }
+
+            RecipeCreateDTO recipe = new RecipeCreateDTO();
+            recipe.setTitle(field(fields, "title"));
+            recipe.setDifficulty(field(fields, "difficulty"));
+            recipe.setInstructions(field(fields, "instructions"));
+            recipe.setImageUrl(field(fields, "imageurl"));
+            recipe.setCreatorName(field(fields, "creatorname"));
+            String ingredients = field(fields, "ingredients");
+            if (ingredients != null) {
+                recipe.setIngredientNames(Arrays.stream(ingredients.split("\\|"))
+                        .map(String::trim)
+                        .filter(name -> !name.isEmpty())
+                        .toList());
+            }
+            return recipe;
+        }
+
+        // Empty cells and columns missing from the header are null
+        private String field(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+                return null;
+            }
+            return fields.get(index);
+        }
+    }
+}
@@ -1,36 +1,90 @@
 package com.recipevault.backend.services.impl;
 
+import com.recipevault.backend.config.CacheConfig;
+import com.recipevault.backend.dto.SliceResponseDTO;
 import com.recipevault.backend.dto.recipes.RecipeCreateDTO;
 import com.recipevault.backend.dto.recipes.RecipeDetailDTO;
+import com.recipevault.backend.dto.recipes.RecipeFeedDTO;
+import com.recipevault.backend.dto.recipes.RecipeFilterDTO;
+import com.recipevault.backend.dto.recipes.RecipeMatchDTO;
 import com.recipevault.backend.dto.recipes.RecipeSummaryDTO;
 import com.recipevault.backend.dto.recipes.RecipeUpdateDTO;
 import com.recipevault.backend.entities.RecipeEntity;
 import com.recipevault.backend.entities.UserEntity;
 import com.recipevault.backend.enums.Difficulty;
+import com.recipevault.backend.exceptions.InvalidRequestException;
+import com.recipevault.backend.exceptions.PreconditionFailedException;
 import com.recipevault.backend.exceptions.ResourceNotFoundException;
 import com.recipevault.backend.exceptions.UnauthorizedAccessException;
 import com.recipevault.backend.mapper.RecipeMapper;
+import com.recipevault.backend.repositories.RecipeImage;
+import com.recipevault.backend.repositories.RecipeListVersion;
 import com.recipevault.backend.repositories.RecipeRepository;
+import com.recipevault.backend.repositories.RecipeSpecifications;
+import com.recipevault.backend.repositories.RecipeSummaryView;
+import com.recipevault.backend.search.IngredientMatchIndex;
+import com.recipevault.backend.search.RecipeSearchIndex;
+import com.recipevault.backend.services.ImageUploadService;
 import com.recipevault.backend.services.RecipeService;
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+// Every public method is timed as recipe.service, tagged with its method name and any exception thrown
 @Service
+@Timed("recipe.service")
 public class RecipeServiceImpl implements RecipeService {
+    private static final int MAX_FEED_SIZE = 100;
+    private static final int MAX_SEARCH_RESULTS = 100;
+    private static final int MAX_BROWSE_SIZE = 100;
+    // created_date follows every filter column in the RecipeEntity indexes, so the default sort is served by the index
+    private static final Set<String> BROWSE_SORT_PROPERTIES = Set.of("createdDate", "title", "ingredientCount", "difficulty");
+    // The page the controller's @PageableDefault resolves to when the frontend asks for the first my-recipes page
+    public static final Pageable DEFAULT_USER_RECIPES_PAGE = PageRequest.of(0, USER_RECIPES_PAGE_SIZE, Sort.by(Sort.Direction.DESC, "createdDate"));
+
     private final RecipeRepository recipeRepository;
     private final RecipeMapper recipeMapper;
+    private final RecipeSearchIndex recipeSearchIndex;
+    private final IngredientMatchIndex ingredientMatchIndex;
+    private final ImageUploadService imageUploadService;
 
     @Autowired
-    public RecipeServiceImpl(RecipeRepository recipeRepository, RecipeMapper recipeMapper) {
+    public RecipeServiceImpl(RecipeRepository recipeRepository, RecipeMapper recipeMapper,
+                             RecipeSearchIndex recipeSearchIndex, IngredientMatchIndex ingredientMatchIndex,
+                             ImageUploadService imageUploadService) {
         this.recipeRepository = recipeRepository;
         this.recipeMapper = recipeMapper;
+        this.recipeSearchIndex = recipeSearchIndex;
+        this.ingredientMatchIndex = ingredientMatchIndex;
+        this.imageUploadService = imageUploadService;
     }
 
+    // Browse reads are read-only transactions, which run on a read replica when replicas are configured
     @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.RECIPE_SUMMARIES, key = "'all'")
     public List<RecipeSummaryDTO> getAllRecipes() {
         List<RecipeEntity> recipes = recipeRepository.findAll(
                 Sort.by(Sort.Direction.DESC, "createdDate")
@@ -39,14 +93,116 @@ public class RecipeServiceImpl implements RecipeService {
     }
 
     @Override
+    // Only the first page is cached, deeper pages are rarely requested twice
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.RECIPE_SUMMARIES, key = "'feed:' + #size",
+            condition = "#cursor == null || #cursor.isBlank()")
+    public RecipeFeedDTO getRecipeFeed(String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_FEED_SIZE);
+        // Fetch one extra row to know whether another page exists without a COUNT query
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<RecipeEntity> recipes;
+        if (cursor == null || cursor.isBlank()) {
+            recipes = recipeRepository.findAllByOrderByCreatedDateDescIdDesc(limit);
+        } else {
+            FeedCursor position = decodeCursor(cursor);
+            recipes = recipeRepository.findFeedPageAfter(position.createdDate(), position.id(), limit);
+        }
+
+        boolean hasMore = recipes.size() > pageSize;
+        if (hasMore) {
+            recipes = recipes.subList(0, pageSize);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            RecipeEntity last = recipes.get(recipes.size() - 1);
+            nextCursor = encodeCursor(last.getCreatedDate(), last.getId());
+        }
+
+        return new RecipeFeedDTO(recipeMapper.toSummaryDTOList(recipes), nextCursor, hasMore);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SliceResponseDTO<RecipeSummaryDTO> browseRecipes(RecipeFilterDTO filter, Pageable pageable) {
+        Pageable page = toBrowsePage(pageable);
+        Specification<RecipeEntity> specification = Specification.allOf(
+                RecipeSpecifications.hasDifficulty(filter.getDifficulty()),
+                RecipeSpecifications.createdBy(filter.getCreatorId()),
+                RecipeSpecifications.ingredientCountBetween(filter.getMinIngredients(), filter.getMaxIngredients()),
+                RecipeSpecifications.createdBetween(filter.getCreatedFrom(), filter.getCreatedTo()));
+
+        Slice<RecipeSummaryView> summaries = recipeRepository.findSummaries(specification, page);
+        return SliceResponseDTO.of(summaries, recipeMapper::toSummaryDTOListFromViews);
+    }
+
+    @Override
+    public List<RecipeSummaryDTO> searchRecipes(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+
+        List<Long> rankedIds = recipeSearchIndex.search(query, Math.min(Math.max(limit, 1), MAX_SEARCH_RESULTS));
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, RecipeEntity> recipesById = findRecipesById(rankedIds);
+        List<RecipeEntity> ranked = rankedIds.stream()
+                .map(recipesById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return recipeMapper.toSummaryDTOList(ranked);
+    }
+
+    @Override
+    public List<RecipeMatchDTO> findRecipesByIngredients(List<String> ingredientNames, int limit) {
+        if (ingredientNames == null || ingredientNames.isEmpty()) {
+            return List.of();
+        }
+
+        List<IngredientMatchIndex.Match> matches = ingredientMatchIndex.match(
+                ingredientNames, Math.min(Math.max(limit, 1), MAX_SEARCH_RESULTS));
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, RecipeEntity> recipesById = findRecipesById(
+                matches.stream().map(IngredientMatchIndex.Match::recipeId).toList());
+        return matches.stream()
+                .filter(match -> recipesById.containsKey(match.recipeId()))
+                .map(match -> new RecipeMatchDTO(
+                        recipeMapper.toSummaryDTO(recipesById.get(match.recipeId())),
+                        match.matchedIngredients(),
+                        match.totalIngredients(),
+                        match.coverage()))
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.RECIPE_DETAILS, key = "#id")
     public RecipeDetailDTO getRecipeById(Long id) {
-        RecipeEntity recipe = recipeRepository.findById(id)
+        RecipeEntity recipe = recipeRepository.findDetailById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Recipe not found with id: " + id));
         return recipeMapper.toDetailDTO(recipe);
     }
 
+    // Cached next to the list it describes, every write path evicts both together
+    @Override
+    @Cacheable(cacheNames = CacheConfig.RECIPE_SUMMARIES, key = "'version'")
+    public RecipeListVersion getRecipeListVersion() {
+        return recipeRepository.findListVersion();
+    }
+
     @Override
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.RECIPE_SUMMARIES, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.USER_RECIPES, key = "#user.id")
+    })
     public RecipeDetailDTO createRecipe(RecipeCreateDTO recipeCreateDTO, UserEntity user) {
         RecipeEntity recipe = recipeMapper.toEntity(recipeCreateDTO);
 
@@ -60,19 +216,29 @@ public class RecipeServiceImpl implements RecipeService {
         recipe.setCreatorName(creatorName.trim());
 
         RecipeEntity savedRecipe = recipeRepository.save(recipe);
+        imageUploadService.acquireImage(savedRecipe.getImageUrl());
+        recipeSearchIndex.index(savedRecipe);
+        ingredientMatchIndex.index(savedRecipe);
         return recipeMapper.toDetailDTO(savedRecipe);
     }
 
     @Override
     @Transactional
-    public RecipeDetailDTO updateRecipe(Long id, RecipeUpdateDTO updateDTO, UserEntity user) {
-        RecipeEntity existingRecipe = recipeRepository.findById(id)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.RECIPE_DETAILS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.RECIPE_SUMMARIES, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.USER_RECIPES, key = "#user.id")
+    })
+    public RecipeDetailDTO updateRecipe(Long id, RecipeUpdateDTO updateDTO, UserEntity user, Long expectedVersion) {
+        // The response and both indexes need the ingredients, so the detail load doubles as the ownership check
+        RecipeEntity existingRecipe = recipeRepository.findDetailById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Recipe not found with id: " + id));
 
         // Check ownership - only recipe owner can update
         if (!isRecipeOwner(existingRecipe, user)) {
             throw new UnauthorizedAccessException("You can only update your own recipes");
         }
+        checkVersion(existingRecipe, expectedVersion);
 
         // Update fields if provided in the DTO
         if (updateDTO.getTitle() != null) {
@@ -87,7 +253,10 @@ public class RecipeServiceImpl implements RecipeService {
             existingRecipe.setInstructions(updateDTO.getInstructions());
         }
 
-        if (updateDTO.getImageUrl() != null) {
+        // The recipe's reference moves to the new image, an empty URL drops it
+        if (updateDTO.getImageUrl() != null && !updateDTO.getImageUrl().equals(existingRecipe.getImageUrl())) {
+            imageUploadService.acquireImage(updateDTO.getImageUrl());
+            imageUploadService.releaseImage(existingRecipe.getImageUrl());
             existingRecipe.setImageUrl(updateDTO.getImageUrl());
         }
 
@@ -97,33 +266,56 @@ public class RecipeServiceImpl implements RecipeService {
 
         // Handle ingredient updates if provided
         if (updateDTO.getIngredientNames() != null) {
-            // Clear existing ingredients and add new ones
-            existingRecipe.getIngredients().clear();
-            recipeMapper.mapIngredients(updateDTO, existingRecipe);
+            // Only rows whose name changed are written, instead of deleting and reinserting the whole list
+            existingRecipe.syncIngredients(updateDTO.getIngredientNames());
         }
+        existingRecipe.markModified();
 
-        RecipeEntity updatedRecipe = recipeRepository.save(existingRecipe);
+        // Flushed here so a concurrent update fails as an optimistic lock conflict and the response carries the new version
+        RecipeEntity updatedRecipe = recipeRepository.saveAndFlush(existingRecipe);
+        recipeSearchIndex.index(updatedRecipe);
+        ingredientMatchIndex.index(updatedRecipe);
         return recipeMapper.toDetailDTO(updatedRecipe);
     }
 
     @Override
     @Transactional
-    public void deleteRecipe(Long id, UserEntity user) {
-        RecipeEntity recipe = recipeRepository.findById(id)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.RECIPE_DETAILS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.RECIPE_SUMMARIES, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.USER_RECIPES, key = "#user.id")
+    })
+    public void deleteRecipe(Long id, UserEntity user, Long expectedVersion) {
+        // Ownership and version are part of the DELETE statements, nothing is loaded when the delete succeeds
+        // Only this recipe's second-level cache entries are evicted, see RecipeRepositoryImpl
+        // Without If-Match the version the image was read at is deleted, so an edit in between cannot swap the image
+        RecipeImage image = recipeRepository.findImageById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Recipe not found with id: " + id));
-
-        // Check ownership - only recipe owner can delete
-        if (!isRecipeOwner(recipe, user)) {
-            throw new UnauthorizedAccessException("You can only delete your own recipes");
+        Long version = expectedVersion != null ? expectedVersion : image.version();
+        if (recipeRepository.deleteOwnedRecipe(id, user.getId(), version) == 0) {
+            // Work out why nothing matched, the exception rolls back the ingredient delete
+            RecipeEntity recipe = recipeRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Recipe not found with id: " + id));
+            if (!isRecipeOwner(recipe, user)) {
+                throw new UnauthorizedAccessException("You can only delete your own recipes");
+            }
+            checkVersion(recipe, expectedVersion);
+            throw new OptimisticLockingFailureException("Recipe " + id + " changed while it was being deleted");
         }
-
-        recipeRepository.deleteById(id);
+        imageUploadService.releaseImage(image.imageUrl());
+        recipeSearchIndex.remove(id);
+        ingredientMatchIndex.remove(id);
     }
 
+    // Only the default first page is cached, it is the one the write paths evict by user id
     @Override
-    public List<RecipeSummaryDTO> getUserRecipes(UserEntity user) {
-        List<RecipeEntity> userRecipes = recipeRepository.findByUserOrderByCreatedDateDesc(user);
-        return recipeMapper.toSummaryDTOList(userRecipes);
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.USER_RECIPES, key = "#userId",
+            condition = "#pageable.equals(T(com.recipevault.backend.services.impl.RecipeServiceImpl).DEFAULT_USER_RECIPES_PAGE)")
+    public SliceResponseDTO<RecipeSummaryDTO> getUserRecipes(UUID userId, Pageable pageable) {
+        Slice<RecipeSummaryView> summaries = recipeRepository.findSummaries(
+                RecipeSpecifications.createdBy(userId), toBrowsePage(pageable));
+        return SliceResponseDTO.of(summaries, recipeMapper::toSummaryDTOListFromViews);
     }
 
     @Override
@@ -133,6 +325,56 @@ public class RecipeServiceImpl implements RecipeService {
         return isRecipeOwner(recipe, user);
     }
 
+    // Rejects sorts outside the whitelist and caps the page size, unsorted requests get newest first
+    private Pageable toBrowsePage(Pageable pageable) {
+        for (Sort.Order order : pageable.getSort()) {
+            if (!BROWSE_SORT_PROPERTIES.contains(order.getProperty())) {
+                throw new InvalidRequestException("Cannot sort recipes by: " + order.getProperty());
+            }
+        }
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : Sort.by(Sort.Direction.DESC, "createdDate");
+        return PageRequest.of(pageable.getPageNumber(), Math.min(pageable.getPageSize(), MAX_BROWSE_SIZE), sort);
+    }
+
+    // findAllById does not keep the index ranking, callers restore it (ids deleted since indexing are dropped)
+    private Map<Long, RecipeEntity> findRecipesById(List<Long> ids) {
+        return recipeRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(RecipeEntity::getId, Function.identity()));
+    }
+
+    // Feed cursor is the (createdDate, id) of the last recipe served, base64url encoded so clients treat it as opaque
+    private record FeedCursor(LocalDateTime createdDate, Long id) {
+    }
+
+    private String encodeCursor(LocalDateTime createdDate, Long id) {
+        String raw = createdDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private FeedCursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                throw new InvalidRequestException("Invalid feed cursor");
+            }
+            return new FeedCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            // Bad base64 and NumberFormatException are both IllegalArgumentExceptions
+            throw new InvalidRequestException("Invalid feed cursor", e);
+        }
+    }
+
+    // If-Match precondition, compared with the version read in this transaction so @Version covers the rest of the write
+    private void checkVersion(RecipeEntity recipe, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(recipe.getVersion())) {
+            throw new PreconditionFailedException("Recipe " + recipe.getId() + " is at version " + recipe.getVersion() +
+                    ", not " + expectedVersion);
+        }
+    }
+
     // Private helper method to check ownership
     private boolean isRecipeOwner(RecipeEntity recipe, UserEntity user) {
         // Handle existing recipes that don't have a user assigned
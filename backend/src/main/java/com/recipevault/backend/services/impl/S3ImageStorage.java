@@ -0,0 +1,156 @@
+package com.recipevault.backend.services.impl;
+
+import com.recipevault.backend.services.ImageStorage;
+import com.recipevault.backend.services.PresignedPut;
+import com.recipevault.backend.services.StoredImage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.FileTransformerConfiguration;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// Images in an S3 bucket (or an S3-compatible server via aws.s3.endpoint), the default store
+@Service
+@ConditionalOnProperty(name = "app.images.storage", havingValue = "s3", matchIfMissing = true)
+public class S3ImageStorage implements ImageStorage {
+
+    private final S3AsyncClient s3AsyncClient;
+    private final S3Presigner s3Presigner;
+
+    @Value("${aws.s3.bucket-name}")
+    private String bucketName;
+
+    @Value("${aws.s3.region}")
+    private String region;
+
+    @Value("${aws.s3.endpoint:}")
+    private String endpoint;
+
+    public S3ImageStorage(S3AsyncClient s3AsyncClient, S3Presigner s3Presigner) {
+        this.s3AsyncClient = s3AsyncClient;
+        this.s3Presigner = s3Presigner;
+    }
+
+    @Override
+    public CompletableFuture<Void> put(String key, Path file, String contentType) {
+        return s3AsyncClient.putObject(putRequest(key, contentType), AsyncRequestBody.fromFile(file))
+                .thenApply(response -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> put(String key, byte[] bytes, String contentType) {
+        return s3AsyncClient.putObject(putRequest(key, contentType), AsyncRequestBody.fromBytes(bytes))
+                .thenApply(response -> null);
+    }
+
+    @Override
+    public CompletableFuture<Optional<StoredImage>> head(String key) {
+        return s3AsyncClient.headObject(HeadObjectRequest.builder().bucket(bucketName).key(key).build())
+                .thenApply(head -> Optional.of(new StoredImage(head.contentLength(), head.contentType())))
+                .exceptionally(error -> {
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    if (cause instanceof S3Exception s3Exception && s3Exception.statusCode() == 404) {
+                        return Optional.empty();
+                    }
+                    throw new CompletionException(cause);
+                });
+    }
+
+    @Override
+    public CompletableFuture<Void> download(String key, Path target) {
+        return s3AsyncClient.getObject(GetObjectRequest.builder().bucket(bucketName).key(key).build(),
+                        AsyncResponseTransformer.toFile(target, FileTransformerConfiguration.defaultCreateOrReplaceExisting()))
+                .thenApply(response -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(List<String> keys) {
+        if (keys.size() == 1) {
+            return s3AsyncClient.deleteObject(DeleteObjectRequest.builder().bucket(bucketName).key(keys.get(0)).build())
+                    .thenApply(response -> null);
+        }
+        // Original and variants go in one request
+        List<ObjectIdentifier> objects = keys.stream().map(key -> ObjectIdentifier.builder().key(key).build()).toList();
+        return s3AsyncClient.deleteObjects(DeleteObjectsRequest.builder()
+                        .bucket(bucketName)
+                        .delete(Delete.builder().objects(objects).quiet(true).build())
+                        .build())
+                .thenApply(response -> null);
+    }
+
+    @Override
+    public String url(String key) {
+        return baseUrl() + key;
+    }
+
+    @Override
+    public String keyOf(String imageUrl) {
+        // Extract key from URL format: https://bucket.s3.region.amazonaws.com/key (or endpoint/bucket/key)
+        String baseUrl = baseUrl();
+        if (imageUrl == null || !imageUrl.startsWith(baseUrl)) {
+            throw new IllegalArgumentException("Invalid image URL format");
+        }
+        return imageUrl.substring(baseUrl.length());
+    }
+
+    // Content type and length are signed headers, S3 refuses a PUT with anything else
+    @Override
+    public PresignedPut presignPut(String key, String contentType, long contentLength, Duration ttl) {
+        PresignedPutObjectRequest presigned = s3Presigner.presignPutObject(PutObjectPresignRequest.builder()
+                .signatureDuration(ttl)
+                .putObjectRequest(PutObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(key)
+                        .contentType(contentType)
+                        .contentLength(contentLength)
+                        .build())
+                .build());
+
+        // Headers the PUT must carry unchanged, browsers add Host (and Content-Length) themselves
+        Map<String, String> headers = new LinkedHashMap<>();
+        presigned.signedHeaders().forEach((name, values) -> {
+            if (!name.equalsIgnoreCase("host")) {
+                headers.put(name, String.join(",", values));
+            }
+        });
+        return new PresignedPut(presigned.url().toString(), headers, presigned.expiration());
+    }
+
+    private PutObjectRequest putRequest(String key, String contentType) {
+        return PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)
+                .build();
+    }
+
+    // Virtual-hosted AWS URL, or path style under the configured S3-compatible endpoint
+    private String baseUrl() {
+        if (endpoint != null && !endpoint.isBlank()) {
+            return (endpoint.endsWith("/") ? endpoint : endpoint + "/") + bucketName + "/";
+        }
+        return String.format("https://%s.s3.%s.amazonaws.com/", bucketName, region);
+    }
+}
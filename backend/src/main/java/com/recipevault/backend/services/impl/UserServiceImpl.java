@@ -11,6 +11,7 @@ import com.recipevault.backend.repositories.UserRepository;
 import com.recipevault.backend.security.JwtTokenProvider;
 import com.recipevault.backend.security.UserPrincipal;
 import com.recipevault.backend.services.UserService;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -20,7 +21,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.UUID;
 
+// Timed like RecipeServiceImpl, BCrypt's share of login and registration is in password.encoder
 @Service
+@Timed("user.service")
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
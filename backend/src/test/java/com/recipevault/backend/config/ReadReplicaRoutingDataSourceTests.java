@@ -0,0 +1,126 @@
+package com.recipevault.backend.config;
+
+import com.recipevault.backend.security.UserPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Routing over three in-memory H2 databases standing in for a primary and two replicas, each knows its own name
+ * Wired like ReadReplicaConfig: transactions run against the lazy proxy, so the router sees the read-only flag
+ */
+
+class ReadReplicaRoutingDataSourceTests {
+
+    private final List<String> names = List.of("primary", "replica-a", "replica-b");
+    private ReadReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        List<DataSource> nodes = new ArrayList<>();
+        for (String name : names) {
+            DataSource node = new DriverManagerDataSource(
+                    "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+            new JdbcTemplate(node).execute("CREATE TABLE node (name VARCHAR(20))");
+            new JdbcTemplate(node).update("INSERT INTO node VALUES (?)", name);
+            nodes.add(node);
+        }
+        route(new ReadReplicaRoutingDataSource(nodes.get(0), nodes.subList(1, 3), Duration.ofMinutes(1)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsAreSpreadOverTheReplicas() {
+        assertThat(List.of(readOnlyNode(), readOnlyNode(), readOnlyNode(), readOnlyNode()))
+                .containsExactly("replica-a", "replica-b", "replica-a", "replica-b");
+    }
+
+    @Test
+    void everythingElseRunsOnThePrimary() {
+        String inTransaction = readWrite.execute(status -> node());
+        assertThat(inTransaction).isEqualTo("primary");
+        assertThat(node()).isEqualTo("primary");
+    }
+
+    @Test
+    void userWhoJustWroteReadsTheirWritesFromThePrimary() {
+        signIn(UUID.randomUUID());
+        assertThat(readOnlyNode()).startsWith("replica");
+        // Statements without a transaction are not writes
+        node();
+        assertThat(readOnlyNode()).startsWith("replica");
+
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("UPDATE node SET name = name"));
+        assertThat(readOnlyNode()).isEqualTo("primary");
+        assertThat(readOnlyNode()).isEqualTo("primary");
+
+        // Other users still read from the replicas
+        signIn(UUID.randomUUID());
+        assertThat(readOnlyNode()).startsWith("replica");
+        SecurityContextHolder.clearContext();
+        assertThat(readOnlyNode()).startsWith("replica");
+    }
+
+    @Test
+    void stickinessEndsWithTheWindow() throws Exception {
+        route(new ReadReplicaRoutingDataSource(routingDataSource.getResolvedDefaultDataSource(),
+                routingDataSource.getResolvedDataSources().entrySet().stream()
+                        .filter(target -> target.getKey().equals("replica-0"))
+                        .map(target -> target.getValue())
+                        .toList(),
+                Duration.ofMillis(200)));
+
+        signIn(UUID.randomUUID());
+        readWrite.executeWithoutResult(status -> node());
+        assertThat(readOnlyNode()).isEqualTo("primary");
+
+        Thread.sleep(400);
+        assertThat(readOnlyNode()).isEqualTo("replica-a");
+    }
+
+    private void route(ReadReplicaRoutingDataSource router) {
+        routingDataSource = router;
+        DataSource dataSource = new LazyConnectionDataSourceProxy(router);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    private String readOnlyNode() {
+        return readOnly.execute(status -> node());
+    }
+
+    private String node() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node FETCH FIRST ROW ONLY", String.class);
+    }
+
+    private void signIn(UUID userId) {
+        UserPrincipal principal = new UserPrincipal(userId, "user", null, null, List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
@@ -0,0 +1,76 @@
+package com.recipevault.backend.dataset;
+
+import com.recipevault.backend.entities.RecipeEntity;
+import com.recipevault.backend.repositories.RecipeRepository;
+import com.recipevault.backend.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Small catalogue through the dataset profile: batches that do not divide the recipe count, distributions within
+ * their bounds, denormalized counts matching the rows, and no second catalogue on the next startup
+ * Not transactional, the generator commits batch by batch on its own connection
+ */
+
+@DataJpaTest(properties = {
+        "app.dataset.users=7",
+        "app.dataset.recipes=130",
+        "app.dataset.batch-size=50",
+        "app.dataset.ingredients.min=2",
+        "app.dataset.ingredients.max=12",
+        "app.dataset.instructions.min-length=100",
+        "app.dataset.instructions.max-length=400"
+})
+@ActiveProfiles("dataset")
+@Import({SyntheticDatasetGenerator.class, NoOpPasswordEncoder.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SyntheticDatasetGeneratorTests {
+
+    @Autowired
+    private SyntheticDatasetGenerator generator;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void generatesTheConfiguredCatalogueOnce() {
+        generator.run(new DefaultApplicationArguments());
+
+        assertThat(userRepository.count()).isEqualTo(7);
+        assertThat(userRepository.findByUsername(SyntheticDatasetGenerator.USERNAME_PREFIX + 6)).isPresent();
+        assertThat(recipeRepository.count()).isEqualTo(130);
+
+        List<RecipeEntity> recipes = recipeRepository.findAll();
+        assertThat(recipes).allSatisfy(recipe -> {
+            assertThat(recipe.getIngredientCount()).isBetween(2, 12);
+            assertThat(recipe.getInstructions().length()).isGreaterThanOrEqualTo(100);
+            assertThat(recipe.getVersion()).isZero();
+        });
+        Integer mismatched = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM recipes r WHERE r.ingredient_count <> " +
+                "(SELECT COUNT(*) FROM ingredients i WHERE i.recipe_id = r.id)", Integer.class);
+        assertThat(mismatched).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM recipes WHERE user_id IS NULL", Integer.class))
+                .isZero();
+
+        generator.run(new DefaultApplicationArguments());
+        assertThat(recipeRepository.count()).isEqualTo(130);
+    }
+}
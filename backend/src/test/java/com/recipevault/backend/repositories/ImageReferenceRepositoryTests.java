@@ -0,0 +1,59 @@
+package com.recipevault.backend.repositories;
+
+import com.recipevault.backend.entities.ImageReferenceEntity;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Reference counts behind content-addressed images: an UPDATE per change, and the row only goes with its last reference
+ */
+
+@DataJpaTest
+class ImageReferenceRepositoryTests {
+
+    private static final String KEY = "recipe-images/9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08/original.png";
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ImageReferenceRepository imageReferenceRepository;
+
+    @Test
+    void unknownImagesHaveNoReferencesToChange() {
+        assertThat(imageReferenceRepository.addReference(KEY)).isZero();
+        assertThat(imageReferenceRepository.removeReference(KEY)).isZero();
+        assertThat(imageReferenceRepository.deleteUnreferenced(KEY)).isZero();
+    }
+
+    @Test
+    void rowIsDeletedWithItsLastReference() {
+        entityManager.persistAndFlush(new ImageReferenceEntity(KEY, 1));
+        assertThat(imageReferenceRepository.addReference(KEY)).isOne();
+
+        assertThat(imageReferenceRepository.removeReference(KEY)).isOne();
+        assertThat(imageReferenceRepository.deleteUnreferenced(KEY)).isZero();
+        assertThat(referenceCount()).isOne();
+
+        assertThat(imageReferenceRepository.removeReference(KEY)).isOne();
+        assertThat(imageReferenceRepository.deleteUnreferenced(KEY)).isOne();
+        assertThat(imageReferenceRepository.existsById(KEY)).isFalse();
+    }
+
+    @Test
+    void countNeverGoesNegative() {
+        entityManager.persistAndFlush(new ImageReferenceEntity(KEY, 0));
+
+        assertThat(imageReferenceRepository.removeReference(KEY)).isZero();
+        assertThat(referenceCount()).isZero();
+    }
+
+    private int referenceCount() {
+        entityManager.clear();
+        return imageReferenceRepository.findById(KEY).orElseThrow().getReferenceCount();
+    }
+}
@@ -0,0 +1,150 @@
+package com.recipevault.backend.repositories;
+
+import com.recipevault.backend.entities.RecipeEntity;
+import com.recipevault.backend.entities.UserEntity;
+import com.recipevault.backend.enums.Difficulty;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Runs the SQL Hibernate generates for RecipeRepository.findSummaries through H2's EXPLAIN
+ * Every common filter must be answered from one of the RecipeEntity indexes rather than a table scan
+ */
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.recipevault.backend.repositories.RecipeFilterQueryPlanTests$CapturingStatementInspector")
+class RecipeFilterQueryPlanTests {
+
+    private static final Pageable NEWEST_FIRST = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdDate"));
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UserEntity chef;
+
+    // Records the last SQL statement Hibernate prepared
+    public static class CapturingStatementInspector implements StatementInspector {
+        static volatile String lastSql;
+
+        @Override
+        public String inspect(String sql) {
+            lastSql = sql;
+            return sql;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        chef = new UserEntity("chef", "chef@example.com", "password");
+        entityManager.persist(chef);
+
+        for (int i = 0; i < 6; i++) {
+            RecipeEntity recipe = new RecipeEntity();
+            recipe.setTitle("Recipe " + i);
+            recipe.setDifficulty(i % 2 == 0 ? Difficulty.EASY : Difficulty.HARD);
+            recipe.setCreatedDate(LocalDateTime.now().minusDays(i));
+            recipe.setIngredientCount(i);
+            recipe.setUser(i < 3 ? chef : null);
+            entityManager.persist(recipe);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void difficultyFilterUsesDifficultyIndex() {
+        Slice<RecipeSummaryView> easy = recipeRepository.findSummaries(
+                RecipeSpecifications.hasDifficulty(Difficulty.EASY), NEWEST_FIRST);
+
+        assertThat(easy.getContent()).extracting(RecipeSummaryView::title)
+                .containsExactly("Recipe 0", "Recipe 2", "Recipe 4");
+        assertThat(explainLastQuery(Difficulty.EASY.name()))
+                .contains("IDX_RECIPES_DIFFICULTY_CREATED_DATE")
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    void creatorFilterUsesUserIndex() {
+        Slice<RecipeSummaryView> chefRecipes = recipeRepository.findSummaries(
+                RecipeSpecifications.createdBy(chef.getId()), NEWEST_FIRST);
+
+        assertThat(chefRecipes.getContent()).hasSize(3)
+                .allSatisfy(view -> assertThat(view.userId()).isEqualTo(chef.getId()));
+        // H2 may pick the foreign key index here, either way the lookup is on user_id
+        assertThat(explainLastQuery(chef.getId()))
+                .containsPattern("/\\* PUBLIC\\.\\w+: USER_ID = \\?1 \\*/")
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    void ingredientCountRangeUsesIngredientCountIndex() {
+        Slice<RecipeSummaryView> midSized = recipeRepository.findSummaries(
+                RecipeSpecifications.ingredientCountBetween(2, 4), NEWEST_FIRST);
+
+        assertThat(midSized.getContent()).extracting(RecipeSummaryView::ingredientCount)
+                .containsExactly(2, 3, 4);
+        assertThat(explainLastQuery(2, 4))
+                .contains("IDX_RECIPES_INGREDIENT_COUNT_CREATED_DATE")
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    void createdDateRangeIsServedInIndexOrder() {
+        LocalDateTime from = LocalDateTime.now().minusDays(2).minusHours(1);
+        Slice<RecipeSummaryView> recent = recipeRepository.findSummaries(
+                RecipeSpecifications.createdBetween(from, null), NEWEST_FIRST);
+
+        assertThat(recent.getContent()).hasSize(3);
+        assertThat(explainLastQuery(from))
+                .contains("IDX_RECIPES_CREATED_DATE_ID")
+                .contains("index sorted")
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    void unfilteredListingIsServedInIndexOrder() {
+        Slice<RecipeSummaryView> firstPage = recipeRepository.findSummaries(
+                Specification.allOf(), PageRequest.of(0, 4, NEWEST_FIRST.getSort()));
+
+        assertThat(firstPage.getContent()).hasSize(4);
+        assertThat(firstPage.hasNext()).isTrue();
+        assertThat(explainLastQuery())
+                .contains("IDX_RECIPES_CREATED_DATE_ID")
+                .contains("index sorted")
+                .doesNotContain("tableScan");
+    }
+
+    // Binds the filter values in order, any remaining parameters are paging limits
+    private String explainLastQuery(Object... filterValues) {
+        String sql = CapturingStatementInspector.lastSql;
+        int parameterCount = (int) sql.chars().filter(c -> c == '?').count();
+        List<Object> parameters = new ArrayList<>(List.of(filterValues));
+        while (parameters.size() < parameterCount) {
+            parameters.add(21);
+        }
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters.toArray());
+    }
+}
@@ -0,0 +1,170 @@
+package com.recipevault.backend.repositories;
+
+import com.recipevault.backend.entities.IngredientEntity;
+import com.recipevault.backend.entities.RecipeEntity;
+import com.recipevault.backend.enums.Difficulty;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Ingredient writes must be batched on create and limited to the changed rows on update
+ * Ids come from pooled sequences, which is what lets Hibernate batch the inserts
+ */
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class RecipeIngredientWriteTests {
+
+    private static final int INGREDIENTS = 40;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void createBatchesIngredientInserts() {
+        RecipeEntity recipe = newRecipe(ingredientNames());
+        entityManager.persist(recipe);
+        entityManager.flush();
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(INGREDIENTS + 1);
+        // One call per id sequence, the recipe insert and a single reused ingredient insert (one per row without batching)
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void syncOnlyUpdatesChangedIngredient() {
+        Long recipeId = persistRecipe(ingredientNames());
+        RecipeEntity recipe = recipeRepository.findDetailById(recipeId).orElseThrow();
+        statistics.clear();
+
+        List<String> edited = ingredientNames();
+        edited.set(5, "Smoked paprika");
+        recipe.syncIngredients(edited);
+        entityManager.flush();
+
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(1);
+        assertThat(statistics.getEntityInsertCount()).isZero();
+        assertThat(statistics.getEntityDeleteCount()).isZero();
+    }
+
+    @Test
+    void syncInsertsAndDeletesOnlyTheDifference() {
+        Long recipeId = persistRecipe(ingredientNames());
+        RecipeEntity recipe = recipeRepository.findDetailById(recipeId).orElseThrow();
+        statistics.clear();
+
+        List<String> shorter = ingredientNames().subList(0, INGREDIENTS - 2);
+        recipe.syncIngredients(shorter);
+        entityManager.flush();
+
+        assertThat(statistics.getEntityDeleteCount()).isEqualTo(2);
+        assertThat(statistics.getEntityInsertCount()).isZero();
+
+        List<String> longer = new ArrayList<>(shorter);
+        longer.add("Lime zest");
+        recipe.syncIngredients(longer);
+        entityManager.flush();
+        entityManager.clear();
+
+        RecipeEntity reloaded = recipeRepository.findDetailById(recipeId).orElseThrow();
+        assertThat(reloaded.getIngredients()).extracting(IngredientEntity::getIngredientName)
+                .containsExactlyElementsOf(longer);
+        assertThat(reloaded.getIngredientCount()).isEqualTo(longer.size());
+    }
+
+    // The rows after the removed one keep their names, only the removed row is deleted
+    @Test
+    void syncDeletesAMiddleRemovalInPlace() {
+        Long recipeId = persistRecipe(ingredientNames());
+        RecipeEntity recipe = recipeRepository.findDetailById(recipeId).orElseThrow();
+        statistics.clear();
+
+        List<String> edited = ingredientNames();
+        edited.remove(5);
+        recipe.syncIngredients(edited);
+        entityManager.flush();
+
+        assertThat(statistics.getEntityDeleteCount()).isEqualTo(1);
+        assertThat(statistics.getEntityInsertCount()).isZero();
+        // Only the recipe itself, for its ingredient count and version
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(1);
+        // One DELETE and one UPDATE
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+
+        entityManager.clear();
+        RecipeEntity reloaded = recipeRepository.findDetailById(recipeId).orElseThrow();
+        assertThat(reloaded.getIngredients()).extracting(IngredientEntity::getIngredientName)
+                .containsExactlyElementsOf(edited);
+        assertThat(reloaded.getIngredientCount()).isEqualTo(INGREDIENTS - 1);
+    }
+
+    // New rows can only go last in id order, so the rows after the insertion point are rewritten, the ones before are not
+    @Test
+    void syncRewritesOnlyTheTailAfterAnInsertion() {
+        Long recipeId = persistRecipe(ingredientNames());
+        RecipeEntity recipe = recipeRepository.findDetailById(recipeId).orElseThrow();
+        statistics.clear();
+
+        List<String> edited = ingredientNames();
+        edited.add(INGREDIENTS - 3, "Lime zest");
+        recipe.syncIngredients(edited);
+        entityManager.flush();
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+        // The three tail rows and the recipe
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(4);
+        assertThat(statistics.getEntityDeleteCount()).isZero();
+
+        entityManager.clear();
+        RecipeEntity reloaded = recipeRepository.findDetailById(recipeId).orElseThrow();
+        assertThat(reloaded.getIngredients()).extracting(IngredientEntity::getIngredientName)
+                .containsExactlyElementsOf(edited);
+    }
+
+    private Long persistRecipe(List<String> names) {
+        RecipeEntity recipe = newRecipe(names);
+        entityManager.persist(recipe);
+        entityManager.flush();
+        entityManager.clear();
+        return recipe.getId();
+    }
+
+    private RecipeEntity newRecipe(List<String> names) {
+        RecipeEntity recipe = new RecipeEntity();
+        recipe.setTitle("Big batch chili");
+        recipe.setDifficulty(Difficulty.HARD);
+        recipe.setCreatedDate(LocalDateTime.now());
+        recipe.syncIngredients(names);
+        return recipe;
+    }
+
+    private List<String> ingredientNames() {
+        return new ArrayList<>(IntStream.range(0, INGREDIENTS).mapToObj(i -> "Ingredient " + i).toList());
+    }
+}
@@ -0,0 +1,101 @@
+package com.recipevault.backend.repositories;
+
+import com.recipevault.backend.dto.recipes.RecipeSummaryDTO;
+import com.recipevault.backend.entities.IngredientEntity;
+import com.recipevault.backend.entities.RecipeEntity;
+import com.recipevault.backend.entities.UserEntity;
+import com.recipevault.backend.enums.Difficulty;
+import com.recipevault.backend.mapper.IngredientMapperImpl;
+import com.recipevault.backend.mapper.RecipeMapper;
+import com.recipevault.backend.mapper.RecipeMapperImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Summary list endpoints must read recipes in a single statement
+ * ingredientCount comes from the denormalized column, so no ingredient (or user) rows are loaded per recipe
+ */
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({RecipeMapperImpl.class, IngredientMapperImpl.class})
+class RecipeSummaryQueryCountTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private RecipeMapper recipeMapper;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        UserEntity user = new UserEntity("chef", "chef@example.com", "password");
+        entityManager.persist(user);
+
+        for (int i = 0; i < 10; i++) {
+            RecipeEntity recipe = new RecipeEntity();
+            recipe.setTitle("Recipe " + i);
+            recipe.setDifficulty(Difficulty.EASY);
+            recipe.setCreatedDate(LocalDateTime.now().minusMinutes(i));
+            recipe.setUser(user);
+            for (int j = 0; j <= i; j++) {
+                IngredientEntity ingredient = new IngredientEntity();
+                ingredient.setIngredientName("Ingredient " + j);
+                recipe.addIngredient(ingredient);
+            }
+            entityManager.persist(recipe);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void summaryListIssuesSingleStatement() {
+        List<RecipeEntity> recipes = recipeRepository.findAllByOrderByCreatedDateDescIdDesc(PageRequest.of(0, 10));
+        List<RecipeSummaryDTO> summaries = recipeMapper.toSummaryDTOList(recipes);
+
+        assertThat(summaries).hasSize(10);
+        assertThat(summaries).extracting(RecipeSummaryDTO::getIngredientCount)
+                .containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+        assertThat(summaries).allSatisfy(summary -> assertThat(summary.getUserId()).isNotNull());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+    }
+
+    @Test
+    void backfillCountsIngredientsForLegacyRows() {
+        RecipeEntity legacy = recipeRepository.findAllByOrderByCreatedDateDescIdDesc(PageRequest.of(0, 1)).get(0);
+        legacy.setIngredientCount(null);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(recipeRepository.backfillIngredientCounts()).isEqualTo(1);
+        entityManager.clear();
+
+        assertThat(recipeRepository.findById(legacy.getId()).orElseThrow().getIngredientCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,204 @@
+package com.recipevault.backend.repositories;
+
+import com.recipevault.backend.dto.recipes.RecipeDetailDTO;
+import com.recipevault.backend.entities.RecipeEntity;
+import com.recipevault.backend.entities.UserEntity;
+import com.recipevault.backend.enums.Difficulty;
+import com.recipevault.backend.exceptions.PreconditionFailedException;
+import com.recipevault.backend.exceptions.ResourceNotFoundException;
+import com.recipevault.backend.exceptions.UnauthorizedAccessException;
+import com.recipevault.backend.mapper.IngredientMapperImpl;
+import com.recipevault.backend.mapper.RecipeMapper;
+import com.recipevault.backend.mapper.RecipeMapperImpl;
+import com.recipevault.backend.search.IngredientMatchIndex;
+import com.recipevault.backend.search.RecipeSearchIndex;
+import com.recipevault.backend.services.ImageUploadService;
+import com.recipevault.backend.services.impl.RecipeServiceImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/*
+ * version and last_modified_date are the validators behind recipe ETags, Last-Modified and If-Match
+ * They must survive a database round trip unchanged, move on every write and travel with the detail DTO they describe
+ * Deletes are checked against the owner and, with If-Match, the version
+ */
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({RecipeServiceImpl.class, RecipeMapperImpl.class, IngredientMapperImpl.class})
+class RecipeVersionTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private RecipeMapper recipeMapper;
+
+    @Autowired
+    private RecipeServiceImpl recipeService;
+
+    @MockBean
+    private RecipeSearchIndex recipeSearchIndex;
+
+    @MockBean
+    private IngredientMatchIndex ingredientMatchIndex;
+
+    @MockBean
+    private ImageUploadService imageUploadService;
+
+    @Test
+    void detailCarriesTheValidatorsItWasLoadedWith() {
+        RecipeEntity recipe = persistRecipe("Omelette");
+        Long version = recipe.getVersion();
+        LocalDateTime lastModified = recipe.getLastModifiedDate();
+        entityManager.clear();
+
+        RecipeDetailDTO detail = detail(recipe.getId());
+        assertThat(detail.getVersion()).isEqualTo(version);
+        assertThat(detail.getLastModifiedDate()).isEqualTo(lastModified);
+    }
+
+    @Test
+    void ingredientOnlyEditMovesBothValidators() {
+        RecipeEntity recipe = persistRecipe("Pancakes");
+        RecipeDetailDTO created = recipeMapper.toDetailDTO(recipe);
+
+        // Ingredient-only edit in the same millisecond, the recipe row itself is not dirty
+        recipe.syncIngredients(List.of("Flour", "Milk"));
+        recipe.markModified();
+        recipe.markModified();
+        entityManager.flush();
+        entityManager.clear();
+
+        RecipeDetailDTO updated = detail(recipe.getId());
+        assertThat(updated.getVersion()).isEqualTo(created.getVersion() + 1);
+        assertThat(updated.getLastModifiedDate()).isAfter(created.getLastModifiedDate());
+    }
+
+    @Test
+    void listVersionChangesOnCreateAndDelete() {
+        RecipeEntity first = persistRecipe("Soup");
+        RecipeListVersion afterCreate = recipeRepository.findListVersion();
+        assertThat(afterCreate.recipeCount()).isEqualTo(1);
+        assertThat(afterCreate.lastModifiedDate()).isEqualTo(first.getLastModifiedDate());
+
+        persistRecipe("Salad");
+        entityManager.remove(first);
+        entityManager.flush();
+
+        // Same count as before, but the newer recipe moved the latest modification time
+        RecipeListVersion afterDelete = recipeRepository.findListVersion();
+        assertThat(afterDelete).isNotEqualTo(afterCreate);
+    }
+
+    @Test
+    void backfillKeepsTheValidatorsServedBeforeIt() {
+        RecipeEntity recipe = persistRecipe("Stew");
+        entityManager.getEntityManager().createQuery(
+                "UPDATE RecipeEntity r SET r.lastModifiedDate = NULL, r.version = NULL WHERE r.id = :id")
+                .setParameter("id", recipe.getId())
+                .executeUpdate();
+        entityManager.clear();
+        RecipeDetailDTO beforeBackfill = detail(recipe.getId());
+
+        assertThat(recipeRepository.backfillLastModifiedDates()).isEqualTo(1);
+        assertThat(recipeRepository.backfillVersions()).isEqualTo(1);
+        entityManager.clear();
+        RecipeDetailDTO afterBackfill = detail(recipe.getId());
+        assertThat(afterBackfill.getVersion()).isEqualTo(beforeBackfill.getVersion()).isZero();
+        assertThat(afterBackfill.getLastModifiedDate()).isEqualTo(beforeBackfill.getLastModifiedDate())
+                .isEqualTo(recipe.getCreatedDate());
+    }
+
+    @Test
+    void ownedDeleteRemovesRecipeAndIngredients() {
+        UserEntity owner = persistUser("owner");
+        RecipeEntity recipe = persistRecipe("Curry", owner);
+        entityManager.clear();
+        Statistics statistics = statistics();
+
+        // The image to release, ingredient ids for the cache eviction, then the two DELETE statements,
+        // no entity is loaded
+        recipeService.deleteRecipe(recipe.getId(), owner, 0L);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(recipeRepository.findById(recipe.getId())).isEmpty();
+        assertThat(entityManager.getEntityManager()
+                .createQuery("SELECT COUNT(i) FROM IngredientEntity i", Long.class)
+                .getSingleResult()).isZero();
+    }
+
+    @Test
+    void ownedDeleteRejectsOtherUsersAndVersions() {
+        UserEntity owner = persistUser("owner");
+        UserEntity other = persistUser("other");
+        RecipeEntity recipe = persistRecipe("Curry", owner);
+        entityManager.clear();
+
+        assertThatThrownBy(() -> recipeService.deleteRecipe(recipe.getId(), other, null))
+                .isInstanceOf(UnauthorizedAccessException.class);
+        assertThatThrownBy(() -> recipeService.deleteRecipe(recipe.getId(), owner, 5L))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> recipeService.deleteRecipe(recipe.getId() + 1, owner, null))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(recipeRepository.findById(recipe.getId()).orElseThrow().getIngredients()).hasSize(2);
+        // Without If-Match any version is deleted
+        entityManager.clear();
+        recipeService.deleteRecipe(recipe.getId(), owner, null);
+        assertThat(recipeRepository.findById(recipe.getId())).isEmpty();
+    }
+
+    private RecipeDetailDTO detail(Long recipeId) {
+        return recipeMapper.toDetailDTO(recipeRepository.findDetailById(recipeId).orElseThrow());
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    private UserEntity persistUser(String username) {
+        return entityManager.persist(new UserEntity(username, username + "@example.com", "password"));
+    }
+
+    private RecipeEntity persistRecipe(String title, UserEntity owner) {
+        RecipeEntity recipe = new RecipeEntity();
+        recipe.setTitle(title);
+        recipe.setDifficulty(Difficulty.EASY);
+        recipe.setCreatedDate(LocalDateTime.of(2024, 5, 1, 12, 0));
+        recipe.setUser(owner);
+        recipe.syncIngredients(List.of("Rice", "Coconut milk"));
+        entityManager.persist(recipe);
+        entityManager.flush();
+        return recipe;
+    }
+
+    private RecipeEntity persistRecipe(String title) {
+        RecipeEntity recipe = new RecipeEntity();
+        recipe.setTitle(title);
+        recipe.setDifficulty(Difficulty.EASY);
+        recipe.setCreatedDate(LocalDateTime.of(2024, 5, 1, 12, 0));
+        entityManager.persist(recipe);
+        entityManager.flush();
+        return recipe;
+    }
+}
@@ -0,0 +1,208 @@
+package com.recipevault.backend.repositories;
+
+import com.recipevault.backend.config.HibernateCacheConfig;
+import com.recipevault.backend.entities.IngredientEntity;
+import com.recipevault.backend.entities.RecipeEntity;
+import com.recipevault.backend.entities.UserEntity;
+import com.recipevault.backend.enums.Difficulty;
+import com.recipevault.backend.mapper.IngredientMapperImpl;
+import com.recipevault.backend.mapper.RecipeMapperImpl;
+import com.recipevault.backend.search.IngredientMatchIndex;
+import com.recipevault.backend.search.RecipeSearchIndex;
+import com.recipevault.backend.services.ImageUploadService;
+import com.recipevault.backend.services.impl.RecipeServiceImpl;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Second-level and query cache through HibernateCacheConfig: repeated loads in new sessions run no SQL
+ * Writes evict only the entries of the recipe they touch
+ * Not transactional, entries are only shared once the transaction that read or wrote them has committed
+ */
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({HibernateCacheConfig.class, RecipeServiceImpl.class, RecipeMapperImpl.class, IngredientMapperImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTests {
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterBinder hibernateCacheMetrics;
+
+    @Autowired
+    private RecipeServiceImpl recipeService;
+
+    @MockBean
+    private RecipeSearchIndex recipeSearchIndex;
+
+    @MockBean
+    private IngredientMatchIndex ingredientMatchIndex;
+
+    @MockBean
+    private ImageUploadService imageUploadService;
+
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+    private Long recipeId;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        recipeId = transactionTemplate.execute(status -> {
+            RecipeEntity recipe = new RecipeEntity();
+            recipe.setTitle("Shakshuka");
+            recipe.setDifficulty(Difficulty.EASY);
+            recipe.setCreatedDate(LocalDateTime.now());
+            for (String name : new String[] {"Eggs", "Tomatoes"}) {
+                IngredientEntity ingredient = new IngredientEntity();
+                ingredient.setIngredientName(name);
+                recipe.addIngredient(ingredient);
+            }
+            return recipeRepository.save(recipe).getId();
+        });
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        recipeRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void recipeAndIngredientsAreServedFromMemoryOnceLoaded() {
+        assertThat(ingredientCount()).isEqualTo(2);
+        long statements = statistics.getPrepareStatementCount();
+
+        assertThat(ingredientCount()).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+        assertThat(statistics.getDomainDataRegionStatistics(HibernateCacheConfig.RECIPES).getHitCount()).isOne();
+        assertThat(statistics.getDomainDataRegionStatistics(HibernateCacheConfig.RECIPE_INGREDIENTS).getHitCount())
+                .isOne();
+        assertThat(statistics.getDomainDataRegionStatistics(HibernateCacheConfig.INGREDIENTS).getHitCount())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void updatesReplaceTheCachedRecipe() {
+        ingredientCount();
+        transactionTemplate.executeWithoutResult(status ->
+                recipeRepository.findById(recipeId).orElseThrow().setTitle("Green shakshuka"));
+        statistics.clear();
+
+        String title = transactionTemplate.execute(status -> recipeRepository.findById(recipeId).orElseThrow().getTitle());
+        assertThat(title).isEqualTo("Green shakshuka");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    // A bulk DELETE would clear the whole recipe and ingredient regions, the service removes only this recipe's entries
+    @Test
+    void deletingARecipeLeavesTheOthersCached() {
+        UserEntity owner = userRepository.save(new UserEntity("alice", "alice@example.com", "secret"));
+        Long deletedId = transactionTemplate.execute(status -> {
+            RecipeEntity recipe = new RecipeEntity();
+            recipe.setTitle("Menemen");
+            recipe.setCreatedDate(LocalDateTime.now());
+            recipe.setUser(owner);
+            recipe.syncIngredients(List.of("Eggs", "Peppers"));
+            return recipeRepository.save(recipe).getId();
+        });
+        ingredientCount();
+        transactionTemplate.executeWithoutResult(status ->
+                recipeRepository.findById(deletedId).orElseThrow().getIngredients().size());
+        assertThat(recipeRepository.findListVersion().recipeCount()).isEqualTo(2);
+
+        recipeService.deleteRecipe(deletedId, owner, null);
+        statistics.clear();
+
+        assertThat(ingredientCount()).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(entityManagerFactory.getCache().contains(RecipeEntity.class, recipeId)).isTrue();
+        assertThat(entityManagerFactory.getCache().contains(RecipeEntity.class, deletedId)).isFalse();
+        assertThat(recipeRepository.findById(deletedId)).isEmpty();
+        // The cached validator query reads the recipes table, the delete has to invalidate it
+        assertThat(recipeRepository.findListVersion().recipeCount()).isOne();
+    }
+
+    @Test
+    void usersAreLoadedByIdFromMemory() {
+        UserEntity user = userRepository.save(new UserEntity("alice", "alice@example.com", "secret"));
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+
+        userRepository.findById(user.getId()).orElseThrow();
+        userRepository.findById(user.getId()).orElseThrow();
+        assertThat(statistics.getPrepareStatementCount()).isOne();
+        assertThat(statistics.getDomainDataRegionStatistics(HibernateCacheConfig.USERS).getHitCount()).isOne();
+    }
+
+    @Test
+    void validatorQueriesAreCachedUntilRecipesChange() {
+        assertThat(recipeRepository.findListVersion().recipeCount()).isOne();
+        assertThat(recipeRepository.findListVersion().recipeCount()).isOne();
+        assertThat(statistics.getQueryCacheHitCount()).isOne();
+        assertThat(statistics.getPrepareStatementCount()).isOne();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            RecipeEntity recipe = new RecipeEntity();
+            recipe.setTitle("Menemen");
+            recipe.setCreatedDate(LocalDateTime.now());
+            recipeRepository.save(recipe);
+        });
+        assertThat(recipeRepository.findListVersion().recipeCount()).isEqualTo(2);
+    }
+
+    @Test
+    void regionStatisticsArePublishedAsCacheMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        hibernateCacheMetrics.bindTo(registry);
+
+        ingredientCount();
+        double hits = recipeCacheHits(registry);
+        ingredientCount();
+        assertThat(recipeCacheHits(registry)).isGreaterThan(hits);
+    }
+
+    // Counts since the region was created, Hibernate's own lock and version checks are gets too
+    private double recipeCacheHits(SimpleMeterRegistry registry) {
+        return registry.get("cache.gets").tag("cache", HibernateCacheConfig.RECIPES).tag("result", "hit")
+                .functionCounter().count();
+    }
+
+    private int ingredientCount() {
+        return transactionTemplate.execute(status ->
+                recipeRepository.findById(recipeId).orElseThrow().getIngredients().size());
+    }
+}
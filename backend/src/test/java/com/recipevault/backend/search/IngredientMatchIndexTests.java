@@ -0,0 +1,208 @@
+package com.recipevault.backend.search;
+
+import com.recipevault.backend.entities.IngredientEntity;
+import com.recipevault.backend.entities.RecipeEntity;
+import com.recipevault.backend.repositories.RecipeIngredientName;
+import com.recipevault.backend.repositories.RecipeRepository;
+import com.recipevault.backend.search.IngredientMatchIndex.Match;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/*
+ * In-memory ingredient index, the repository is a mock standing in for the catalogue the rebuild reads
+ * Covers name normalization, coverage ranking through the packed scores, ids outside the int range and rebuilds
+ * racing live updates
+ * No transaction synchronization is active, so live updates apply immediately
+ */
+
+class IngredientMatchIndexTests {
+    private final RecipeRepository recipeRepository = mock(RecipeRepository.class);
+    private final IngredientMatchIndex index = new IngredientMatchIndex(recipeRepository);
+
+    @Test
+    void normalizeFoldsCasePunctuationAndPlurals() {
+        assertThat(IngredientMatchIndex.normalize("Eggs")).isEqualTo("egg");
+        assertThat(IngredientMatchIndex.normalize("  Olive-Oil!! ")).isEqualTo("olive oil");
+        assertThat(IngredientMatchIndex.normalize("Tomatoes")).isEqualTo("tomato");
+        assertThat(IngredientMatchIndex.normalize("Berries")).isEqualTo("berry");
+        assertThat(IngredientMatchIndex.normalize("Peas")).isEqualTo("pea");
+        assertThat(IngredientMatchIndex.normalize("Crème fraîche")).isEqualTo("crème fraîche");
+        assertThat(IngredientMatchIndex.normalize("7up")).isEqualTo("7up");
+    }
+
+    @Test
+    void normalizeKeepsShortAndDoubleSWords() {
+        assertThat(IngredientMatchIndex.normalize("Glass")).isEqualTo("glass");
+        assertThat(IngredientMatchIndex.normalize("Gas")).isEqualTo("gas");
+        assertThat(IngredientMatchIndex.normalize("Ties")).isEqualTo("tie");
+        assertThat(IngredientMatchIndex.normalize("Does")).isEqualTo("doe");
+        assertThat(IngredientMatchIndex.normalize("?!")).isEmpty();
+        assertThat(IngredientMatchIndex.normalize(null)).isEmpty();
+    }
+
+    @Test
+    void pluralAndSingularNamesMatchEachOther() {
+        index.index(recipe(1L, "Tomatoes", "Fresh berries"));
+
+        assertThat(index.match(List.of("tomato", "FRESH BERRY"), 10))
+                .containsExactly(new Match(1L, 2, 2, 1.0));
+    }
+
+    // Coverage first, then matched count, then the higher recipe id, as packed into the sorted longs
+    @Test
+    void matchesAreRankedByCoverageThenMatchedCount() {
+        index.index(recipe(1L, "Eggs", "Flour", "Milk"));
+        index.index(recipe(2L, "Eggs", "Flour"));
+        index.index(recipe(3L, "Eggs", "Bacon", "Cheese", "Pepper"));
+        index.index(recipe(4L, "Eggs"));
+        index.index(recipe(5L, "Flour"));
+        index.index(recipe(6L, "Rice"));
+
+        List<Match> matches = index.match(List.of("egg", "flour"), 10);
+
+        assertThat(matches).extracting(Match::recipeId).containsExactly(2L, 5L, 4L, 1L, 3L);
+        assertThat(matches.get(0)).isEqualTo(new Match(2L, 2, 2, 1.0));
+        assertThat(matches.get(3)).isEqualTo(new Match(1L, 2, 3, 2.0 / 3));
+        assertThat(matches.get(4)).isEqualTo(new Match(3L, 1, 4, 0.25));
+        assertThat(index.match(List.of("egg", "flour"), 2)).extracting(Match::recipeId).containsExactly(2L, 5L);
+    }
+
+    // Only the best limit candidates are kept while scoring, they must be the head of the full ranking
+    @Test
+    void limitedMatchesAreTheHeadOfTheFullRanking() {
+        Random random = new Random(42);
+        List<String> pantry = List.of("Salt", "Onion", "Garlic", "Eggs", "Flour", "Milk", "Rice", "Butter");
+        for (long id = 1; id <= 2000; id++) {
+            List<String> names = new ArrayList<>(pantry);
+            Collections.shuffle(names, random);
+            index.index(recipe(id, names.subList(0, 1 + random.nextInt(names.size())).toArray(String[]::new)));
+        }
+        List<String> query = List.of("salt", "onion", "eggs");
+
+        List<Match> all = index.match(query, Integer.MAX_VALUE);
+        assertThat(all).isSortedAccordingTo(Comparator.comparingDouble(Match::coverage).reversed()
+                .thenComparing(Comparator.comparingInt(Match::matchedIngredients).reversed())
+                .thenComparing(Comparator.comparingLong(Match::recipeId).reversed()));
+        for (int limit : List.of(1, 7, 100, all.size(), all.size() + 5)) {
+            assertThat(index.match(query, limit)).as("limit %d", limit)
+                    .containsExactlyElementsOf(all.subList(0, Math.min(limit, all.size())));
+        }
+        assertThat(index.match(query, 0)).isEmpty();
+    }
+
+    @Test
+    void repeatedAndUnknownQueryNamesDoNotCount() {
+        index.index(recipe(1L, "Eggs", "Flour"));
+
+        assertThat(index.match(List.of("Egg", "eggs", "EGGS"), 10)).containsExactly(new Match(1L, 1, 2, 0.5));
+        assertThat(index.match(List.of("saffron"), 10)).isEmpty();
+        assertThat(index.match(List.of(), 10)).isEmpty();
+    }
+
+    @Test
+    void recipesWithoutIngredientsAreNotCandidates() {
+        index.index(recipe(1L, "Eggs"));
+        index.index(recipe(1L));
+
+        assertThat(index.match(List.of("egg"), 10)).isEmpty();
+    }
+
+    // The packed score keeps 31 bits for the id, ids that do not fit are left out rather than wrapped around
+    @Test
+    void idsOutsideThePositiveIntRangeAreNotIndexed() {
+        long largest = Integer.MAX_VALUE;
+        index.index(recipe(largest, "Eggs"));
+        index.index(recipe(largest + 1, "Eggs"));
+        index.index(recipe(1L << 32, "Eggs"));
+        index.index(recipe(0L, "Eggs"));
+        index.index(recipe(-1L, "Eggs"));
+        index.index(recipe(null, "Eggs"));
+
+        assertThat(index.match(List.of("egg"), 10)).containsExactly(new Match(largest, 1, 1, 1.0));
+
+        index.remove(largest + 1);
+        index.remove(null);
+        assertThat(index.match(List.of("egg"), 10)).extracting(Match::recipeId).containsExactly(largest);
+        index.remove(largest);
+        assertThat(index.match(List.of("egg"), 10)).isEmpty();
+    }
+
+    @Test
+    void rebuildIndexesTheCatalogueInBatches() {
+        catalogue(recipe(1L, "Eggs", "Flour"), recipe(2L, "Rice"), recipe(3L));
+
+        index.rebuild();
+
+        assertThat(index.match(List.of("egg"), 10)).containsExactly(new Match(1L, 1, 2, 0.5));
+        assertThat(index.match(List.of("rice"), 10)).extracting(Match::recipeId).containsExactly(2L);
+    }
+
+    // Live updates committing after the rebuild read a batch win over what the rebuild read
+    @Test
+    void liveUpdatesDuringARebuildAreNotOverwrittenByIt() {
+        catalogue(recipe(1L, "Tomatoes"), recipe(2L, "Peas"), recipe(3L, "Leeks"));
+        when(recipeRepository.findIngredientNamesByRecipeIds(any())).thenAnswer(invocation -> {
+            index.remove(1L);
+            index.index(recipe(2L, "Carrots"));
+            index.index(recipe(4L, "Onions"));
+            return names(invocation.getArgument(0), "Stock");
+        });
+
+        index.rebuild();
+
+        assertThat(index.match(List.of("tomato"), 10)).isEmpty();
+        assertThat(index.match(List.of("pea"), 10)).isEmpty();
+        assertThat(index.match(List.of("carrot"), 10)).extracting(Match::recipeId).containsExactly(2L);
+        assertThat(index.match(List.of("stock"), 10)).extracting(Match::recipeId).containsExactly(3L);
+        assertThat(index.match(List.of("onion"), 10)).extracting(Match::recipeId).containsExactly(4L);
+    }
+
+    @Test
+    void updatesAfterARebuildAreNotSkipped() {
+        catalogue(recipe(1L, "Tomatoes"));
+        index.rebuild();
+
+        index.index(recipe(1L, "Carrots"));
+
+        assertThat(index.match(List.of("carrot"), 10)).extracting(Match::recipeId).containsExactly(1L);
+        assertThat(index.match(List.of("tomato"), 10)).isEmpty();
+    }
+
+    // One batch holding every recipe, with the ingredient names the recipes carry
+    private void catalogue(RecipeEntity... recipes) {
+        when(recipeRepository.findIdsAfter(anyLong(), any()))
+                .thenReturn(List.of(recipes).stream().map(RecipeEntity::getId).toList())
+                .thenReturn(List.of());
+        when(recipeRepository.findIngredientNamesByRecipeIds(any())).thenReturn(List.of(recipes).stream()
+                .flatMap(recipe -> recipe.getIngredients().stream()
+                        .map(ingredient -> new RecipeIngredientName(recipe.getId(), ingredient.getIngredientName())))
+                .toList());
+    }
+
+    private static List<RecipeIngredientName> names(Collection<Long> recipeIds, String name) {
+        return recipeIds.stream().map(id -> new RecipeIngredientName(id, name)).toList();
+    }
+
+    private static RecipeEntity recipe(Long id, String... ingredientNames) {
+        RecipeEntity recipe = new RecipeEntity();
+        recipe.setId(id);
+        for (String name : ingredientNames) {
+            IngredientEntity ingredient = new IngredientEntity();
+            ingredient.setIngredientName(name);
+            recipe.addIngredient(ingredient);
+        }
+        return recipe;
+    }
+}
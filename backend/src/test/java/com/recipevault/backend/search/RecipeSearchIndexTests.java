@@ -0,0 +1,218 @@
+package com.recipevault.backend.search;
+
+import com.recipevault.backend.entities.IngredientEntity;
+import com.recipevault.backend.entities.RecipeEntity;
+import com.recipevault.backend.repositories.RecipeIngredientName;
+import com.recipevault.backend.repositories.RecipeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/*
+ * Full-text index on a temporary directory, the repository is a mock standing in for the catalogue the rebuild reads
+ * Covers commit visibility of live updates, query analysis and field ranking, and rebuilds racing live updates
+ */
+
+class RecipeSearchIndexTests {
+    private final RecipeRepository recipeRepository = mock(RecipeRepository.class);
+    private RecipeSearchIndex index;
+
+    @TempDir
+    Path indexDir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        index = new RecipeSearchIndex(recipeRepository);
+        ReflectionTestUtils.setField(index, "indexDir", indexDir.toString());
+        index.open();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        index.close();
+    }
+
+    @Test
+    void liveUpdatesAreSearchableOnlyOnceTheirTransactionCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+        index.index(recipe(1L, "Tomato soup", "Simmer", "Tomatoes"));
+        assertThat(index.search("tomato", 10)).isEmpty();
+
+        commit();
+        assertThat(index.search("tomato", 10)).containsExactly(1L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        index.remove(1L);
+        assertThat(index.search("tomato", 10)).containsExactly(1L);
+        commit();
+        assertThat(index.search("tomato", 10)).isEmpty();
+    }
+
+    @Test
+    void rolledBackUpdatesNeverReachTheIndex() {
+        TransactionSynchronizationManager.initSynchronization();
+        index.index(recipe(1L, "Tomato soup", "Simmer", "Tomatoes"));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThat(index.search("tomato", 10)).isEmpty();
+    }
+
+    @Test
+    void updatesReplaceTheRecipesDocument() {
+        index.index(recipe(1L, "Tomato soup", "Simmer", "Tomatoes"));
+        index.index(recipe(1L, "Carrot soup", "Simmer", "Carrots"));
+
+        assertThat(index.search("tomato", 10)).isEmpty();
+        assertThat(index.search("carrot", 10)).containsExactly(1L);
+        assertThat(index.search("soup", 10)).containsExactly(1L);
+    }
+
+    @Test
+    void everyQueryTermMustMatchSomeField() {
+        index.indexAll(List.of(
+                recipe(1L, "Tomato soup", "Simmer gently", "Tomatoes", "Basil"),
+                recipe(2L, "Tomato salad", "Slice and dress", "Tomatoes", "Olive oil")));
+
+        assertThat(index.search("tomato basil", 10)).containsExactly(1L);
+        assertThat(index.search("TOMATO, Salad!", 10)).containsExactly(2L);
+        assertThat(index.search("tomato pasta", 10)).isEmpty();
+        assertThat(index.search("  ?! ", 10)).isEmpty();
+    }
+
+    @Test
+    void titleOutranksIngredientsWhichOutrankInstructions() {
+        index.indexAll(List.of(
+                recipe(1L, "Quick stew", "Add the garlic last", "Onion"),
+                recipe(2L, "Slow stew", "Stir", "Garlic"),
+                recipe(3L, "Garlic bread", "Bake", "Bread")));
+
+        assertThat(index.search("garlic", 10)).containsExactly(3L, 2L, 1L);
+        assertThat(index.search("garlic", 2)).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void prefixesMatchForTypeAheadButRankBelowWholeTerms() {
+        index.indexAll(List.of(
+                recipe(1L, "Tomatoes on toast", "Toast", "Bread"),
+                recipe(2L, "Tomato soup", "Simmer", "Stock")));
+
+        assertThat(index.search("tom", 10)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.search("tomato", 10)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void rebuildReplacesTheIndexWithTheCatalogue() {
+        index.index(recipe(9L, "Lentil stew", "Simmer", "Lentils"));
+        catalogue(recipe(1L, "Tomato soup", "Simmer", "Tomatoes"), recipe(2L, "Pea soup", "Simmer", "Peas"));
+
+        index.rebuild();
+
+        assertThat(index.search("soup", 10)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.search("lentil", 10)).isEmpty();
+        assertThat(index.search("peas", 10)).containsExactly(2L);
+    }
+
+    // The rebuild writes in place, searches during it still see the previous index even once a live update has
+    // refreshed the searcher
+    @Test
+    void previousIndexStaysSearchableWhileRebuilding() {
+        index.index(recipe(1L, "Tomato soup", "Simmer", "Tomatoes"));
+        List<List<Long>> seenDuringRebuild = new ArrayList<>();
+        catalogue(recipe(1L, "Tomato soup", "Simmer", "Tomatoes"));
+        when(recipeRepository.findIngredientNamesByRecipeIds(any())).thenAnswer(invocation -> {
+            index.index(recipe(2L, "Pea soup", "Simmer", "Peas"));
+            seenDuringRebuild.add(index.search("tomato", 10));
+            return names(invocation.getArgument(0), "Tomatoes");
+        });
+
+        index.rebuild();
+
+        assertThat(seenDuringRebuild).containsExactly(List.of(1L));
+        assertThat(index.search("tomato", 10)).containsExactly(1L);
+    }
+
+    // Live updates committing after the rebuild read a batch win over what the rebuild read
+    @Test
+    void liveUpdatesDuringARebuildAreNotOverwrittenByIt() {
+        catalogue(recipe(1L, "Tomato soup", "Simmer", "Tomatoes"),
+                recipe(2L, "Pea soup", "Simmer", "Peas"),
+                recipe(3L, "Leek soup", "Simmer", "Leeks"));
+        when(recipeRepository.findIngredientNamesByRecipeIds(any())).thenAnswer(invocation -> {
+            index.remove(1L);
+            index.index(recipe(2L, "Carrot soup", "Simmer", "Carrots"));
+            index.index(recipe(4L, "Onion soup", "Simmer", "Onions"));
+            return names(invocation.getArgument(0), "Stock");
+        });
+
+        index.rebuild();
+
+        assertThat(index.search("tomato", 10)).isEmpty();
+        assertThat(index.search("pea", 10)).isEmpty();
+        assertThat(index.search("carrot", 10)).containsExactly(2L);
+        assertThat(index.search("soup", 10)).containsExactlyInAnyOrder(2L, 3L, 4L);
+    }
+
+    @Test
+    void updatesAfterARebuildAreNotSkipped() {
+        catalogue(recipe(1L, "Tomato soup", "Simmer", "Tomatoes"));
+        index.rebuild();
+
+        index.index(recipe(1L, "Tomato salad", "Slice", "Tomatoes"));
+
+        assertThat(index.search("salad", 10)).containsExactly(1L);
+        assertThat(index.search("soup", 10)).isEmpty();
+    }
+
+    private void commit() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    // One batch holding every recipe, with the ingredient names the recipes carry
+    private void catalogue(RecipeEntity... recipes) {
+        when(recipeRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any()))
+                .thenReturn(List.of(recipes))
+                .thenReturn(List.of());
+        when(recipeRepository.findIngredientNamesByRecipeIds(any())).thenReturn(List.of(recipes).stream()
+                .flatMap(recipe -> recipe.getIngredients().stream()
+                        .map(ingredient -> new RecipeIngredientName(recipe.getId(), ingredient.getIngredientName())))
+                .toList());
+    }
+
+    private static List<RecipeIngredientName> names(Collection<Long> recipeIds, String name) {
+        return recipeIds.stream().map(id -> new RecipeIngredientName(id, name)).toList();
+    }
+
+    private static RecipeEntity recipe(Long id, String title, String instructions, String... ingredientNames) {
+        RecipeEntity recipe = new RecipeEntity();
+        recipe.setId(id);
+        recipe.setTitle(title);
+        recipe.setInstructions(instructions);
+        for (String name : ingredientNames) {
+            IngredientEntity ingredient = new IngredientEntity();
+            ingredient.setIngredientName(name);
+            recipe.addIngredient(ingredient);
+        }
+        return recipe;
+    }
+}
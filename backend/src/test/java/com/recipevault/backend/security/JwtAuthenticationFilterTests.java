@@ -0,0 +1,143 @@
+package com.recipevault.backend.security;
+
+import com.recipevault.backend.config.CacheConfig;
+import com.recipevault.backend.entities.UserEntity;
+import com.recipevault.backend.enums.Role;
+import com.recipevault.backend.repositories.UserRepository;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Request principals: tokens carrying username and role claims authenticate without touching the users table,
+ * older tokens with only a subject fall back to the cached id lookup, and claims cannot be edited without the key
+ * Not transactional, the principal cache is only filled once the lookup's transaction has committed
+ */
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({CacheConfig.class, CustomUserDetailsService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JwtAuthenticationFilterTests {
+    private static final String SECRET = "myVerySecretKeyThatShouldBeChangedInProduction123456789";
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final JwtTokenProvider tokenProvider = new JwtTokenProvider(SECRET, 60_000L);
+    private JwtAuthenticationFilter filter;
+    private Statistics statistics;
+    private UserEntity user;
+
+    @BeforeEach
+    void setUp() {
+        filter = new JwtAuthenticationFilter(tokenProvider, userDetailsService, new SimpleMeterRegistry());
+        user = userRepository.save(new UserEntity("alice", "alice@example.com", "secret"));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        userRepository.deleteAll();
+        cacheManager.getCache(CacheConfig.PRINCIPALS).clear();
+    }
+
+    @Test
+    void principalClaimsAuthenticateWithoutAUserQuery() throws Exception {
+        Authentication authentication = authenticate(tokenProvider.generateToken(user));
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+        assertThat(principal.getId()).isEqualTo(user.getId());
+        assertThat(principal.getUsername()).isEqualTo("alice");
+        assertThat(principal.getPassword()).isNull();
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_USER");
+    }
+
+    @Test
+    void legacyTokensFallBackToTheCachedIdLookup() throws Exception {
+        user.setRole(Role.ADMIN);
+        userRepository.save(user);
+        String legacyToken = Jwts.builder()
+                .setSubject(user.getId().toString())
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000L))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+        statistics.clear();
+
+        Authentication first = authenticate(legacyToken);
+        assertThat(statistics.getPrepareStatementCount()).isOne();
+        assertThat(first.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_ADMIN");
+        assertThat(((UserPrincipal) first.getPrincipal()).getEmail()).isEqualTo("alice@example.com");
+
+        SecurityContextHolder.clearContext();
+        Authentication second = authenticate(legacyToken);
+        assertThat(statistics.getPrepareStatementCount()).isOne();
+        assertThat(((UserPrincipal) second.getPrincipal()).getId()).isEqualTo(user.getId());
+    }
+
+    @Test
+    void editedRoleClaimIsRejected() throws Exception {
+        String[] parts = tokenProvider.generateToken(user).split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+        assertThat(payload).contains("\"role\":\"USER\"");
+        String escalated = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.replace("\"role\":\"USER\"", "\"role\":\"ADMIN\"").getBytes(StandardCharsets.UTF_8));
+
+        assertThat(authenticate(parts[0] + "." + escalated + "." + parts[2])).isNull();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void tokenSignedWithAnotherKeyIsRejected() throws Exception {
+        String forged = new JwtTokenProvider(SECRET.replace('m', 'n'), 60_000L).generateToken(user);
+
+        assertThat(authenticate(forged)).isNull();
+    }
+
+    // Runs the filter on a request carrying the token and returns what it put in the security context
+    private Authentication authenticate(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/recipes/my-recipes");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        assertThat(chain.getRequest()).isSameAs(request);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,93 @@
+package com.recipevault.backend.services;
+
+import com.recipevault.backend.enums.ImageVariant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/*
+ * Variant generation on real images: exact card and thumbnail boxes, detail fitted inside its box, no upscaling
+ */
+
+class ImageResizerTests {
+
+    private final ImageResizer imageResizer = new ImageResizer(1, 4);
+
+    @TempDir
+    private Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        imageResizer.shutdown();
+    }
+
+    @Test
+    void largePhotoProducesEveryVariant() throws Exception {
+        Path photo = write(image(3000, 1000, BufferedImage.TYPE_INT_RGB), "jpg");
+
+        Map<ImageVariant, byte[]> variants = imageResizer.createVariants(photo).join();
+
+        assertThat(variants).containsOnlyKeys(ImageVariant.values());
+        assertSize(variants.get(ImageVariant.DETAIL), 1200, 400);
+        assertSize(variants.get(ImageVariant.CARD), 400, 250);
+        assertSize(variants.get(ImageVariant.THUMBNAIL), 200, 125);
+        assertThat(variants.get(ImageVariant.THUMBNAIL).length).isLessThan(variants.get(ImageVariant.DETAIL).length);
+    }
+
+    @Test
+    void smallImagesAreCroppedButNotUpscaled() throws Exception {
+        Path icon = write(image(300, 300, BufferedImage.TYPE_INT_ARGB), "png");
+
+        Map<ImageVariant, byte[]> variants = imageResizer.createVariants(icon).join();
+
+        assertSize(variants.get(ImageVariant.DETAIL), 300, 300);
+        assertSize(variants.get(ImageVariant.CARD), 300, 187);
+        assertSize(variants.get(ImageVariant.THUMBNAIL), 200, 125);
+    }
+
+    @Test
+    void filesThatDoNotDecodeAreRejected() throws Exception {
+        Path notAnImage = Files.write(tempDir.resolve("fake.png"), new byte[]{(byte) 0x89, 'P', 'N', 'G', 1, 2, 3});
+
+        assertThatThrownBy(() -> imageResizer.createVariants(notAnImage).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    private BufferedImage image(int width, int height, int type) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.ORANGE);
+        graphics.fillRect(0, 0, width / 2, height);
+        graphics.setColor(Color.GREEN);
+        graphics.fillOval(width / 2, 0, width / 2, height);
+        graphics.dispose();
+        return image;
+    }
+
+    private Path write(BufferedImage image, String format) throws IOException {
+        Path file = tempDir.resolve("upload." + format);
+        ImageIO.write(image, format, file.toFile());
+        return file;
+    }
+
+    private void assertSize(byte[] jpeg, int width, int height) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(jpeg));
+        assertThat(image.getWidth()).isEqualTo(width);
+        assertThat(image.getHeight()).isEqualTo(height);
+    }
+}
@@ -0,0 +1,432 @@
+package com.recipevault.backend.services;
+
+import com.recipevault.backend.dto.recipes.ImageUploadJobDTO;
+import com.recipevault.backend.dto.recipes.PresignedUploadDTO;
+import com.recipevault.backend.dto.recipes.PresignedUploadRequestDTO;
+import com.recipevault.backend.entities.ImageReferenceEntity;
+import com.recipevault.backend.enums.ImageVariant;
+import com.recipevault.backend.exceptions.ResourceNotFoundException;
+import com.recipevault.backend.repositories.ImageReferenceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/*
+ * Async image uploads against an in-process stand-in for the image store: each put returns a future the test completes
+ * Covers the URL returned, 202 job polling and the bound on uploads in flight
+ * Resizing is stubbed here (see ImageResizerTests), every upload stores the original plus one object per variant
+ * Presigned uploads are answered once the store reports the signed type and size, their variants are made by a job
+ * Reference counts live in a map behind the repository mock, identical bytes share one stored image and the recipes
+ * showing an image hold its references
+ */
+
+class ImageUploadServiceTests {
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', 1, 2, 3, 4};
+    private static final int OBJECTS_PER_UPLOAD = ImageVariant.values().length + 1;
+    private static final String BASE_URL = "https://images.example.com/";
+
+    private final ImageStorage imageStorage = mock(ImageStorage.class);
+    private final ImageResizer imageResizer = mock(ImageResizer.class);
+    private final ImageReferenceRepository imageReferenceRepository = mock(ImageReferenceRepository.class);
+    private final Map<String, Integer> references = new HashMap<>();
+    private final List<CompletableFuture<Void>> pendingPuts = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ImageUploadService imageUploadService;
+
+    @BeforeEach
+    void setUp() {
+        when(imageStorage.put(anyString(), any(Path.class), anyString())).thenAnswer(invocation -> pendingPut());
+        when(imageStorage.put(anyString(), any(byte[].class), anyString())).thenAnswer(invocation -> pendingPut());
+        when(imageStorage.url(anyString())).thenAnswer(invocation -> BASE_URL + invocation.getArgument(0));
+        when(imageStorage.keyOf(anyString())).thenAnswer(invocation -> {
+            String imageUrl = invocation.getArgument(0);
+            if (!imageUrl.startsWith(BASE_URL)) {
+                throw new IllegalArgumentException("Not an image URL of this storage: " + imageUrl);
+            }
+            return imageUrl.substring(BASE_URL.length());
+        });
+        when(imageStorage.download(anyString(), any(Path.class))).thenReturn(CompletableFuture.completedFuture(null));
+        when(imageStorage.delete(any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(imageStorage.presignPut(anyString(), anyString(), anyLong(), any(Duration.class))).thenAnswer(invocation ->
+                new PresignedPut(BASE_URL + invocation.getArgument(0) + "?signature", Map.of(), Instant.now()));
+
+        Map<ImageVariant, byte[]> variants = new EnumMap<>(ImageVariant.class);
+        for (ImageVariant variant : ImageVariant.values()) {
+            variants.put(variant, new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) variant.ordinal()});
+        }
+        when(imageResizer.createVariants(any())).thenReturn(CompletableFuture.completedFuture(variants));
+
+        when(imageReferenceRepository.addReference(anyString())).thenAnswer(invocation ->
+                references.computeIfPresent(invocation.getArgument(0), (key, count) -> count + 1) == null ? 0 : 1);
+        when(imageReferenceRepository.removeReference(anyString())).thenAnswer(invocation ->
+                references.computeIfPresent(invocation.getArgument(0), (key, count) -> count - 1) == null ? 0 : 1);
+        when(imageReferenceRepository.deleteUnreferenced(anyString())).thenAnswer(invocation ->
+                references.remove(invocation.<String>getArgument(0), 0) ? 1 : 0);
+        when(imageReferenceRepository.existsById(anyString())).thenAnswer(invocation ->
+                references.containsKey(invocation.<String>getArgument(0)));
+        doAnswer(invocation -> references.remove(invocation.<String>getArgument(0)))
+                .when(imageReferenceRepository).deleteById(anyString());
+        when(imageReferenceRepository.save(any(ImageReferenceEntity.class))).thenAnswer(invocation -> {
+            ImageReferenceEntity reference = invocation.getArgument(0);
+            references.put(reference.getImageKey(), reference.getReferenceCount());
+            return reference;
+        });
+
+        imageUploadService = new ImageUploadService(imageStorage, imageResizer, imageReferenceRepository, meterRegistry, 2);
+        ReflectionTestUtils.setField(imageUploadService, "presignedUrlTtl", Duration.ofMinutes(5));
+    }
+
+    // Finishing every transfer releases the spooled temp files
+    @AfterEach
+    void tearDown() {
+        completePendingPuts();
+    }
+
+    @Test
+    void uploadCompletesWithTheImageUrl() throws Exception {
+        CompletableFuture<String> upload = imageUploadService.uploadImage(image());
+        assertThat(upload).isNotDone();
+
+        ArgumentCaptor<String> key = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Path> spooled = ArgumentCaptor.forClass(Path.class);
+        verify(imageStorage).put(key.capture(), spooled.capture(), eq("image/png"));
+        assertThat(Files.readAllBytes(spooled.getValue())).isEqualTo(PNG);
+
+        String folder = key.getValue().substring(0, key.getValue().lastIndexOf('/') + 1);
+        ArgumentCaptor<String> variantKeys = ArgumentCaptor.forClass(String.class);
+        verify(imageStorage, times(ImageVariant.values().length)).put(variantKeys.capture(), any(byte[].class), eq("image/jpeg"));
+        assertThat(variantKeys.getAllValues()).allSatisfy(variant -> assertThat(variant).startsWith(folder).endsWith(".jpg"));
+
+        // Not done until every object is stored
+        pendingPuts.get(0).complete(null);
+        assertThat(upload).isNotDone();
+        completePendingPuts();
+        assertThat(upload.join())
+                .isEqualTo(BASE_URL + key.getValue())
+                .isEqualTo(BASE_URL + "recipe-images/" + sha256(PNG) + "/original.png");
+        assertThat(ImageVariant.CARD.urlFor(upload.join())).endsWith("/card.jpg");
+        assertThat(spooled.getValue()).doesNotExist();
+    }
+
+    @Test
+    void undecodableImageFailsWithoutStoringAnything() throws Exception {
+        when(imageResizer.createVariants(any())).thenReturn(
+                CompletableFuture.failedFuture(new IllegalArgumentException("File is not a readable image")));
+
+        CompletableFuture<String> upload = imageUploadService.uploadImage(image());
+
+        assertThatThrownBy(upload::join).isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThat(pendingPuts).isEmpty();
+        // Both slots are free again
+        imageUploadService.uploadImage(image());
+        imageUploadService.uploadImage(image());
+    }
+
+    @Test
+    void identicalReUploadStoresNothing() throws Exception {
+        String first = storedUpload(image());
+        MockMultipartFile renamed = new MockMultipartFile("file", "same-cake.png", "image/png", PNG);
+
+        CompletableFuture<String> again = imageUploadService.uploadImage(renamed);
+
+        assertThat(again.join()).isEqualTo(first);
+        assertThat(pendingPuts).hasSize(OBJECTS_PER_UPLOAD);
+        verify(imageResizer, times(1)).createVariants(any());
+        // Uploading takes no reference, only recipes showing the image do
+        assertThat(references).containsEntry(first.substring(BASE_URL.length()), 0);
+    }
+
+    @Test
+    void identicalUploadInFlightIsWaitedForNotRepeated() throws Exception {
+        CompletableFuture<String> first = imageUploadService.uploadImage(image());
+        CompletableFuture<String> second = imageUploadService.uploadImage(image());
+        assertThat(second).isNotDone();
+
+        completePendingPuts();
+
+        assertThat(second.join()).isEqualTo(first.join());
+        assertThat(pendingPuts).hasSize(OBJECTS_PER_UPLOAD);
+    }
+
+    @Test
+    void jpgAndJpegShareAKeyButDifferentBytesDoNot() throws Exception {
+        byte[] jpeg = {(byte) 0xFF, (byte) 0xD8, 1, 2};
+        String first = storedUpload(new MockMultipartFile("file", "a.jpeg", "image/jpeg", jpeg));
+        String second = storedUpload(new MockMultipartFile("file", "b.jpg", "image/jpg", jpeg));
+        String other = storedUpload(new MockMultipartFile("file", "a.jpeg", "image/jpeg", new byte[]{(byte) 0xFF, (byte) 0xD8, 1, 3}));
+
+        assertThat(second).isEqualTo(first).endsWith("/original.jpg");
+        assertThat(other).isNotEqualTo(first);
+    }
+
+    @Test
+    void releaseKeepsTheImageUntilTheLastRecipeShowingItLetsGo() throws Exception {
+        String imageUrl = storedUpload(image());
+        imageUploadService.acquireImage(imageUrl);
+        imageUploadService.acquireImage(imageUrl);
+
+        imageUploadService.releaseImage(imageUrl);
+        verify(imageStorage, never()).delete(any());
+
+        imageUploadService.releaseImage(imageUrl);
+        String key = imageUrl.substring(BASE_URL.length());
+        verify(imageStorage).delete(List.of(key, ImageVariant.DETAIL.keyFor(key), ImageVariant.CARD.keyFor(key),
+                ImageVariant.THUMBNAIL.keyFor(key)));
+        assertThat(references).isEmpty();
+
+        // Stored again from scratch afterwards
+        storedUpload(image());
+        assertThat(pendingPuts).hasSize(2 * OBJECTS_PER_UPLOAD);
+    }
+
+    // Releasing more often than acquiring, images from before reference counting and other hosts' URLs
+    @Test
+    void imagesNoRecipeCountedAreNeverDeleted() throws Exception {
+        String imageUrl = storedUpload(image());
+
+        imageUploadService.releaseImage(imageUrl);
+        imageUploadService.releaseImage(BASE_URL + "recipe-images/abc-1/original.png");
+        imageUploadService.acquireImage("https://elsewhere.example.com/cake.png");
+        imageUploadService.releaseImage("https://elsewhere.example.com/cake.png");
+        imageUploadService.releaseImage("");
+        imageUploadService.releaseImage(null);
+
+        verify(imageStorage, never()).delete(any());
+        assertThat(references).containsOnlyKeys(imageUrl.substring(BASE_URL.length()));
+    }
+
+    @Test
+    void storageCallsAreTimedWhenTheyComplete() throws Exception {
+        imageUploadService.uploadImage(image());
+        assertThat(meterRegistry.find("image.storage").timers()).isEmpty();
+
+        pendingPuts.get(0).completeExceptionally(new RuntimeException("S3 unavailable"));
+        completePendingPuts();
+        assertThat(meterRegistry.get("image.storage").tags("operation", "put", "outcome", "success").timer().count())
+                .isEqualTo(OBJECTS_PER_UPLOAD - 1);
+        assertThat(meterRegistry.get("image.storage").tags("operation", "put", "outcome", "error").timer().count())
+                .isOne();
+
+        String imageUrl = storedUpload(image());
+        imageUploadService.acquireImage(imageUrl);
+        imageUploadService.releaseImage(imageUrl);
+        assertThat(meterRegistry.get("image.storage").tags("operation", "delete", "outcome", "success").timer().count())
+                .isOne();
+    }
+
+    @Test
+    void jobStaysPendingUntilTheImageIsStored() throws Exception {
+        UUID owner = UUID.randomUUID();
+        ImageUploadJobDTO job = imageUploadService.startUpload(image(), owner);
+        assertThat(job.getStatus()).isEqualTo(ImageUploadJobDTO.PENDING);
+        assertThat(imageUploadService.getUploadJob(job.getJobId(), UUID.randomUUID())).isEmpty();
+
+        completePendingPuts();
+
+        assertThat(imageUploadService.getUploadJob(job.getJobId(), owner)).hasValueSatisfying(done -> {
+            assertThat(done.getStatus()).isEqualTo(ImageUploadJobDTO.COMPLETED);
+            assertThat(done.getImageUrl()).contains("/recipe-images/");
+        });
+    }
+
+    @Test
+    void uploadsInFlightAreBounded() throws Exception {
+        UUID owner = UUID.randomUUID();
+        ImageUploadJobDTO first = imageUploadService.startUpload(image(), owner);
+        imageUploadService.startUpload(image(), owner);
+
+        assertThatThrownBy(() -> imageUploadService.uploadImage(image()))
+                .isInstanceOf(RejectedExecutionException.class);
+
+        // A failed upload frees its slot as well
+        pendingPuts.get(0).completeExceptionally(new IllegalStateException("Slow down"));
+        pendingPuts.subList(1, OBJECTS_PER_UPLOAD).forEach(put -> put.complete(null));
+        assertThat(imageUploadService.getUploadJob(first.getJobId(), owner))
+                .hasValueSatisfying(failed -> assertThat(failed.getStatus()).isEqualTo(ImageUploadJobDTO.FAILED));
+        assertThat(imageUploadService.uploadImage(image())).isNotDone();
+    }
+
+    @Test
+    void invalidFilesAreRejectedBeforeTakingASlot() {
+        MockMultipartFile text = new MockMultipartFile("file", "notes.txt", "text/plain", new byte[]{1});
+
+        assertThatThrownBy(() -> imageUploadService.uploadImage(text)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(pendingPuts).isEmpty();
+    }
+
+    @Test
+    void presignRejectsWhatAMultipartUploadWould() {
+        assertThatThrownBy(() -> imageUploadService.presignUpload(
+                presignRequest("cake.png", "image/png", 6L * 1024 * 1024), UUID.randomUUID()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> imageUploadService.presignUpload(
+                presignRequest("notes.txt", "text/plain", 10L), UUID.randomUUID()))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(imageStorage, never()).presignPut(anyString(), anyString(), anyLong(), any(Duration.class));
+    }
+
+    @Test
+    void completionVerifiesTheObjectAndStoresItsVariants() throws Exception {
+        UUID owner = UUID.randomUUID();
+        PresignedUploadDTO upload = imageUploadService.presignUpload(presignRequest("../../cake.png", "image/png", 1234L), owner);
+        storedImageIs(1234L, "image/png");
+
+        assertThat(upload.getUploadUrl()).startsWith(upload.getImageUrl());
+        assertThatThrownBy(() -> imageUploadService.completePresignedUpload(upload.getUploadId(), UUID.randomUUID()))
+                .isInstanceOf(ResourceNotFoundException.class);
+
+        ImageUploadJobDTO job = imageUploadService.completePresignedUpload(upload.getUploadId(), owner).join();
+        assertThat(job.getStatus()).isEqualTo(ImageUploadJobDTO.PENDING);
+        assertThat(job.getImageUrl()).isEqualTo(upload.getImageUrl()).doesNotContain("..");
+        // Tracked once its URL is handed out, recipes may show it while the variants are made
+        assertThat(references).containsEntry(upload.getImageUrl().substring(BASE_URL.length()), 0);
+        assertThat(pendingPuts).hasSize(ImageVariant.values().length);
+        completePendingPuts();
+
+        assertThat(imageUploadService.getUploadJob(job.getJobId(), owner)).hasValueSatisfying(done -> {
+            assertThat(done.getStatus()).isEqualTo(ImageUploadJobDTO.COMPLETED);
+            assertThat(done.getImageUrl()).isEqualTo(upload.getImageUrl());
+        });
+        // Completing twice is not possible
+        assertThatThrownBy(() -> imageUploadService.completePresignedUpload(upload.getUploadId(), owner))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    // The object is only read back for its variants, which the job makes after the completion has been answered
+    @Test
+    void completionAnswersBeforeTheImageIsReadBack() throws Exception {
+        UUID owner = UUID.randomUUID();
+        PresignedUploadDTO upload = imageUploadService.presignUpload(presignRequest("cake.png", "image/png", 1234L), owner);
+        storedImageIs(1234L, "image/png");
+        CompletableFuture<Void> download = new CompletableFuture<>();
+        when(imageStorage.download(anyString(), any(Path.class))).thenReturn(download);
+
+        CompletableFuture<ImageUploadJobDTO> completed = imageUploadService.completePresignedUpload(upload.getUploadId(), owner);
+
+        assertThat(completed).isCompletedWithValueMatching(job -> job.getStatus().equals(ImageUploadJobDTO.PENDING));
+        verify(imageResizer, never()).createVariants(any());
+        download.complete(null);
+        completePendingPuts();
+        assertThat(imageUploadService.getUploadJob(completed.join().getJobId(), owner))
+                .hasValueSatisfying(done -> assertThat(done.getStatus()).isEqualTo(ImageUploadJobDTO.COMPLETED));
+    }
+
+    @Test
+    void undecodablePresignedUploadFailsItsJobAndIsDeleted() throws Exception {
+        UUID owner = UUID.randomUUID();
+        PresignedUploadDTO upload = imageUploadService.presignUpload(presignRequest("cake.png", "image/png", 1234L), owner);
+        storedImageIs(1234L, "image/png");
+        when(imageResizer.createVariants(any())).thenReturn(
+                CompletableFuture.failedFuture(new IllegalArgumentException("File is not a readable image")));
+
+        ImageUploadJobDTO job = imageUploadService.completePresignedUpload(upload.getUploadId(), owner).join();
+
+        assertThat(imageUploadService.getUploadJob(job.getJobId(), owner)).hasValueSatisfying(failed -> {
+            assertThat(failed.getStatus()).isEqualTo(ImageUploadJobDTO.FAILED);
+            assertThat(failed.getMessage()).isEqualTo("File is not a readable image");
+        });
+        verify(imageStorage).delete(List.of(upload.getImageUrl().substring(BASE_URL.length())));
+        assertThat(pendingPuts).isEmpty();
+        assertThat(references).isEmpty();
+    }
+
+    @Test
+    void completionBeforeThePutCanBeRetried() throws Exception {
+        UUID owner = UUID.randomUUID();
+        PresignedUploadDTO upload = imageUploadService.presignUpload(presignRequest("cake.png", "image/png", 1234L), owner);
+        when(imageStorage.head(anyString())).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+
+        assertThatThrownBy(imageUploadService.completePresignedUpload(upload.getUploadId(), owner)::join)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+
+        storedImageIs(1234L, "image/png");
+        ImageUploadJobDTO job = imageUploadService.completePresignedUpload(upload.getUploadId(), owner).join();
+        assertThat(job.getImageUrl()).isEqualTo(upload.getImageUrl());
+    }
+
+    @Test
+    void objectThatDoesNotMatchTheSignedUploadIsDeleted() throws Exception {
+        UUID owner = UUID.randomUUID();
+        PresignedUploadDTO upload = imageUploadService.presignUpload(presignRequest("cake.png", "image/png", 1234L), owner);
+        storedImageIs(1234L, "text/html");
+
+        assertThatThrownBy(imageUploadService.completePresignedUpload(upload.getUploadId(), owner)::join)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+
+        verify(imageStorage).delete(List.of(upload.getImageUrl().substring(BASE_URL.length())));
+        verify(imageResizer, never()).createVariants(any());
+        assertThat(pendingPuts).isEmpty();
+    }
+
+    private String storedUpload(MockMultipartFile file) throws Exception {
+        CompletableFuture<String> upload = imageUploadService.uploadImage(file);
+        completePendingPuts();
+        return upload.join();
+    }
+
+    private static String sha256(byte[] bytes) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+
+    private CompletableFuture<Void> pendingPut() {
+        CompletableFuture<Void> put = new CompletableFuture<>();
+        pendingPuts.add(put);
+        return put;
+    }
+
+    private void completePendingPuts() {
+        pendingPuts.forEach(put -> put.complete(null));
+    }
+
+    private void storedImageIs(long contentLength, String contentType) {
+        when(imageStorage.head(anyString())).thenReturn(
+                CompletableFuture.completedFuture(Optional.of(new StoredImage(contentLength, contentType))));
+    }
+
+    private PresignedUploadRequestDTO presignRequest(String fileName, String contentType, Long contentLength) {
+        PresignedUploadRequestDTO request = new PresignedUploadRequestDTO();
+        request.setFileName(fileName);
+        request.setContentType(contentType);
+        request.setContentLength(contentLength);
+        return request;
+    }
+
+    private MockMultipartFile image() {
+        return new MockMultipartFile("file", "cake.png", "image/png", PNG);
+    }
+}
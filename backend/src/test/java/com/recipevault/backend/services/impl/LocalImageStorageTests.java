@@ -0,0 +1,116 @@
+package com.recipevault.backend.services.impl;
+
+import com.recipevault.backend.controller.ImageFileController;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+ * On-disk image store and the controller serving it, fully offline
+ * MockMvc has no sendfile support, so bodies go through the FileChannel.transferTo path
+ */
+
+class LocalImageStorageTests {
+
+    private static final String KEY = "recipe-images/abc-1/original.png";
+    private static final byte[] IMAGE = "0123456789abcdefghij".getBytes();
+
+    @TempDir
+    private Path root;
+
+    private LocalImageStorage imageStorage;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        imageStorage = new LocalImageStorage(root, "http://localhost:9000/api/images/files");
+        mockMvc = MockMvcBuilders.standaloneSetup(new ImageFileController(imageStorage)).build();
+        imageStorage.put(KEY, IMAGE, "image/png").join();
+    }
+
+    @Test
+    void storesReportsAndDeletesImages() throws Exception {
+        assertThat(imageStorage.url(KEY)).isEqualTo("http://localhost:9000/api/images/files/" + KEY);
+        assertThat(imageStorage.keyOf(imageStorage.url(KEY))).isEqualTo(KEY);
+        assertThat(imageStorage.head(KEY).join()).hasValueSatisfying(head -> {
+            assertThat(head.contentLength()).isEqualTo(IMAGE.length);
+            assertThat(head.contentType()).isEqualTo("image/png");
+        });
+
+        Path copy = root.resolve("copy");
+        imageStorage.download(KEY, copy).join();
+        assertThat(copy).hasBinaryContent(IMAGE);
+
+        imageStorage.delete(List.of(KEY, "recipe-images/abc-1/card.jpg")).join();
+        assertThat(imageStorage.head(KEY).join()).isEmpty();
+        // The image's folder goes with its last file
+        assertThat(root.resolve("recipe-images/abc-1")).doesNotExist();
+        assertThat(Files.list(root.resolve("recipe-images"))).isEmpty();
+    }
+
+    @Test
+    void keysCannotLeaveTheImageDirectory() {
+        assertThatThrownBy(() -> imageStorage.put("../outside.png", IMAGE, "image/png"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> imageStorage.keyOf("http://localhost:9000/api/images/files/recipe-images/../../etc/passwd"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> imageStorage.presignPut(KEY, "image/png", 1, null))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void servesImagesAsImmutable() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/images/files/" + KEY))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/png"))
+                .andExpect(content().bytes(IMAGE))
+                .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, String.valueOf(IMAGE.length)))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andReturn();
+
+        mockMvc.perform(get("/api/images/files/" + KEY)
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, result.getResponse().getHeader(HttpHeaders.LAST_MODIFIED)))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void servesByteRanges() throws Exception {
+        mockMvc.perform(get("/api/images/files/" + KEY).header(HttpHeaders.RANGE, "bytes=5-9"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 5-9/20"))
+                .andExpect(content().bytes("56789".getBytes()));
+
+        mockMvc.perform(get("/api/images/files/" + KEY).header(HttpHeaders.RANGE, "bytes=-4"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().bytes("ghij".getBytes()));
+
+        mockMvc.perform(get("/api/images/files/" + KEY).header(HttpHeaders.RANGE, "bytes=20-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */20"));
+    }
+
+    @Test
+    void unknownOrEscapingKeysAreNotFound() throws Exception {
+        mockMvc.perform(get("/api/images/files/recipe-images/missing/original.png"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/images/files/recipe-images"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,166 @@
+package com.recipevault.backend.services.impl;
+
+import com.recipevault.backend.config.CacheConfig;
+import com.recipevault.backend.dto.recipes.RecipeCreateDTO;
+import com.recipevault.backend.dto.recipes.RecipeDetailDTO;
+import com.recipevault.backend.dto.recipes.RecipeUpdateDTO;
+import com.recipevault.backend.entities.RecipeEntity;
+import com.recipevault.backend.entities.UserEntity;
+import com.recipevault.backend.mapper.IngredientMapperImpl;
+import com.recipevault.backend.mapper.RecipeMapperImpl;
+import com.recipevault.backend.repositories.RecipeRepository;
+import com.recipevault.backend.repositories.UserRepository;
+import com.recipevault.backend.search.IngredientMatchIndex;
+import com.recipevault.backend.search.RecipeSearchIndex;
+import com.recipevault.backend.services.ImageUploadService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Write paths evict exactly the cache entries they make stale: the recipe's detail, the shared summary lists and the
+ * writer's first my-recipes page, while other recipes' details and other users' pages stay cached
+ * The cached detail carries its own validators, so conditional GETs never pair a new ETag with an old body
+ * Not transactional, evictions only happen once the service's own transaction commits
+ */
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({CacheConfig.class, RecipeServiceImpl.class, RecipeMapperImpl.class, IngredientMapperImpl.class})
+class RecipeCacheEvictionTests {
+
+    @Autowired
+    private RecipeServiceImpl recipeService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private RecipeSearchIndex recipeSearchIndex;
+
+    @MockBean
+    private IngredientMatchIndex ingredientMatchIndex;
+
+    @MockBean
+    private ImageUploadService imageUploadService;
+
+    private UserEntity alice;
+    private UserEntity bob;
+    private RecipeEntity alicesRecipe;
+    private RecipeEntity bobsRecipe;
+
+    @BeforeEach
+    void setUp() {
+        alice = userRepository.save(new UserEntity("alice", "alice@example.com", "secret"));
+        bob = userRepository.save(new UserEntity("bob", "bob@example.com", "secret"));
+        alicesRecipe = recipe("Shakshuka", alice);
+        bobsRecipe = recipe("Menemen", bob);
+
+        // Warm every cache the write paths touch
+        recipeService.getRecipeById(alicesRecipe.getId());
+        recipeService.getRecipeById(bobsRecipe.getId());
+        recipeService.getAllRecipes();
+        recipeService.getRecipeFeed(null, 20);
+        recipeService.getRecipeListVersion();
+        recipeService.getUserRecipes(alice.getId(), RecipeServiceImpl.DEFAULT_USER_RECIPES_PAGE);
+        recipeService.getUserRecipes(bob.getId(), RecipeServiceImpl.DEFAULT_USER_RECIPES_PAGE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        recipeRepository.deleteAll();
+        userRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void createEvictsTheListsAndTheAuthorsPage() {
+        RecipeCreateDTO create = new RecipeCreateDTO();
+        create.setTitle("Huevos rancheros");
+        recipeService.createRecipe(create, alice);
+
+        assertThat(cached(CacheConfig.RECIPE_DETAILS, alicesRecipe.getId())).isTrue();
+        assertThat(cached(CacheConfig.RECIPE_DETAILS, bobsRecipe.getId())).isTrue();
+        assertSummariesEvicted();
+        assertThat(cached(CacheConfig.USER_RECIPES, alice.getId())).isFalse();
+        assertThat(cached(CacheConfig.USER_RECIPES, bob.getId())).isTrue();
+    }
+
+    @Test
+    void updateEvictsOnlyThatRecipesDetail() {
+        RecipeUpdateDTO update = new RecipeUpdateDTO();
+        update.setTitle("Green shakshuka");
+        recipeService.updateRecipe(alicesRecipe.getId(), update, alice, null);
+
+        assertThat(cached(CacheConfig.RECIPE_DETAILS, alicesRecipe.getId())).isFalse();
+        assertThat(cached(CacheConfig.RECIPE_DETAILS, bobsRecipe.getId())).isTrue();
+        assertSummariesEvicted();
+        assertThat(cached(CacheConfig.USER_RECIPES, alice.getId())).isFalse();
+        assertThat(cached(CacheConfig.USER_RECIPES, bob.getId())).isTrue();
+        assertThat(recipeService.getRecipeById(alicesRecipe.getId()).getTitle()).isEqualTo("Green shakshuka");
+    }
+
+    @Test
+    void deleteEvictsOnlyThatRecipesDetail() {
+        recipeService.deleteRecipe(bobsRecipe.getId(), bob, null);
+
+        assertThat(cached(CacheConfig.RECIPE_DETAILS, bobsRecipe.getId())).isFalse();
+        assertThat(cached(CacheConfig.RECIPE_DETAILS, alicesRecipe.getId())).isTrue();
+        assertSummariesEvicted();
+        assertThat(cached(CacheConfig.USER_RECIPES, bob.getId())).isFalse();
+        assertThat(cached(CacheConfig.USER_RECIPES, alice.getId())).isTrue();
+    }
+
+    // The controller takes ETag and Last-Modified from the cached detail, so they must change with its body
+    @Test
+    void cachedDetailCarriesTheValidatorsOfItsBody() {
+        RecipeDetailDTO before = recipeService.getRecipeById(alicesRecipe.getId());
+
+        RecipeUpdateDTO update = new RecipeUpdateDTO();
+        update.setTitle("Green shakshuka");
+        recipeService.updateRecipe(alicesRecipe.getId(), update, alice, before.getVersion());
+
+        RecipeDetailDTO after = recipeService.getRecipeById(alicesRecipe.getId());
+        assertThat(after.getTitle()).isEqualTo("Green shakshuka");
+        assertThat(after.getVersion()).isEqualTo(before.getVersion() + 1);
+        assertThat(after.getLastModifiedDate()).isAfter(before.getLastModifiedDate());
+        assertThat(recipeService.getRecipeById(alicesRecipe.getId())).isSameAs(after);
+    }
+
+    private void assertSummariesEvicted() {
+        assertThat(cached(CacheConfig.RECIPE_SUMMARIES, "all")).isFalse();
+        assertThat(cached(CacheConfig.RECIPE_SUMMARIES, "feed:20")).isFalse();
+        assertThat(cached(CacheConfig.RECIPE_SUMMARIES, "version")).isFalse();
+    }
+
+    private boolean cached(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        return cache.get(key) != null;
+    }
+
+    private RecipeEntity recipe(String title, UserEntity user) {
+        RecipeEntity recipe = new RecipeEntity();
+        recipe.setTitle(title);
+        recipe.setUser(user);
+        recipe.setCreatedDate(LocalDateTime.now());
+        return recipeRepository.save(recipe);
+    }
+}
@@ -0,0 +1,105 @@
+package com.recipevault.backend.services.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.recipevault.backend.entities.IngredientEntity;
+import com.recipevault.backend.entities.RecipeEntity;
+import com.recipevault.backend.enums.Difficulty;
+import com.recipevault.backend.mapper.IngredientMapperImpl;
+import com.recipevault.backend.mapper.RecipeMapperImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * NDJSON export: one line per recipe in id order, ingredients looked up once per batch rather than per recipe
+ */
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({RecipeExportServiceImpl.class, RecipeMapperImpl.class, IngredientMapperImpl.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class RecipeExportServiceImplTests {
+
+    private static final int RECIPES = RecipeExportServiceImpl.BATCH_SIZE + 1;
+
+    @Autowired
+    private RecipeExportServiceImpl recipeExportService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < RECIPES; i++) {
+            RecipeEntity recipe = new RecipeEntity();
+            recipe.setTitle("Recipe " + i);
+            recipe.setDifficulty(Difficulty.MEDIUM);
+            recipe.setInstructions("Step " + i);
+            recipe.setCreatedDate(LocalDateTime.now());
+            // Every other recipe has no ingredients
+            for (int j = 0; j < i % 2 * 3; j++) {
+                IngredientEntity ingredient = new IngredientEntity();
+                ingredient.setIngredientName("Ingredient " + j);
+                recipe.addIngredient(ingredient);
+            }
+            entityManager.persist(recipe);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void exportsEveryRecipeAsOneLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long exported = recipeExportService.exportNdjson(out);
+
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        assertThat(exported).isEqualTo(RECIPES);
+        assertThat(lines).hasSize(RECIPES);
+        assertThat(lines.get(0).get("title").asText()).isEqualTo("Recipe 0");
+        assertThat(lines.get(0).get("ingredientNames")).isEmpty();
+        assertThat(lines.get(1).get("ingredientNames")).extracting(JsonNode::asText)
+                .containsExactly("Ingredient 0", "Ingredient 1", "Ingredient 2");
+        assertThat(lines).extracting(line -> line.get("id").asLong()).isSorted();
+    }
+
+    @Test
+    void readsIngredientsOncePerBatch() throws Exception {
+        recipeExportService.exportNdjson(new ByteArrayOutputStream());
+
+        // One recipe query and one ingredient lookup for each of the two batches
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        assertThat(statistics.getCollectionFetchCount()).isZero();
+    }
+}
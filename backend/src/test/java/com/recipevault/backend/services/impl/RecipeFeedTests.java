@@ -0,0 +1,147 @@
+package com.recipevault.backend.services.impl;
+
+import com.recipevault.backend.dto.recipes.RecipeFeedDTO;
+import com.recipevault.backend.dto.recipes.RecipeSummaryDTO;
+import com.recipevault.backend.entities.RecipeEntity;
+import com.recipevault.backend.exceptions.InvalidRequestException;
+import com.recipevault.backend.mapper.IngredientMapperImpl;
+import com.recipevault.backend.mapper.RecipeMapperImpl;
+import com.recipevault.backend.repositories.RecipeRepository;
+import com.recipevault.backend.search.IngredientMatchIndex;
+import com.recipevault.backend.search.RecipeSearchIndex;
+import com.recipevault.backend.services.ImageUploadService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/*
+ * Keyset feed: pages follow (createdDate, id) descending through the opaque cursor, without gaps or repeats
+ * even where many recipes share a created date
+ */
+
+@DataJpaTest
+@Import({RecipeServiceImpl.class, RecipeMapperImpl.class, IngredientMapperImpl.class})
+class RecipeFeedTests {
+    private static final LocalDateTime NOON = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @Autowired
+    private RecipeServiceImpl recipeService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @MockBean
+    private RecipeSearchIndex recipeSearchIndex;
+
+    @MockBean
+    private IngredientMatchIndex ingredientMatchIndex;
+
+    @MockBean
+    private ImageUploadService imageUploadService;
+
+    @Test
+    void cursorsWalkTheWholeFeedAcrossEqualCreatedDates() {
+        List<RecipeEntity> saved = new ArrayList<>();
+        saved.add(recipe("Newest", NOON.plusHours(1)));
+        for (int i = 0; i < 5; i++) {
+            saved.add(recipe("Same time " + i, NOON));
+        }
+        saved.add(recipe("Oldest", NOON.minusHours(1)));
+        List<Long> expected = saved.stream()
+                .sorted(Comparator.comparing(RecipeEntity::getCreatedDate).thenComparing(RecipeEntity::getId).reversed())
+                .map(RecipeEntity::getId)
+                .toList();
+
+        List<Long> served = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        RecipeFeedDTO page;
+        do {
+            page = recipeService.getRecipeFeed(cursor, 2);
+            page.getRecipes().forEach(recipe -> served.add(recipe.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (page.isHasMore());
+
+        assertThat(served).isEqualTo(expected);
+        assertThat(pages).isEqualTo(4);
+        assertThat(page.getNextCursor()).isNull();
+        assertThat(page.getRecipes()).hasSize(1);
+    }
+
+    @Test
+    void lastFullPageReportsNoMore() {
+        recipe("First", NOON);
+        recipe("Second", NOON.plusMinutes(1));
+
+        RecipeFeedDTO page = recipeService.getRecipeFeed(null, 2);
+        assertThat(page.getRecipes()).hasSize(2);
+        assertThat(page.isHasMore()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void sizeIsClampedBetweenOneAndOneHundred() {
+        List<RecipeEntity> recipes = new ArrayList<>();
+        for (int i = 0; i < 101; i++) {
+            RecipeEntity recipe = new RecipeEntity();
+            recipe.setTitle("Recipe " + i);
+            recipe.setCreatedDate(NOON.plusMinutes(i));
+            recipes.add(recipe);
+        }
+        recipeRepository.saveAll(recipes);
+
+        assertThat(recipeService.getRecipeFeed(null, 0).getRecipes()).hasSize(1);
+        assertThat(recipeService.getRecipeFeed(null, -5).getRecipes()).hasSize(1);
+        RecipeFeedDTO capped = recipeService.getRecipeFeed(null, 1000);
+        assertThat(capped.getRecipes()).hasSize(100);
+        assertThat(capped.isHasMore()).isTrue();
+        assertThat(capped.getRecipes()).extracting(RecipeSummaryDTO::getTitle).doesNotContain("Recipe 0");
+    }
+
+    @Test
+    void malformedCursorsAreInvalidRequests() {
+        recipe("Only", NOON);
+
+        for (String cursor : List.of("not base64!", encode("no separator"), encode("yesterday|1"),
+                encode(NOON + "|abc"), encode("|"))) {
+            assertThatThrownBy(() -> recipeService.getRecipeFeed(cursor, 10))
+                    .as(cursor)
+                    .isInstanceOf(InvalidRequestException.class)
+                    .hasMessage("Invalid feed cursor");
+        }
+    }
+
+    // The cursor is the (createdDate, id) of the last recipe served, the next page starts strictly after it
+    @Test
+    void cursorRoundTripsThePositionOfTheLastRecipe() {
+        RecipeEntity older = recipe("Older", NOON);
+        RecipeEntity newer = recipe("Newer", NOON.plusMinutes(1));
+
+        RecipeFeedDTO page = recipeService.getRecipeFeed(encode(newer.getCreatedDate() + "|" + newer.getId()), 10);
+        assertThat(page.getRecipes()).extracting(RecipeSummaryDTO::getId).containsExactly(older.getId());
+    }
+
+    private RecipeEntity recipe(String title, LocalDateTime createdDate) {
+        RecipeEntity recipe = new RecipeEntity();
+        recipe.setTitle(title);
+        recipe.setCreatedDate(createdDate);
+        return recipeRepository.save(recipe);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
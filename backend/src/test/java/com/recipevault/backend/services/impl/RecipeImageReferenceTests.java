@@ -0,0 +1,117 @@
+package com.recipevault.backend.services.impl;
+
+import com.recipevault.backend.dto.recipes.RecipeCreateDTO;
+import com.recipevault.backend.dto.recipes.RecipeDetailDTO;
+import com.recipevault.backend.dto.recipes.RecipeUpdateDTO;
+import com.recipevault.backend.entities.UserEntity;
+import com.recipevault.backend.exceptions.UnauthorizedAccessException;
+import com.recipevault.backend.mapper.IngredientMapperImpl;
+import com.recipevault.backend.mapper.RecipeMapperImpl;
+import com.recipevault.backend.repositories.UserRepository;
+import com.recipevault.backend.search.IngredientMatchIndex;
+import com.recipevault.backend.search.RecipeSearchIndex;
+import com.recipevault.backend.services.ImageUploadService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/*
+ * Image references follow the recipes showing the image: taken when a recipe is created with it or switches to it,
+ * released when the recipe switches away, drops it or is deleted by its owner
+ */
+
+@DataJpaTest
+@Import({RecipeServiceImpl.class, RecipeMapperImpl.class, IngredientMapperImpl.class})
+class RecipeImageReferenceTests {
+    private static final String CAKE = "https://images.example.com/recipe-images/cake/original.png";
+    private static final String PIE = "https://images.example.com/recipe-images/pie/original.png";
+
+    @Autowired
+    private RecipeServiceImpl recipeService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockBean
+    private RecipeSearchIndex recipeSearchIndex;
+
+    @MockBean
+    private IngredientMatchIndex ingredientMatchIndex;
+
+    @MockBean
+    private ImageUploadService imageUploadService;
+
+    private UserEntity alice;
+    private RecipeDetailDTO recipe;
+
+    @BeforeEach
+    void setUp() {
+        alice = userRepository.save(new UserEntity("alice", "alice@example.com", "secret"));
+        RecipeCreateDTO create = new RecipeCreateDTO();
+        create.setTitle("Cake");
+        create.setImageUrl(CAKE);
+        recipe = recipeService.createRecipe(create, alice);
+    }
+
+    @Test
+    void createTakesAReferenceToTheImage() {
+        verify(imageUploadService).acquireImage(CAKE);
+        verify(imageUploadService, never()).releaseImage(any());
+    }
+
+    @Test
+    void switchingImagesMovesTheReference() {
+        clearInvocations(imageUploadService);
+
+        recipeService.updateRecipe(recipe.getId(), update(PIE), alice, null);
+
+        InOrder order = inOrder(imageUploadService);
+        order.verify(imageUploadService).acquireImage(PIE);
+        order.verify(imageUploadService).releaseImage(CAKE);
+    }
+
+    @Test
+    void keepingOrDroppingTheImage() {
+        clearInvocations(imageUploadService);
+
+        recipeService.updateRecipe(recipe.getId(), update(CAKE), alice, null);
+        RecipeUpdateDTO titleOnly = new RecipeUpdateDTO();
+        titleOnly.setTitle("Lemon cake");
+        recipeService.updateRecipe(recipe.getId(), titleOnly, alice, null);
+        verifyNoInteractions(imageUploadService);
+
+        recipeService.updateRecipe(recipe.getId(), update(""), alice, null);
+        verify(imageUploadService).releaseImage(CAKE);
+    }
+
+    @Test
+    void onlyTheOwnersDeleteReleasesTheImage() {
+        UserEntity bob = userRepository.save(new UserEntity("bob", "bob@example.com", "secret"));
+        clearInvocations(imageUploadService);
+
+        assertThatThrownBy(() -> recipeService.deleteRecipe(recipe.getId(), bob, null))
+                .isInstanceOf(UnauthorizedAccessException.class);
+        verify(imageUploadService, never()).releaseImage(any());
+
+        recipeService.deleteRecipe(recipe.getId(), alice, null);
+        verify(imageUploadService).releaseImage(CAKE);
+    }
+
+    private static RecipeUpdateDTO update(String imageUrl) {
+        RecipeUpdateDTO update = new RecipeUpdateDTO();
+        update.setImageUrl(imageUrl);
+        return update;
+    }
+}
@@ -0,0 +1,163 @@
+package com.recipevault.backend.services.impl;
+
+import com.recipevault.backend.dto.recipes.RecipeImportErrorDTO;
+import com.recipevault.backend.dto.recipes.RecipeImportResultDTO;
+import com.recipevault.backend.entities.RecipeEntity;
+import com.recipevault.backend.entities.UserEntity;
+import com.recipevault.backend.mapper.IngredientMapperImpl;
+import com.recipevault.backend.mapper.RecipeMapperImpl;
+import com.recipevault.backend.repositories.RecipeRepository;
+import com.recipevault.backend.repositories.UserRepository;
+import com.recipevault.backend.search.IngredientMatchIndex;
+import com.recipevault.backend.search.RecipeSearchIndex;
+import com.recipevault.backend.services.ImageUploadService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verify;
+
+/*
+ * Bulk import: valid rows are persisted in batches, bad rows are reported by position and skipped
+ * Runs outside the test transaction so the service's own batch transactions commit
+ */
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({RecipeImportServiceImpl.class, RecipeMapperImpl.class, IngredientMapperImpl.class})
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+class RecipeImportServiceImplTests {
+
+    @Autowired
+    private RecipeImportServiceImpl recipeImportService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockBean
+    private RecipeSearchIndex recipeSearchIndex;
+
+    @MockBean
+    private IngredientMatchIndex ingredientMatchIndex;
+
+    @MockBean
+    private ImageUploadService imageUploadService;
+
+    private UserEntity admin;
+
+    @BeforeEach
+    void setUp() {
+        admin = new UserEntity("admin", "admin@example.com", "password");
+        admin.setFirstName("Ada");
+        admin.setLastName("Admin");
+        admin = userRepository.save(admin);
+    }
+
+    @AfterEach
+    void tearDown() {
+        recipeRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void jsonImportSkipsInvalidRows() {
+        String json = """
+                [
+                  {"title": "Pancakes", "difficulty": "EASY", "instructions": "Mix and fry", "ingredientNames": ["Flour", "Milk"]},
+                  {"difficulty": "EASY", "instructions": "No title"},
+                  {"title": "Risotto", "difficulty": "HARD", "instructions": "Stir", "ingredientNames": "Rice"},
+                  {"title": "Salad", "difficulty": "MEDIUM", "instructions": "Toss", "creatorName": "Partner Kitchen"}
+                ]
+                """;
+
+        RecipeImportResultDTO result = recipeImportService.importJson(stream(json), admin);
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(RecipeImportErrorDTO::getRow).containsExactly(2L, 3L);
+        assertThat(result.getErrors().get(0).getMessage()).contains("title");
+
+        List<RecipeEntity> recipes = recipeRepository.findAll();
+        assertThat(recipes).extracting(RecipeEntity::getCreatorName)
+                .containsExactlyInAnyOrder("Ada Admin", "Partner Kitchen");
+        verify(recipeSearchIndex).indexAll(argThat(batch -> batch.size() == 2));
+    }
+
+    @Test
+    void newlineDelimitedJsonImportsEveryBatch() {
+        int recipes = RecipeImportServiceImpl.BATCH_SIZE * 2 + 7;
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < recipes; i++) {
+            ndjson.append("{\"title\":\"Recipe ").append(i)
+                    .append("\",\"difficulty\":\"EASY\",\"instructions\":\"Cook\",\"ingredientNames\":[\"Salt\",\"Pepper\"]}\n");
+        }
+
+        RecipeImportResultDTO result = recipeImportService.importJson(stream(ndjson.toString()), admin);
+
+        assertThat(result.getImported()).isEqualTo(recipes);
+        assertThat(result.getFailed()).isZero();
+        assertThat(recipeRepository.count()).isEqualTo(recipes);
+    }
+
+    @Test
+    void malformedJsonKeepsRowsReadBeforeTheError() {
+        String json = "[{\"title\":\"Toast\",\"difficulty\":\"EASY\",\"instructions\":\"Toast it\"}, {\"title\": ";
+
+        RecipeImportResultDTO result = recipeImportService.importJson(stream(json), admin);
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getErrors()).singleElement()
+                .satisfies(error -> assertThat(error.getMessage()).startsWith("Import stopped"));
+    }
+
+    @Test
+    void csvImportHandlesQuotedFieldsAndIngredientLists() {
+        String csv = "title,difficulty,instructions,ingredients\r\n" +
+                "\"Soup, hearty\",MEDIUM,\"Chop.\nSimmer \"\"low\"\".\",Carrot|Onion| Celery \r\n" +
+                "\r\n" +
+                "Bread,IMPOSSIBLE,Bake,Flour\r\n" +
+                "Rice,EASY,Boil,Rice|Water,extra\r\n";
+
+        RecipeImportResultDTO result = recipeImportService.importCsv(stream(csv), admin);
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(RecipeImportErrorDTO::getRow).containsExactly(2L, 3L);
+
+        RecipeEntity soup = recipeRepository.findAll().get(0);
+        assertThat(soup.getTitle()).isEqualTo("Soup, hearty");
+        assertThat(soup.getInstructions()).isEqualTo("Chop.\nSimmer \"low\".");
+        assertThat(soup.getIngredientCount()).isEqualTo(3);
+    }
+
+    @Test
+    void csvWithoutRequiredColumnsImportsNothing() {
+        RecipeImportResultDTO result = recipeImportService.importCsv(stream("name,steps\nToast,Toast it\n"), admin);
+
+        assertThat(result.getImported()).isZero();
+        assertThat(result.getErrors()).singleElement()
+                .satisfies(error -> assertThat(error.getMessage()).contains("title, difficulty, instructions"));
+    }
+
+    private InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,173 @@
+package com.recipevault.backend.services.impl;
+
+import com.recipevault.backend.controller.RecipeController;
+import com.recipevault.backend.dto.SliceResponseDTO;
+import com.recipevault.backend.dto.recipes.RecipeSummaryDTO;
+import com.recipevault.backend.entities.RecipeEntity;
+import com.recipevault.backend.entities.UserEntity;
+import com.recipevault.backend.exceptions.InvalidRequestException;
+import com.recipevault.backend.mapper.IngredientMapperImpl;
+import com.recipevault.backend.mapper.RecipeMapperImpl;
+import com.recipevault.backend.repositories.RecipeRepository;
+import com.recipevault.backend.repositories.UserRepository;
+import com.recipevault.backend.search.IngredientMatchIndex;
+import com.recipevault.backend.search.RecipeSearchIndex;
+import com.recipevault.backend.services.ImageUploadService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.MethodParameter;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/*
+ * My-recipes slice contract the frontend pages through: only the user's own recipes, newest first unless sorted by a
+ * whitelisted property, at most 100 per page and hasNext set while another page follows
+ */
+
+@DataJpaTest
+@Import({RecipeServiceImpl.class, RecipeMapperImpl.class, IngredientMapperImpl.class})
+class RecipeUserRecipesTests {
+    private static final LocalDateTime NOON = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @Autowired
+    private RecipeServiceImpl recipeService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockBean
+    private RecipeSearchIndex recipeSearchIndex;
+
+    @MockBean
+    private IngredientMatchIndex ingredientMatchIndex;
+
+    @MockBean
+    private ImageUploadService imageUploadService;
+
+    private UserEntity alice;
+    private UserEntity bob;
+
+    @BeforeEach
+    void setUp() {
+        alice = userRepository.save(new UserEntity("alice", "alice@example.com", "secret"));
+        bob = userRepository.save(new UserEntity("bob", "bob@example.com", "secret"));
+    }
+
+    @Test
+    void defaultPageHoldsOnlyTheUsersRecipesNewestFirst() {
+        recipe("Old", alice, NOON);
+        recipe("New", alice, NOON.plusHours(1));
+        recipe("Someone else's", bob, NOON.plusHours(2));
+
+        SliceResponseDTO<RecipeSummaryDTO> page =
+                recipeService.getUserRecipes(alice.getId(), RecipeServiceImpl.DEFAULT_USER_RECIPES_PAGE);
+
+        assertThat(page.getContent()).extracting(RecipeSummaryDTO::getTitle).containsExactly("New", "Old");
+        assertThat(page.getPage()).isZero();
+        assertThat(page.getSize()).isEqualTo(20);
+        assertThat(page.isHasNext()).isFalse();
+    }
+
+    // The frontend asks for ?page=0 without a size or sort, that request has to land on the cached page
+    @Test
+    void firstPageTheFrontendRequestsIsTheCachedDefault() throws Exception {
+        MethodParameter pageable = new MethodParameter(
+                RecipeController.class.getMethod("getMyRecipes", Pageable.class), 0);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/recipes/my-recipes");
+        request.setParameter("page", "0");
+
+        Pageable resolved = new PageableHandlerMethodArgumentResolver()
+                .resolveArgument(pageable, null, new ServletWebRequest(request), null);
+
+        assertThat(resolved).isEqualTo(RecipeServiceImpl.DEFAULT_USER_RECIPES_PAGE);
+    }
+
+    @Test
+    void hasNextIsSetUntilTheLastPage() {
+        for (int i = 0; i < 5; i++) {
+            recipe("Recipe " + i, alice, NOON.plusMinutes(i));
+        }
+
+        List<String> served = new ArrayList<>();
+        List<Boolean> hasNext = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            SliceResponseDTO<RecipeSummaryDTO> slice = recipeService.getUserRecipes(alice.getId(), PageRequest.of(page, 2));
+            slice.getContent().forEach(recipe -> served.add(recipe.getTitle()));
+            hasNext.add(slice.isHasNext());
+        }
+
+        assertThat(served).containsExactly("Recipe 4", "Recipe 3", "Recipe 2", "Recipe 1", "Recipe 0");
+        assertThat(hasNext).containsExactly(true, true, false);
+    }
+
+    @Test
+    void pageSizeIsCappedAtOneHundred() {
+        List<RecipeEntity> recipes = new ArrayList<>();
+        for (int i = 0; i < 101; i++) {
+            RecipeEntity recipe = new RecipeEntity();
+            recipe.setTitle("Recipe " + i);
+            recipe.setUser(alice);
+            recipe.setCreatedDate(NOON.plusMinutes(i));
+            recipes.add(recipe);
+        }
+        recipeRepository.saveAll(recipes);
+
+        SliceResponseDTO<RecipeSummaryDTO> capped = recipeService.getUserRecipes(alice.getId(), PageRequest.of(0, 1000));
+
+        assertThat(capped.getContent()).hasSize(100);
+        assertThat(capped.getSize()).isEqualTo(100);
+        assertThat(capped.isHasNext()).isTrue();
+        assertThat(capped.getContent()).extracting(RecipeSummaryDTO::getTitle).doesNotContain("Recipe 0");
+    }
+
+    @Test
+    void whitelistedSortsAreApplied() {
+        recipe("Banana bread", alice, NOON);
+        recipe("Apple pie", alice, NOON.plusHours(1));
+        recipe("Carrot cake", alice, NOON.minusHours(1));
+
+        SliceResponseDTO<RecipeSummaryDTO> page =
+                recipeService.getUserRecipes(alice.getId(), PageRequest.of(0, 20, Sort.by("title")));
+
+        assertThat(page.getContent()).extracting(RecipeSummaryDTO::getTitle)
+                .containsExactly("Apple pie", "Banana bread", "Carrot cake");
+    }
+
+    @Test
+    void sortsOutsideTheWhitelistAreInvalidRequests() {
+        recipe("Only", alice, NOON);
+
+        for (String property : List.of("user.password", "id", "instructions")) {
+            assertThatThrownBy(() -> recipeService.getUserRecipes(alice.getId(), PageRequest.of(0, 20, Sort.by(property))))
+                    .as(property)
+                    .isInstanceOf(InvalidRequestException.class)
+                    .hasMessage("Cannot sort recipes by: " + property);
+        }
+    }
+
+    private RecipeEntity recipe(String title, UserEntity user, LocalDateTime createdDate) {
+        RecipeEntity recipe = new RecipeEntity();
+        recipe.setTitle(title);
+        recipe.setUser(user);
+        recipe.setCreatedDate(createdDate);
+        return recipeRepository.save(recipe);
+    }
+}
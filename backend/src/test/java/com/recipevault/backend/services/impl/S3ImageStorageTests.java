@@ -0,0 +1,129 @@
+package com.recipevault.backend.services.impl;
+
+import com.recipevault.backend.services.PresignedPut;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/*
+ * S3 mapping of the image store: object requests, public URLs and presigned PUTs (signed offline)
+ */
+
+class S3ImageStorageTests {
+
+    private final S3AsyncClient s3AsyncClient = mock(S3AsyncClient.class);
+    private final S3Presigner s3Presigner = S3Presigner.builder()
+            .region(Region.AP_SOUTHEAST_1)
+            .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("key", "secret")))
+            .build();
+    private S3ImageStorage imageStorage;
+
+    @BeforeEach
+    void setUp() {
+        imageStorage = new S3ImageStorage(s3AsyncClient, s3Presigner);
+        ReflectionTestUtils.setField(imageStorage, "bucketName", "recipevault-img");
+        ReflectionTestUtils.setField(imageStorage, "region", "ap-southeast-1");
+        ReflectionTestUtils.setField(imageStorage, "endpoint", "");
+    }
+
+    @AfterEach
+    void tearDown() {
+        s3Presigner.close();
+    }
+
+    @Test
+    void putsCarryTheContentType() {
+        when(s3AsyncClient.putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class)))
+                .thenReturn(CompletableFuture.completedFuture(PutObjectResponse.builder().build()));
+
+        imageStorage.put("recipe-images/a/card.jpg", new byte[]{1, 2, 3}, "image/jpeg").join();
+
+        ArgumentCaptor<PutObjectRequest> request = ArgumentCaptor.forClass(PutObjectRequest.class);
+        ArgumentCaptor<AsyncRequestBody> body = ArgumentCaptor.forClass(AsyncRequestBody.class);
+        verify(s3AsyncClient).putObject(request.capture(), body.capture());
+        assertThat(request.getValue().bucket()).isEqualTo("recipevault-img");
+        assertThat(request.getValue().key()).isEqualTo("recipe-images/a/card.jpg");
+        assertThat(request.getValue().contentType()).isEqualTo("image/jpeg");
+        assertThat(body.getValue().contentLength()).contains(3L);
+    }
+
+    @Test
+    void urlsAreVirtualHostedOnAwsAndPathStyleElsewhere() {
+        String url = imageStorage.url("recipe-images/a/original.png");
+        assertThat(url).isEqualTo("https://recipevault-img.s3.ap-southeast-1.amazonaws.com/recipe-images/a/original.png");
+        assertThat(imageStorage.keyOf(url)).isEqualTo("recipe-images/a/original.png");
+        assertThatThrownBy(() -> imageStorage.keyOf("https://elsewhere.example.com/a.png"))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        ReflectionTestUtils.setField(imageStorage, "endpoint", "http://localhost:9002");
+        assertThat(imageStorage.url("recipe-images/a/original.png"))
+                .isEqualTo("http://localhost:9002/recipevault-img/recipe-images/a/original.png");
+    }
+
+    @Test
+    void missingObjectsHaveNoHead() {
+        when(s3AsyncClient.headObject(any(HeadObjectRequest.class))).thenReturn(CompletableFuture.failedFuture(
+                NoSuchKeyException.builder().statusCode(404).message("Not Found").build()));
+        assertThat(imageStorage.head("recipe-images/a/original.png").join()).isEmpty();
+
+        when(s3AsyncClient.headObject(any(HeadObjectRequest.class))).thenReturn(CompletableFuture.completedFuture(
+                HeadObjectResponse.builder().contentLength(1234L).contentType("image/png").build()));
+        assertThat(imageStorage.head("recipe-images/a/original.png").join()).hasValueSatisfying(head -> {
+            assertThat(head.contentLength()).isEqualTo(1234L);
+            assertThat(head.contentType()).isEqualTo("image/png");
+        });
+    }
+
+    @Test
+    void severalKeysAreDeletedInOneRequest() {
+        when(s3AsyncClient.deleteObjects(any(DeleteObjectsRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(DeleteObjectsResponse.builder().build()));
+
+        imageStorage.delete(List.of("recipe-images/a/original.png", "recipe-images/a/card.jpg")).join();
+
+        ArgumentCaptor<DeleteObjectsRequest> request = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+        verify(s3AsyncClient).deleteObjects(request.capture());
+        assertThat(request.getValue().delete().objects()).extracting(ObjectIdentifier::key)
+                .containsExactly("recipe-images/a/original.png", "recipe-images/a/card.jpg");
+    }
+
+    @Test
+    void presignedUrlIsSignedForTheDeclaredTypeAndSize() {
+        PresignedPut presigned = imageStorage.presignPut("recipe-images/a/original.png", "image/png", 1234L,
+                Duration.ofMinutes(5));
+
+        assertThat(presigned.url())
+                .startsWith("https://recipevault-img.s3.ap-southeast-1.amazonaws.com/recipe-images/a/original.png?")
+                .contains("X-Amz-Expires=300")
+                .contains("X-Amz-SignedHeaders=content-length%3Bcontent-type%3Bhost");
+        assertThat(presigned.headers()).containsEntry("content-type", "image/png").containsEntry("content-length", "1234")
+                .doesNotContainKey("host");
+    }
+}
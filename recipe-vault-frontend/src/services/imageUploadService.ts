@@ -29,19 +29,6 @@ class ImageUploadService {
       throw new Error('Failed to upload image. Please try again.');
     }
   }
-
-  async deleteImage(imageUrl: string): Promise<void> {
-    try {
-      // Use apiService instead of raw axios
-      await apiService.delete('/images', {
-        params: { imageUrl },
-        timeout: 10000,
-      });
-    } catch (error) {
-      console.error('Error deleting image:', error);
-      throw new Error('Failed to delete image.');
-    }
-  }
 }
 
 export const imageUploadService = new ImageUploadService();
@@ -1,5 +1,5 @@
 import { apiService } from './api';
-import type { Recipe, RecipeFormData } from '@/types/recipe';
+import type { Recipe, RecipeFormData, RecipePage } from '@/types/recipe';
 // import { getInitialRecipeData } from '@/assets/recipeData';
 import { convertIngredientsFromBackend } from '@/utils/ingredientUtils';
 import type {
@@ -7,6 +7,7 @@ import type {
   BackendRecipeUpdateRequest,
   BackendRecipeResponse,
   BackendRecipeSummaryResponse,
+  BackendSliceResponse,
 } from '@/types/backend';
 import { callWithErrorHandling } from 'vue';
 
@@ -85,13 +86,19 @@ export class RecipeService {
     }
   }
 
-  // Fetch my recipes
-  async getMyRecipes(): Promise<Recipe[]> {
+  // Fetch one page of my recipes, newest first
+  // Page size and sort are left to the backend defaults, whose first page the backend caches
+  async getMyRecipes(page = 0): Promise<RecipePage> {
     try {
-      const summaries = await apiService.get<BackendRecipeSummaryResponse[]>(
-        '/recipes/my-recipes'
-      );
-      return summaries.map((summary) => this.mapSummaryToFrontend(summary));
+      const slice = await apiService.get<
+        BackendSliceResponse<BackendRecipeSummaryResponse>
+      >(`/recipes/my-recipes?page=${page}`);
+      return {
+        recipes: slice.content.map((summary) =>
+          this.mapSummaryToFrontend(summary)
+        ),
+        hasNext: slice.hasNext,
+      };
     } catch (error) {
       console.error('Error fetching my recipes:', error);
       throw error;
@@ -1,6 +1,6 @@
 import { defineStore } from 'pinia';
 import { ref } from 'vue';
-import type { Recipe } from '@/types/recipe';
+import type { Recipe, RecipePage } from '@/types/recipe';
 import type {
   BackendRecipeCreateRequest,
   BackendRecipeUpdateRequest,
@@ -47,17 +47,16 @@ export const useRecipeStore = defineStore('recipe', () => {
     }
   };
 
-  const fetchMyRecipes = async (): Promise<Recipe[]> => {
+  const fetchMyRecipes = async (page = 0): Promise<RecipePage> => {
     const uiStore = useUIStore();
     uiStore.setLoading(true);
 
     try {
       // This will call the /api/recipes/my-recipes endpoint
-      const data = await recipeService.getMyRecipes();
-      return data;
+      return await recipeService.getMyRecipes(page);
     } catch (error) {
       console.error('Error fetching my recipes:', error);
-      return [];
+      return { recipes: [], hasNext: false };
     } finally {
       uiStore.setLoading(false);
     }
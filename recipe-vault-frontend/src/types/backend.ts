@@ -48,6 +48,14 @@ export interface BackendRecipeSummaryResponse {
   ingredientCount: number;
 }
 
+// Page of results without a total count (getMyRecipes response), request the next page while hasNext is true
+export interface BackendSliceResponse<T> {
+  content: T[];
+  page: number;
+  size: number;
+  hasNext: boolean;
+}
+
 // Error response from backend
 export interface BackendErrorResponse {
   status: number;
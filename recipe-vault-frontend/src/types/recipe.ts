@@ -24,6 +24,12 @@ export interface Recipe {
   userId?: string; // For backend user association
 }
 
+// One page of a recipe listing, hasNext tells whether another page follows
+export interface RecipePage {
+  recipes: Recipe[];
+  hasNext: boolean;
+}
+
 // Frontend form data (what my form components work with)
 export interface RecipeFormData {
   title: string;
@@ -6,6 +6,9 @@ CREATE DATABASE recipevault;
 USE recipevault;
 
 -- Drop tables if they exist (for clean setup)
+DROP TABLE IF EXISTS image_references;
+DROP TABLE IF EXISTS ingredients_seq;
+DROP TABLE IF EXISTS recipes_seq;
 DROP TABLE IF EXISTS ingredients;
 DROP TABLE IF EXISTS recipes;
 
@@ -17,9 +20,19 @@ CREATE TABLE recipes (
     instructions TEXT,
     image_url VARCHAR(255),
     creator_name VARCHAR(100),
-    created_date DATETIME DEFAULT CURRENT_TIMESTAMP
+    created_date DATETIME DEFAULT CURRENT_TIMESTAMP,
+    ingredient_count INT DEFAULT 0,
+    last_modified_date DATETIME(3) DEFAULT CURRENT_TIMESTAMP(3),
+    version BIGINT DEFAULT 0
 );
 
+-- Supports the keyset-paginated recipe feed (ORDER BY created_date DESC, id DESC)
+CREATE INDEX idx_recipes_created_date_id ON recipes (created_date, id);
+CREATE INDEX idx_recipes_difficulty_created_date ON recipes (difficulty, created_date);
+CREATE INDEX idx_recipes_ingredient_count_created_date ON recipes (ingredient_count, created_date);
+-- Latest modification time for the recipe list ETag
+CREATE INDEX idx_recipes_last_modified_date ON recipes (last_modified_date);
+
 -- Create ingredients table
 CREATE TABLE ingredients (
     id INT PRIMARY KEY AUTO_INCREMENT,
@@ -28,6 +41,13 @@ CREATE TABLE ingredients (
     FOREIGN KEY (recipe_id) REFERENCES recipes(id) ON DELETE CASCADE
 );
 
+-- Reference counts of uploaded images, keyed by the content-addressed key of the original
+CREATE TABLE image_references (
+    image_key VARCHAR(255) PRIMARY KEY,
+    reference_count INT NOT NULL,
+    created_date DATETIME(6)
+);
+
 -- Insert 12 recipes with varying difficulties
 INSERT INTO recipes (title, difficulty, instructions, image_url, creator_name) VALUES
 -- EASY recipes (0-5 ingredients)
@@ -229,6 +249,17 @@ INSERT INTO ingredients (recipe_id, ingredient_name) VALUES
 (12, 'Chili oil'),
 (12, 'Salt');
 
+-- Denormalized ingredient count read by recipe list endpoints
+UPDATE recipes r
+SET ingredient_count = (SELECT COUNT(*) FROM ingredients i WHERE i.recipe_id = r.id);
+
+-- Hibernate hands out recipe and ingredient ids in blocks of 50 from these tables (MySQL has no sequences)
+-- Each starts one block past the seeded rows
+CREATE TABLE recipes_seq (next_val BIGINT);
+INSERT INTO recipes_seq SELECT COALESCE(MAX(id), 0) + 51 FROM recipes;
+CREATE TABLE ingredients_seq (next_val BIGINT);
+INSERT INTO ingredients_seq SELECT COALESCE(MAX(id), 0) + 51 FROM ingredients;
+
 -- Verification queries
 SELECT 'Recipe Distribution Summary:' as Info;
 
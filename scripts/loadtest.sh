@@ -0,0 +1,57 @@
+#!/bin/bash
+
+# Offline load test script
+# Generates a synthetic catalogue into in-memory H2, starts the backend against a fake S3 and drives it with the
+# load harness, which prints throughput and latency percentiles per operation and saves them as JSON
+#
+# Usage: scripts/loadtest.sh [harness options], e.g. scripts/loadtest.sh --duration=120s --concurrency=32
+# Dataset size: DATASET_USERS / DATASET_RECIPES (default 1000 / 100000)
+# A million recipes needs a larger heap for H2, e.g. DATASET_RECIPES=1000000 BACKEND_JAVA_OPTS=-Xmx6g
+
+set -e
+cd "$(dirname "$0")/../backend"
+
+export DATASET_USERS=${DATASET_USERS:-1000}
+export DATASET_RECIPES=${DATASET_RECIPES:-100000}
+FAKE_S3_PORT=${FAKE_S3_PORT:-9090}
+FAKE_S3_DELAY_MS=${FAKE_S3_DELAY_MS:-20}
+BACKEND_PORT=${BACKEND_PORT:-9000}
+BENCHMARKS_JAR=benchmarks/target/benchmarks.jar
+
+echo "🔨 Building backend and load harness (offline)..."
+./mvnw -q -o -Pbenchmark install -DskipTests
+(cd benchmarks && ../mvnw -q -o package)
+
+cleanup() {
+    echo "🛑 Stopping backend and fake S3..."
+    kill "$BACKEND_PID" "$FAKE_S3_PID" 2>/dev/null || true
+}
+trap cleanup EXIT
+
+echo "🪣 Starting fake S3 on port $FAKE_S3_PORT..."
+java -cp "$BENCHMARKS_JAR" com.recipevault.benchmarks.load.FakeS3Server "$FAKE_S3_PORT" "$FAKE_S3_DELAY_MS" &
+FAKE_S3_PID=$!
+
+echo "🚀 Starting backend with $DATASET_USERS users and $DATASET_RECIPES recipes (log: target/loadtest-backend.log)..."
+AWS_S3_ENDPOINT=http://127.0.0.1:$FAKE_S3_PORT AWS_ACCESS_KEY_ID=fake AWS_SECRET_ACCESS_KEY=fake PORT=$BACKEND_PORT \
+    java $BACKEND_JAVA_OPTS -jar target/backend-0.0.1-SNAPSHOT-exec.jar \
+    --spring.profiles.active=h2,dataset \
+    --spring.datasource.url="jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1" \
+    --spring.jpa.show-sql=false \
+    --management.endpoint.health.probes.enabled=true \
+    > target/loadtest-backend.log 2>&1 &
+BACKEND_PID=$!
+
+# Health includes readiness, which only turns UP once the dataset is generated
+until curl -sf "http://localhost:$BACKEND_PORT/actuator/health" > /dev/null; do
+    if ! kill -0 "$BACKEND_PID" 2>/dev/null; then
+        echo "❌ Backend exited, see target/loadtest-backend.log"
+        exit 1
+    fi
+    sleep 5
+done
+grep "SyntheticDatasetGenerator" target/loadtest-backend.log | tail -1 || true
+
+echo "📈 Running load harness..."
+java -cp "$BENCHMARKS_JAR" com.recipevault.benchmarks.load.LoadHarness \
+    --base-url="http://localhost:$BACKEND_PORT" --users="$DATASET_USERS" --recipes="$DATASET_RECIPES" "$@"